@@ -0,0 +1,102 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+/**
+ * Entity to response DTO mapping for one page of employees, and for departments.
+ * The flat constructor is the one JPQL constructor expressions call, so it shows
+ * what the projected queries pay per row compared with mapping loaded entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DtoMappingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Departments {
+
+        List<Department> departments;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            departments = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                Department department = new Department();
+                department.setId(i);
+                department.setName("Department " + i);
+                departments.add(department);
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EmployeePage {
+
+        @Param({ "10", "100" })
+        int pageSize;
+
+        List<Employee> employees;
+
+        @Setup(Level.Trial)
+        public void setUp(Departments departments) {
+            employees = new ArrayList<>(pageSize);
+            for (int i = 1; i <= pageSize; i++) {
+                Employee employee = new Employee("First" + i, "Last" + i, "employee" + i + "@company.com");
+                employee.setId(i);
+                employee.setDepartment(departments.departments.get(i % departments.departments.size()));
+                employees.add(employee);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<EmployeeResponseDTO> employeesFromEntities(EmployeePage page) {
+        List<EmployeeResponseDTO> result = new ArrayList<>(page.employees.size());
+        for (Employee employee : page.employees) {
+            result.add(new EmployeeResponseDTO(employee));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<EmployeeResponseDTO> employeesFromColumns(EmployeePage page) {
+        List<EmployeeResponseDTO> result = new ArrayList<>(page.employees.size());
+        for (Employee employee : page.employees) {
+            Department department = employee.getDepartment();
+            result.add(new EmployeeResponseDTO(employee.getFirstName(), employee.getEmail(), employee.getId(),
+                    department.getId(), department.getName()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<DepartmentResponseDTO> departmentsFromEntities(Departments departments) {
+        List<DepartmentResponseDTO> result = new ArrayList<>(departments.departments.size());
+        for (Department department : departments.departments) {
+            result.add(new DepartmentResponseDTO(department));
+        }
+        return result;
+    }
+}
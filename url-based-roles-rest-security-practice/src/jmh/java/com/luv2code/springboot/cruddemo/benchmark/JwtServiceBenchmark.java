@@ -0,0 +1,87 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.VerifiedToken;
+
+/**
+ * Token issue and verification as done by the login endpoint and the JWT filter.
+ * cacheMaxSize=0 turns off the verified-token cache, so every call parses and checks
+ * the signature again; compare it with the default size to see what the cache saves
+ * on each authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtServiceBenchmark {
+
+    // Same key as jwt.secret in application.properties.
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    @Param({ "10000", "0" })
+    private int cacheMaxSize;
+
+    @Param({ "false", "true" })
+    private boolean selfContainedClaims;
+
+    private JwtService jwtService;
+    private UserDetails user;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(jwtService, "selfContainedClaims", selfContainedClaims);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        user = User.withUsername("manager").password("x").roles("MANAGER", "EMPLOYEE").build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    // What JwtAuthenticationFilter does for every authenticated request, minus the
+    // user lookup when the roles are not carried in the token.
+    @Benchmark
+    public boolean filterPath() {
+        VerifiedToken verified = jwtService.verify(token);
+        UserDetails userDetails = jwtService.toUserDetails(verified);
+        return jwtService.isTokenValid(verified, userDetails != null ? userDetails : user);
+    }
+}
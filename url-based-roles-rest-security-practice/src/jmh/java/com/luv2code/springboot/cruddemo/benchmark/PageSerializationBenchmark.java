@@ -0,0 +1,80 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.PageResponseDTO;
+
+/**
+ * Jackson serialization of a page of employees, with an ObjectMapper configured
+ * the way Spring Boot configures the MVC one: Spring's PageImpl as GET /api/employees
+ * used to return it, the {@link PageResponseDTO} envelope it returns now, and the
+ * bare content list, so the cost of each envelope shows up separately from the rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class PageSerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<EmployeeResponseDTO> page;
+    private PageResponseDTO<EmployeeResponseDTO> envelope;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        List<EmployeeResponseDTO> content = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            long departmentId = i % 5 + 1;
+            content.add(new EmployeeResponseDTO("First" + i, "employee" + i + "@company.com", i,
+                    departmentId, "Department " + departmentId));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize, Sort.by("id")), 50_000);
+        envelope = PageResponseDTO.of(page, CountMode.EXACT);
+    }
+
+    @Benchmark
+    public byte[] page() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] envelope() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public byte[] contentOnly() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page.getContent());
+    }
+}
@@ -0,0 +1,71 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Creates the schema from the application's schema.sql and data.sql, then adds
+ * departments and employees at the requested scale. Rows are generated inside
+ * PostgreSQL with generate_series, and department assignment is a fixed hash of the
+ * id, so two runs at the same scale load identical data.
+ */
+public class DataSeeder {
+
+    static final String[] FIRST_NAMES = { "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael",
+            "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas",
+            "Sarah", "Charles", "Karen" };
+
+    static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin" };
+
+    /** Id ranges and names the request mix draws from. */
+    public record Seeded(int firstSeededEmployeeId, int maxEmployeeId, long maxDepartmentId,
+            List<String> departmentNames) {
+    }
+
+    static String email(int employeeId) {
+        return "employee" + employeeId + "@loadtest.example";
+    }
+
+    public static Seeded seed(DataSource dataSource, int departments, int employees) {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"), new ClassPathResource("data.sql"))
+                .execute(dataSource);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO departments (name) SELECT 'Department ' || g FROM generate_series(1, ?) g",
+                departments);
+        long maxDepartmentId = jdbc.queryForObject("SELECT MAX(id) FROM departments", Long.class);
+
+        int firstId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM employee", Integer.class);
+        int lastId = firstId + employees - 1;
+        jdbc.update("INSERT INTO employee (id, first_name, last_name, email, department_id) "
+                + "SELECT g, (" + array(FIRST_NAMES) + ")[1 + g % " + FIRST_NAMES.length + "], "
+                + "(" + array(LAST_NAMES) + ")[1 + (g / " + FIRST_NAMES.length + ") % " + LAST_NAMES.length + "], "
+                + "'employee' || g || '@loadtest.example', "
+                + "1 + (g::bigint * 2654435761) % ? "
+                + "FROM generate_series(?, ?) g", maxDepartmentId, firstId, lastId);
+
+        // Same bookkeeping as the end of data.sql, for the new rows.
+        jdbc.update("UPDATE departments d SET headcount = (SELECT COUNT(*) FROM employee e WHERE e.department_id = d.id)");
+        // Ids were assigned explicitly, so move the sequence past them (Hibernate allocates blocks of 50).
+        jdbc.queryForObject("SELECT setval('employee_id_seq', (SELECT MAX(id) FROM employee) + 100)", Long.class);
+        jdbc.execute("ANALYZE");
+
+        int maxEmployeeId = jdbc.queryForObject("SELECT MAX(id) FROM employee", Integer.class);
+        List<String> departmentNames = jdbc.queryForList("SELECT name FROM departments ORDER BY id", String.class);
+        return new Seeded(employees > 0 ? firstId : 1, maxEmployeeId, maxDepartmentId, departmentNames);
+    }
+
+    private static String array(String[] values) {
+        return Arrays.stream(values).map(value -> "'" + value + "'")
+                .collect(Collectors.joining(",", "ARRAY[", "]"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.CruddemoApplication;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * End-to-end load test on one machine, without network access or Docker:
+ * <ol>
+ * <li>starts PostgreSQL from the embedded binaries and seeds it ({@link DataSeeder}),</li>
+ * <li>boots the application against it on a random port,</li>
+ * <li>logs in through /api/auth/login,</li>
+ * <li>drives the chosen request mix at a fixed arrival rate ({@link OpenLoopDriver}),</li>
+ * <li>prints per-operation percentiles and writes them as JSON ({@link LoadTestReport}).</li>
+ * </ol>
+ * Arguments are key=value pairs, see {@link LoadTestConfig}. With baseline=&lt;earlier result&gt;
+ * the process exits with status 1 if any operation regressed beyond the tolerance.
+ * <p>
+ * The generator and the application share the machine, so compare runs made on the
+ * same box rather than reading the numbers as absolute capacity.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        RequestMix mix = RequestMix.of(config);
+        System.exit(run(config, mix));
+    }
+
+    private static int run(LoadTestConfig config, RequestMix mix) throws Exception {
+        // devtools is on the runtime classpath; its restart would run main() a second time.
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            long seedStart = System.nanoTime();
+            DataSeeder.Seeded data = DataSeeder.seed(postgres.getPostgresDatabase(), config.departments(),
+                    config.employees());
+            System.out.printf("Seeded %d departments and %d employees in %d ms%n", data.maxDepartmentId(),
+                    data.maxEmployeeId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - seedStart));
+
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(CruddemoApplication.class)
+                    .run(applicationArguments(config, postgres))) {
+                int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+                URI baseUri = URI.create("http://localhost:" + port);
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                String token = login(client, baseUri, config);
+
+                System.out.printf("Running %s at %d req/s: %d s warm-up, %d s measured%n",
+                        config.mix() != null ? config.mix() : config.scenario(), config.rate(),
+                        config.warmupSeconds(), config.durationSeconds());
+                RequestMix.Target target = new RequestMix.Target(baseUri, token, data, new AtomicLong());
+                Map<String, OpenLoopDriver.Stats> stats = new OpenLoopDriver(client, mix, target, config.maxInFlight())
+                        .run(config.rate(), Duration.ofSeconds(config.warmupSeconds()),
+                                Duration.ofSeconds(config.durationSeconds()));
+
+                LoadTestReport report = new LoadTestReport(config, stats);
+                report.print(System.out);
+                report.write(config.result());
+                System.out.println("Results written to " + config.result().toAbsolutePath());
+
+                if (config.baseline() != null) {
+                    List<String> regressions = report.compareWith(config.baseline(), config.tolerance());
+                    if (!regressions.isEmpty()) {
+                        System.out.printf("%nRegressions against %s (tolerance %.0f%%):%n", config.baseline(),
+                                config.tolerance() * 100);
+                        regressions.forEach(regression -> System.out.println("  " + regression));
+                        return 1;
+                    }
+                    System.out.println("No regressions against " + config.baseline());
+                }
+                return 0;
+            }
+        }
+    }
+
+    // Passed as command-line arguments so they take precedence over application.properties.
+    private static String[] applicationArguments(LoadTestConfig config, EmbeddedPostgres postgres) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "");
+        properties.put("api.v2.r2dbc.url", "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+        // The seeder already created and filled the schema.
+        properties.put("spring.sql.init.mode", "never");
+        properties.put("spring.threads.virtual.enabled", config.virtualThreads());
+        // Per-statement logging would dominate the measurement.
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        properties.putAll(config.appProperties());
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    private static String login(HttpClient client, URI baseUri, LoadTestConfig config) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        String body = mapper.writeValueAsString(Map.of("username", config.username(), "password", config.password()));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + config.username() + " failed with status "
+                    + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body()).path("token").asText();
+    }
+}
@@ -0,0 +1,81 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings for one load test run, read from key=value arguments. Keys the harness does
+ * not know are handed to the application as Spring properties, so a run can toggle
+ * application settings too (e.g. db.concurrency-limit.enabled=true).
+ *
+ * @param scenario          named request mix, see {@link RequestMix#scenario(String)}
+ * @param mix               explicit mix "operation:weight,..." overriding the scenario, or null
+ * @param rate              requests per second, spread evenly over time
+ * @param warmupSeconds     time run at the target rate before recording starts
+ * @param durationSeconds   recorded time
+ * @param departments       departments seeded in addition to data.sql
+ * @param employees         employees seeded in addition to data.sql
+ * @param virtualThreads    sets spring.threads.virtual.enabled (Java 21+)
+ * @param maxInFlight       requests allowed outstanding before new arrivals are dropped
+ * @param username          user logged in through /api/auth/login
+ * @param password          password of that user
+ * @param result            JSON summary written at the end
+ * @param baseline          earlier JSON summary to compare against, or null
+ * @param tolerance         allowed relative p99 increase and throughput drop against the baseline
+ * @param appProperties     extra properties for the application
+ */
+public record LoadTestConfig(
+        String scenario,
+        String mix,
+        int rate,
+        int warmupSeconds,
+        int durationSeconds,
+        int departments,
+        int employees,
+        boolean virtualThreads,
+        int maxInFlight,
+        String username,
+        String password,
+        Path result,
+        Path baseline,
+        double tolerance,
+        Map<String, String> appProperties) {
+
+    private static final Set<String> KEYS = Set.of("scenario", "mix", "rate", "warmup", "duration",
+            "departments", "employees", "virtualThreads", "maxInFlight", "username", "password",
+            "result", "baseline", "tolerance");
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> appProperties = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, separator);
+            String value = arg.substring(separator + 1);
+            (KEYS.contains(key) ? values : appProperties).put(key, value);
+        }
+
+        String scenario = values.getOrDefault("scenario", "mixed");
+        return new LoadTestConfig(
+                scenario,
+                values.get("mix"),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("warmup", "10")),
+                Integer.parseInt(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("departments", "50")),
+                Integer.parseInt(values.getOrDefault("employees", "10000")),
+                Boolean.parseBoolean(values.getOrDefault("virtualThreads", "false")),
+                Integer.parseInt(values.getOrDefault("maxInFlight", "10000")),
+                values.getOrDefault("username", "admin"),
+                values.getOrDefault("password", "password"),
+                Path.of(values.getOrDefault("result", "target/loadtest-" + scenario + ".json")),
+                values.containsKey("baseline") ? Path.of(values.get("baseline")) : null,
+                Double.parseDouble(values.getOrDefault("tolerance", "0.10")),
+                appProperties);
+    }
+}
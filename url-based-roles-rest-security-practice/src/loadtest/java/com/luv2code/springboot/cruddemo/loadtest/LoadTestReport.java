@@ -0,0 +1,139 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Summarizes a run per operation, prints it, and writes it as JSON next to the full
+ * HdrHistogram percentile distributions (.hgrm, one block per operation). Given a
+ * baseline summary from an earlier run, it lists every operation whose p99 grew or whose
+ * throughput fell by more than the tolerance.
+ */
+public class LoadTestReport {
+
+    /** Latencies are in milliseconds and include queueing from the intended start time. */
+    public record Summary(long count, long errors, long dropped, double throughput, double meanMs,
+            double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs, Map<Integer, Long> statusCounts) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final LoadTestConfig config;
+    private final Map<String, Summary> operations = new LinkedHashMap<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+    private final Summary total;
+
+    public LoadTestReport(LoadTestConfig config, Map<String, OpenLoopDriver.Stats> stats) {
+        this.config = config;
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        long dropped = 0;
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        for (Map.Entry<String, OpenLoopDriver.Stats> entry : stats.entrySet()) {
+            OpenLoopDriver.Stats s = entry.getValue();
+            Histogram latency = s.latency.copy();
+            Map<Integer, Long> operationStatuses = new TreeMap<>();
+            s.statusCounts.forEach((status, count) -> operationStatuses.put(status, count.sum()));
+            operations.put(entry.getKey(), summarize(latency, s.errors.sum(), s.dropped.sum(), operationStatuses));
+            histograms.put(entry.getKey(), latency);
+
+            all.add(latency);
+            errors += s.errors.sum();
+            dropped += s.dropped.sum();
+            operationStatuses.forEach((status, count) -> statusCounts.merge(status, count, Long::sum));
+        }
+        total = summarize(all, errors, dropped, statusCounts);
+    }
+
+    private Summary summarize(Histogram latency, long errors, long dropped, Map<Integer, Long> statusCounts) {
+        return new Summary(latency.getTotalCount(), errors, dropped,
+                latency.getTotalCount() / (double) config.durationSeconds(),
+                latency.getMean() / 1e6,
+                latency.getValueAtPercentile(50) / 1e6,
+                latency.getValueAtPercentile(90) / 1e6,
+                latency.getValueAtPercentile(99) / 1e6,
+                latency.getValueAtPercentile(99.9) / 1e6,
+                latency.getMaxValue() / 1e6,
+                statusCounts);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n%-28s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n", "operation", "count", "errors", "dropped",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        operations.forEach((name, s) -> printRow(out, name, s));
+        printRow(out, "TOTAL", total);
+    }
+
+    private static void printRow(PrintStream out, String name, Summary s) {
+        out.printf("%-28s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, s.count(), s.errors(),
+                s.dropped(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.p999Ms(), s.maxMs());
+    }
+
+    public void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("timestamp", Instant.now().toString());
+        json.put("scenario", config.mix() != null ? "custom" : config.scenario());
+        json.put("config", Map.of(
+                "rate", config.rate(),
+                "warmupSeconds", config.warmupSeconds(),
+                "durationSeconds", config.durationSeconds(),
+                "departments", config.departments(),
+                "employees", config.employees(),
+                "virtualThreads", config.virtualThreads(),
+                "javaVersion", Runtime.version().toString(),
+                "appProperties", config.appProperties()));
+        json.put("operations", operations);
+        json.put("total", total);
+        MAPPER.writeValue(file.toFile(), json);
+
+        Path distributions = file.resolveSibling(file.getFileName().toString().replaceFirst("\\.json$", "") + ".hgrm");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(distributions))) {
+            histograms.forEach((name, histogram) -> {
+                out.println("# " + name);
+                histogram.outputPercentileDistribution(out, 1e6);
+                out.println();
+            });
+        }
+    }
+
+    /**
+     * @return one line per regressed operation; empty if the run is within the tolerance
+     */
+    public List<String> compareWith(Path baselineFile, double tolerance) throws IOException {
+        JsonNode baseline = MAPPER.readTree(baselineFile.toFile()).path("operations");
+        List<String> regressions = new ArrayList<>();
+        operations.forEach((name, current) -> {
+            JsonNode before = baseline.path(name);
+            if (before.isMissingNode()) {
+                return;
+            }
+            double p99Before = before.path("p99Ms").asDouble();
+            double throughputBefore = before.path("throughput").asDouble();
+            if (p99Before > 0 && current.p99Ms() > p99Before * (1 + tolerance)) {
+                regressions.add(String.format("%s: p99 %.2f ms -> %.2f ms", name, p99Before, current.p99Ms()));
+            }
+            if (current.throughput() < throughputBefore * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %.1f -> %.1f req/s", name, throughputBefore,
+                        current.throughput()));
+            }
+        });
+        return regressions;
+    }
+}
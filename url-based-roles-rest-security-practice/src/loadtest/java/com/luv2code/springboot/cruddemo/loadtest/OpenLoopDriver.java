@@ -0,0 +1,132 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Issues requests at a fixed arrival rate regardless of how fast responses come back
+ * (an open workload model). Each request has an intended start time on a fixed
+ * schedule, and its latency is measured from that time, not from when it was actually
+ * sent. A server stall therefore shows up as queueing delay in every request that
+ * should have started during the stall, instead of silently lowering the request rate
+ * (coordinated omission).
+ */
+public class OpenLoopDriver {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    /** Outcome counters and the latency histogram of successful responses for one operation. */
+    public static class Stats {
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+    }
+
+    private final HttpClient client;
+    private final RequestMix mix;
+    private final RequestMix.Target target;
+    private final int maxInFlight;
+
+    private final Map<String, Stats> stats = new LinkedHashMap<>();
+    private final Recorder progress = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public OpenLoopDriver(HttpClient client, RequestMix mix, RequestMix.Target target, int maxInFlight) {
+        this.client = client;
+        this.mix = mix;
+        this.target = target;
+        this.maxInFlight = maxInFlight;
+        mix.operations().forEach(operation -> stats.put(operation.name(), new Stats()));
+    }
+
+    /**
+     * Runs warm-up and measurement back to back on one schedule, recording only requests
+     * whose intended start falls in the measurement window, then waits for stragglers.
+     *
+     * @return the per-operation results of the measurement window
+     */
+    public Map<String, Stats> run(int rate, Duration warmup, Duration duration) throws InterruptedException {
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextReport = measureFrom + TimeUnit.SECONDS.toNanos(5);
+
+        for (long i = 0;; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (intended >= nextReport) {
+                report(nextReport - measureFrom);
+                nextReport += TimeUnit.SECONDS.toNanos(5);
+            }
+            send(mix.next(), intended, intended >= measureFrom);
+        }
+
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.printf("%d requests still outstanding after 30 s; they are not included%n", inFlight.get());
+        }
+        return stats;
+    }
+
+    private void send(RequestMix.Operation operation, long intended, boolean recorded) {
+        Stats operationStats = stats.get(operation.name());
+        if (inFlight.get() >= maxInFlight) {
+            // The client cannot keep up its side of the schedule; count it instead of waiting.
+            if (recorded) {
+                operationStats.dropped.increment();
+            }
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(operation.request().apply(target), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - intended;
+                    inFlight.decrementAndGet();
+                    if (!recorded) {
+                        return;
+                    }
+                    int status = response != null ? response.statusCode() : -1;
+                    operationStats.statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+                    if (status >= 200 && status < 300) {
+                        operationStats.latency.recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                        progress.recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+                    } else {
+                        operationStats.errors.increment();
+                    }
+                });
+    }
+
+    private void report(long elapsedNanos) {
+        Histogram interval = progress.getIntervalHistogram();
+        System.out.printf("[%3ds] %7.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  in flight %d%n",
+                TimeUnit.NANOSECONDS.toSeconds(elapsedNanos),
+                interval.getTotalCount() / 5.0,
+                interval.getValueAtPercentile(50) / 1e6,
+                interval.getValueAtPercentile(99) / 1e6,
+                interval.getMaxValue() / 1e6,
+                inFlight.get());
+    }
+}
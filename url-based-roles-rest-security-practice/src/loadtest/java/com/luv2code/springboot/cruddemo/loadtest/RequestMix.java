@@ -0,0 +1,166 @@
+package com.luv2code.springboot.cruddemo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * The operations a run can issue and their relative weights. Each operation builds
+ * a fresh request with randomized ids, page numbers and search terms drawn from the
+ * seeded data, so caches see a realistic spread of keys.
+ */
+public class RequestMix {
+
+    /** One kind of request, e.g. "employees.get"; results are reported per operation. */
+    public record Operation(String name, Function<Target, HttpRequest> request) {
+    }
+
+    /** What the operations need to know about the running application and its data. */
+    public record Target(URI baseUri, String token, DataSeeder.Seeded data, AtomicLong sequence) {
+
+        HttpRequest.Builder get(String path) {
+            return request(path).GET();
+        }
+
+        HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "application/json");
+        }
+
+        int anyEmployeeId() {
+            return ThreadLocalRandom.current().nextInt(1, data.maxEmployeeId() + 1);
+        }
+
+        int seededEmployeeId() {
+            return ThreadLocalRandom.current().nextInt(data.firstSeededEmployeeId(), data.maxEmployeeId() + 1);
+        }
+
+        long departmentId() {
+            return ThreadLocalRandom.current().nextLong(1, data.maxDepartmentId() + 1);
+        }
+
+        String departmentName() {
+            List<String> names = data.departmentNames();
+            return names.get(ThreadLocalRandom.current().nextInt(names.size()));
+        }
+
+        String firstName() {
+            return DataSeeder.FIRST_NAMES[ThreadLocalRandom.current().nextInt(DataSeeder.FIRST_NAMES.length)];
+        }
+    }
+
+    private static final Map<String, Operation> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        // --- EmployeeRestController ---
+        add("employees.page", t -> t.get("/api/employees?size=20&page="
+                + ThreadLocalRandom.current().nextInt(Math.max(1, t.data().maxEmployeeId() / 20))).build());
+        add("employees.cursor", t -> t.get("/api/employees?after=&size=20").build());
+        add("employees.get", t -> t.get("/api/employees/" + t.anyEmployeeId()).build());
+        add("employees.byDepartment", t -> t.get("/api/employees/department/" + t.departmentId() + "?size=20").build());
+        add("employees.search", t -> t.get("/api/employees/search?size=10&q=" + t.firstName()).build());
+        add("employees.create", t -> {
+            long n = t.sequence().incrementAndGet();
+            return t.request("/api/employees")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("""
+                            {"firstName":"%s","lastName":"Created","email":"created%d.%d@loadtest.example","departmentName":"%s"}"""
+                            .formatted(t.firstName(), System.nanoTime(), n, t.departmentName())))
+                    .build();
+        });
+        add("employees.update", t -> {
+            int id = t.seededEmployeeId();
+            return t.request("/api/employees/" + id)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("""
+                            {"firstName":"%s","lastName":"Updated","email":"%s","departmentName":"%s"}"""
+                            .formatted(t.firstName(), DataSeeder.email(id), t.departmentName())))
+                    .build();
+        });
+
+        // --- DepartmentRestController ---
+        add("departments.page", t -> t.get("/api/departments?size=20").build());
+        add("departments.get", t -> t.get("/api/departments/id/" + t.departmentId()).build());
+        add("departments.stats", t -> t.get("/api/departments/stats").build());
+
+        // --- Reactive read API (/api/v2), shaped like the MVC reads above for comparison ---
+        add("v2.employees", t -> t.get("/api/v2/employees?after=0&limit=20").build());
+        add("v2.employees.get", t -> t.get("/api/v2/employees/" + t.anyEmployeeId()).build());
+        add("v2.employees.byDepartment", t -> t.get("/api/v2/employees/department/" + t.departmentId() + "?limit=20").build());
+        add("v2.departments", t -> t.get("/api/v2/departments").build());
+    }
+
+    // Predefined mixes; mvc-reads and v2-reads issue equivalent requests so they can be compared.
+    private static final Map<String, String> SCENARIOS = Map.of(
+            "mixed", "employees.page:10,employees.cursor:5,employees.get:25,employees.byDepartment:10,"
+                    + "employees.search:10,employees.create:5,employees.update:5,"
+                    + "departments.page:10,departments.get:10,departments.stats:10",
+            "mvc-reads", "employees.cursor:30,employees.get:40,employees.byDepartment:30",
+            "v2-reads", "v2.employees:30,v2.employees.get:40,v2.employees.byDepartment:30",
+            "search", "employees.search:100",
+            "writes", "employees.create:50,employees.update:50");
+
+    private static void add(String name, Function<Target, HttpRequest> request) {
+        OPERATIONS.put(name, new Operation(name, request));
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+    private final int[] cumulativeWeights;
+
+    private RequestMix(String spec) {
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Operation operation = OPERATIONS.get(parts[0]);
+            if (operation == null) {
+                throw new IllegalArgumentException("Unknown operation '" + parts[0] + "', expected one of "
+                        + OPERATIONS.keySet());
+            }
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (weight <= 0) {
+                continue;
+            }
+            total += weight;
+            operations.add(operation);
+            cumulative.add(total);
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The request mix is empty: " + spec);
+        }
+        cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static RequestMix of(LoadTestConfig config) {
+        if (config.mix() != null) {
+            return new RequestMix(config.mix());
+        }
+        String spec = SCENARIOS.get(config.scenario());
+        if (spec == null) {
+            throw new IllegalArgumentException("Unknown scenario '" + config.scenario() + "', expected one of "
+                    + SCENARIOS.keySet() + " or an explicit mix=operation:weight,...");
+        }
+        return new RequestMix(spec);
+    }
+
+    public List<Operation> operations() {
+        return operations;
+    }
+
+    public Operation next() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return operations.get(i);
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
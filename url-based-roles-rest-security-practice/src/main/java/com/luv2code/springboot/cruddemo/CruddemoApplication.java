@@ -2,8 +2,13 @@ package com.luv2code.springboot.cruddemo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only used by the /api/v2 read repository (see ReactiveApiConfig); an auto-configured
+// ConnectionFactory would take over SQL initialization from the JDBC DataSource.
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class CruddemoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,10 @@
+package com.luv2code.springboot.cruddemo.ExceptionHandling;
+
+// Thrown when a change feed cursor points to changes that are no longer kept (purged, or
+// from before the log was reset). The client must re-read everything. Answered with a 410.
+public class CursorExpiredException extends RuntimeException {
+
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package com.luv2code.springboot.cruddemo.ExceptionHandling;
 
 import java.util.stream.Collectors;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -20,6 +22,14 @@ public class EmployeeExceptionHandling {
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleException(Exception exc) {
 
+        // The database concurrency limiter rejects while a connection is being borrowed, so its
+        // ServiceBusyException usually arrives wrapped by the transaction infrastructure.
+        for (Throwable cause = exc.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceBusyException busy) {
+                return handleException(busy);
+            }
+        }
+
         // 1. LOG THE FULL EXCEPTION FOR DEBUGGING (This is for developers)
         // This logs the error message AND the full stack trace at the ERROR level.
         LOGGER.error("An unexpected error occurred: ", exc); // The key is passing 'exc' as the second argument
@@ -64,6 +74,16 @@ public class EmployeeExceptionHandling {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleException(InvalidRequestException exc) {
+        ErrorResponse error = new ErrorResponse(
+                exc.getMessage(),
+                HttpStatus.BAD_REQUEST.value(),
+                System.currentTimeMillis());
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(DuplicateResourceException.class)
     public ResponseEntity<ErrorResponse> handleException(DuplicateResourceException exc) {
         ErrorResponse error = new ErrorResponse(
@@ -73,4 +93,48 @@ public class EmployeeExceptionHandling {
 
         return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handleException(PreconditionFailedException exc) {
+        ErrorResponse error = new ErrorResponse(
+                exc.getMessage(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                System.currentTimeMillis());
+
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(CursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleException(CursorExpiredException exc) {
+        ErrorResponse error = new ErrorResponse(
+                exc.getMessage(),
+                HttpStatus.GONE.value(),
+                System.currentTimeMillis());
+
+        return new ResponseEntity<>(error, HttpStatus.GONE);
+    }
+
+    // The @Version check failed when the update was flushed: the row changed after it was read.
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleException(OptimisticLockingFailureException exc) {
+        ErrorResponse error = new ErrorResponse(
+                "The resource was modified concurrently; read it again and retry",
+                HttpStatus.CONFLICT.value(),
+                System.currentTimeMillis());
+
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleException(ServiceBusyException exc) {
+        // Tell the client when to come back instead of letting requests pile up.
+        ErrorResponse error = new ErrorResponse(
+                exc.getMessage(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                System.currentTimeMillis());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(exc.getRetryAfterSeconds()))
+                .body(error);
+    }
 }
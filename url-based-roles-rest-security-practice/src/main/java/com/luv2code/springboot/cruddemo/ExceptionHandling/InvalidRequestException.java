@@ -0,0 +1,15 @@
+package com.luv2code.springboot.cruddemo.ExceptionHandling;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Thrown when a request parameter is well-formed HTTP but makes no sense to the API
+// (e.g. a tampered pagination cursor or an unsupported sort field).
+// Mapped to HTTP 400 (BAD REQUEST) so the client knows to fix the request.
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
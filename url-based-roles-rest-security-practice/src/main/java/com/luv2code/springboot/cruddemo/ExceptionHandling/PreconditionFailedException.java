@@ -0,0 +1,10 @@
+package com.luv2code.springboot.cruddemo.ExceptionHandling;
+
+// Thrown when an If-Match header no longer matches the resource's current ETag,
+// i.e. someone else changed it since the client read it. Answered with a 412.
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
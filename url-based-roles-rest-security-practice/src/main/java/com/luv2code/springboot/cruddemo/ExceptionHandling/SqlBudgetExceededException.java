@@ -0,0 +1,10 @@
+package com.luv2code.springboot.cruddemo.ExceptionHandling;
+
+// Thrown in place of the SQL statement that would take a request over its @SqlBudget,
+// when sql.budget.fail-on-exceed is set (intended for tests). Surfaces as a 500.
+public class SqlBudgetExceededException extends RuntimeException {
+
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * ETags for the list endpoints (pages, cursor pages, search and department stats), hashed
+ * from the response body once it is rendered, with a 304 instead of the body when
+ * If-None-Match already holds that hash.
+ * <ul>
+ * <li>The tag covers exactly the rows in the response, so writes to rows on other pages
+ * leave it alone.</li>
+ * <li>It costs no query beyond the one that built the page.</li>
+ * <li>It always describes the body it came with, whichever database (primary or replica)
+ * that body was read from.</li>
+ * </ul>
+ * Single records keep their version-based ETags, which the filter does not replace.
+ */
+@Configuration
+public class CollectionETagConfig {
+
+    static final String[] COLLECTION_PATHS = {
+            "/api/employees",
+            "/api/employees/department/*",
+            "/api/employees/search",
+            "/api/departments",
+            "/api/departments/stats"
+    };
+
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> collectionETagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration =
+                new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(COLLECTION_PATHS);
+        return registration;
+    }
+}
@@ -0,0 +1,169 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.ServiceBusyException;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Lets at most a fixed number of threads hold a database connection at once and
+ * admits waiting threads strictly in arrival order. Sized to the connection pool,
+ * it queues a burst of request threads (virtual threads in particular, which are
+ * created freely, one per request) in a fair FIFO here instead of having all of
+ * them contend inside the pool. A thread that waits longer than the timeout fails
+ * with a {@link ServiceBusyException} (503 with Retry-After) instead of a pool error.
+ * <p>
+ * The permit is taken when a connection is borrowed and returned when it is closed,
+ * so it covers whole transactions, JdbcTemplate calls and repository calls alike.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource implements MeterBinder {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public ConcurrencyLimitingDataSource(DataSource target, int limit, long timeoutMillis, long retryAfterSeconds) {
+        super(target);
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitNanos.add(System.nanoTime() - start);
+        }
+        if (!acquired) {
+            rejectedCount.increment();
+            throw new ServiceBusyException("The server is busy, please try again shortly.", retryAfterSeconds);
+        }
+        acquiredCount.increment();
+    }
+
+    // Returns the permit on the first close(); everything else goes straight to the pooled connection.
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            try {
+                                connection.close();
+                            } finally {
+                                if (released.compareAndSet(false, true)) {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Connections currently borrowed through this data source.
+    public int getActive() {
+        return limit - permits.availablePermits();
+    }
+
+    // Threads waiting for a permit (an estimate, as with Semaphore#getQueueLength).
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    public long getWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.concurrency.limit", this, ConcurrencyLimitingDataSource::getLimit)
+                .description("Maximum threads allowed to hold a connection at once")
+                .register(registry);
+        Gauge.builder("db.concurrency.active", this, ConcurrencyLimitingDataSource::getActive)
+                .description("Threads currently holding a connection")
+                .register(registry);
+        Gauge.builder("db.concurrency.waiting", this, ConcurrencyLimitingDataSource::getWaiting)
+                .description("Threads waiting for a permit")
+                .register(registry);
+        FunctionTimer.builder("db.concurrency.wait", this, ConcurrencyLimitingDataSource::getAcquiredCount,
+                        ConcurrencyLimitingDataSource::getWaitNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent waiting for a permit before borrowing a connection")
+                .register(registry);
+        FunctionCounter.builder("db.concurrency.rejected", this, ConcurrencyLimitingDataSource::getRejectedCount)
+                .description("Borrowers that gave up after the timeout")
+                .register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Puts a {@link ConcurrencyLimitingDataSource} in front of the connection pool when
+ * db.concurrency-limit.enabled is set (by default together with virtual threads).
+ * Unless configured, the limit and the wait timeout are taken from the Hikari pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.concurrency-limit.enabled", havingValue = "true")
+public class DatabaseConcurrencyConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseConcurrencyConfig.class);
+
+    // Static so the post-processor is registered before the DataSource is created.
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitingDataSource) {
+                    return bean;
+                }
+                HikariDataSource pool = hikariPool(dataSource);
+                int limit = environment.getProperty("db.concurrency-limit.permits", Integer.class,
+                        pool != null ? pool.getMaximumPoolSize() : 10);
+                long timeoutMillis = environment.getProperty("db.concurrency-limit.timeout-ms", Long.class,
+                        pool != null ? pool.getConnectionTimeout() : 30000L);
+                long retryAfterSeconds = environment.getProperty("db.concurrency-limit.retry-after-seconds",
+                        Long.class, 1L);
+                LOGGER.info("Limiting data source '{}' to {} concurrent connections (fair, {} ms timeout)",
+                        beanName, limit, timeoutMillis);
+                return new ConcurrencyLimitingDataSource(dataSource, limit, timeoutMillis, retryAfterSeconds);
+            }
+        };
+    }
+
+    // The pool may already be wrapped, e.g. by the StatementCountingDataSource.
+    private static HikariDataSource hikariPool(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * Readiness check for the database. Borrows a connection and validates it on a
+ * separate thread, so a pool that is exhausted or a server that stopped answering
+ * turns the check DOWN after the timeout instead of hanging the health endpoint.
+ * A probe that is still stuck is waited on again rather than starting another one.
+ * <p>
+ * The details report the Hikari pool and, when enabled, the
+ * {@link ConcurrencyLimitingDataSource} in front of it; "saturated" means every
+ * connection is in use and borrowers are queueing. Read replicas are listed with
+ * their last health check; one that is down only sends its reads to the primary,
+ * so it does not turn this check DOWN.
+ */
+@Component("database")
+public class DatabaseHealthIndicator implements HealthIndicator, DisposableBean {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${health.database.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> probe;
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+        try {
+            startProbe().get(timeoutMillis, TimeUnit.MILLISECONDS);
+            builder = Health.up();
+        } catch (TimeoutException e) {
+            builder = Health.down().withDetail("error", "No valid connection within " + timeoutMillis + " ms");
+        } catch (ExecutionException e) {
+            builder = Health.down(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            builder = Health.down();
+        }
+        addPoolDetails(builder);
+        return builder.build();
+    }
+
+    private synchronized Future<?> startProbe() {
+        if (probe == null || probe.isDone()) {
+            probe = executor.submit(() -> {
+                validate();
+                return null;
+            });
+        }
+        return probe;
+    }
+
+    private void validate() throws SQLException {
+        int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis));
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid(timeoutSeconds)) {
+                throw new SQLException("Connection failed validation");
+            }
+        }
+    }
+
+    private void addPoolDetails(Health.Builder builder) {
+        HikariPoolMXBean pool = hikariPool();
+        if (pool != null) {
+            int max = unwrap(HikariDataSource.class).getMaximumPoolSize();
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("active", pool.getActiveConnections());
+            details.put("idle", pool.getIdleConnections());
+            details.put("max", max);
+            details.put("waiting", pool.getThreadsAwaitingConnection());
+            details.put("saturated", pool.getActiveConnections() >= max && pool.getThreadsAwaitingConnection() > 0);
+            builder.withDetail("pool", details);
+        }
+        ConcurrencyLimitingDataSource limiter = unwrap(ConcurrencyLimitingDataSource.class);
+        if (limiter != null) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("active", limiter.getActive());
+            details.put("limit", limiter.getLimit());
+            details.put("waiting", limiter.getWaiting());
+            details.put("saturated", limiter.getActive() >= limiter.getLimit() && limiter.getWaiting() > 0);
+            builder.withDetail("concurrencyLimit", details);
+        }
+        ReadReplicaRoutingDataSource router = unwrap(ReadReplicaRoutingDataSource.class);
+        if (router != null) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            details.put("up", router.getReplicaStatus());
+            details.put("replicaReads", router.getReplicaReadCount());
+            details.put("primaryReads", router.getPrimaryReadCount());
+            builder.withDetail("replicas", details);
+        }
+    }
+
+    // Null until the pool has started, or when the data source is not Hikari.
+    private HikariPoolMXBean hikariPool() {
+        HikariDataSource hikari = unwrap(HikariDataSource.class);
+        return hikari != null ? hikari.getHikariPoolMXBean() : null;
+    }
+
+    private <T> T unwrap(Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
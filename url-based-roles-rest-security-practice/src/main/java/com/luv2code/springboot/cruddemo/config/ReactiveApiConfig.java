@@ -0,0 +1,153 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.dao.ReactiveReadRepository;
+import com.luv2code.springboot.cruddemo.rest.ReactiveReadHandler;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.servlet.http.HttpServletRequest;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves the read-only /api/v2 endpoints with WebFlux functional routes mounted as a
+ * servlet in the existing Tomcat, next to the MVC DispatcherServlet. The adapter uses
+ * Servlet non-blocking I/O, so a request holds a container thread only while it is
+ * being dispatched, and the Spring Security filter chain (JWT authentication and the
+ * /api/v2 role rules) applies to it exactly as it does to the MVC endpoints.
+ * <p>
+ * The R2DBC pool is kept private to the repository on purpose: a ConnectionFactory bean
+ * would make Spring Boot run schema.sql/data.sql through R2DBC instead of JDBC.
+ */
+@Configuration
+@ConditionalOnProperty(name = "api.v2.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveApiConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveApiConfig.class);
+
+    private static final String PATH = "/api/v2";
+
+    @Bean(destroyMethod = "close")
+    public ReactiveReadRepository reactiveReadRepository(
+            @Value("${api.v2.r2dbc.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password,
+            @Value("${api.v2.r2dbc.pool.max-size:10}") int maxSize,
+            @Value("${api.v2.r2dbc.pool.max-acquire-ms:30000}") long maxAcquireMillis) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("api-v2")
+                .maxSize(maxSize)
+                .maxAcquireTime(Duration.ofMillis(maxAcquireMillis))
+                .build());
+        LOGGER.info("Serving /api/v2 reads from {} with up to {} R2DBC connections", url, maxSize);
+        return new ReactiveReadRepository(pool);
+    }
+
+    @Bean
+    public ReactiveReadHandler reactiveReadHandler(ReactiveReadRepository reactiveReadRepository,
+            @Value("${api.v2.max-limit:10000}") int maxLimit,
+            @Value("${db.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new ReactiveReadHandler(reactiveReadRepository, maxLimit, retryAfterSeconds);
+    }
+
+    // Paths are relative to the servlet mapping below.
+    public static RouterFunction<ServerResponse> routes(ReactiveReadHandler handler) {
+        return RouterFunctions.route()
+                .GET("/employees", handler::getEmployees)
+                .GET("/employees/department/{departmentId}", handler::getEmployeesByDepartment)
+                .GET("/employees/{employeeId}", handler::getEmployee)
+                .GET("/departments", handler::getDepartments)
+                .GET("/departments/{departmentId}", handler::getDepartment)
+                .onError(Throwable.class, handler::handleError)
+                .build();
+    }
+
+    // http.server.requests is recorded by the servlet observation filter, which only
+    // learns the route pattern from Spring MVC; hand it the matched v2 route so the
+    // uri tag reads e.g. /api/v2/employees/{employeeId} instead of UNKNOWN. Only added
+    // where the routes are mounted as a servlet, since it needs the servlet request.
+    private static Mono<ServerResponse> tagObservation(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        HttpServletRequest servletRequest = ServerHttpRequestDecorator.getNativeRequest(request.exchange().getRequest());
+        request.attribute(RouterFunctions.MATCHING_PATTERN_ATTRIBUTE).ifPresent(pattern ->
+                ServerHttpObservationFilter.findObservationContext(servletRequest)
+                        .ifPresent(context -> context.setPathPattern(PATH + pattern)));
+        return next.handle(request);
+    }
+
+    /**
+     * Codecs use the application's ObjectMapper so v2 JSON matches the MVC endpoints.
+     * Errors raised while a list is being streamed (e.g. no connection became free) reach
+     * the exception handler instead of the route's onError; they get the same error body
+     * as long as nothing has been written yet.
+     */
+    public static HandlerStrategies handlerStrategies(ReactiveReadHandler handler, ObjectMapper objectMapper) {
+        HandlerStrategies.Builder builder = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                });
+        HandlerStrategies codecs = builder.build();
+        ServerResponse.Context context = new ServerResponse.Context() {
+            @Override
+            public List<HttpMessageWriter<?>> messageWriters() {
+                return codecs.messageWriters();
+            }
+
+            @Override
+            public List<ViewResolver> viewResolvers() {
+                return codecs.viewResolvers();
+            }
+        };
+        return builder.exceptionHandler((exchange, exc) -> exchange.getResponse().isCommitted()
+                        ? Mono.error(exc)
+                        : handler.handleError(exc, ServerRequest.create(exchange, codecs.messageReaders()))
+                                .flatMap(response -> response.writeTo(exchange, context)))
+                .build();
+    }
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveApiServlet(ReactiveReadHandler reactiveReadHandler,
+            ObjectMapper objectMapper) {
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(
+                routes(reactiveReadHandler).filter(ReactiveApiConfig::tagObservation),
+                handlerStrategies(reactiveReadHandler, objectMapper));
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(new ServletHttpHandlerAdapter(httpHandler), PATH + "/*");
+        registration.setName("reactiveApi");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
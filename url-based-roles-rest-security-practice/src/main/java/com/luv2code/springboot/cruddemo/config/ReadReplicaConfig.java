@@ -0,0 +1,155 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Routes read-only transactions to the read replicas in db.replicas.urls when
+ * db.replicas.enabled is set: puts a {@link ReadReplicaRoutingDataSource} around the
+ * primary pool, starts the read-your-writes window when a user's write commits,
+ * and has Hibernate take a connection per transaction. The replica pools report the
+ * same hikaricp metrics as the primary, tagged with their pool name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    // Static so the post-processor is registered before the DataSource is created.
+    @Bean
+    public static ReadReplicaPostProcessor readReplicaRoutingDataSourcePostProcessor(Environment environment) {
+        return new ReadReplicaPostProcessor(environment);
+    }
+
+    @Bean
+    public TransactionExecutionListener readYourWritesListener(DataSource dataSource) throws SQLException {
+        ReadReplicaRoutingDataSource router = dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && !transaction.isReadOnly()) {
+                    router.recordWrite();
+                }
+            }
+        };
+    }
+
+    // The replica pools are not beans, so Boot's Hikari metrics do not see them.
+    @Bean
+    public MeterBinder replicaPoolMetrics(DataSource dataSource) throws SQLException {
+        ReadReplicaRoutingDataSource router = dataSource.isWrapperFor(ReadReplicaRoutingDataSource.class)
+                ? dataSource.unwrap(ReadReplicaRoutingDataSource.class) : null;
+        return registry -> {
+            if (router == null) {
+                return;
+            }
+            router.getReplicaDataSources().values().forEach(replica -> {
+                if (replica instanceof HikariDataSource pool && pool.getMetricRegistry() == null
+                        && pool.getMetricsTrackerFactory() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            });
+        };
+    }
+
+    // By default an open-in-view session keeps the connection of its first transaction
+    // until the request ends, so a write after a read-only transaction would reuse the
+    // replica connection. Releasing it after each transaction lets every one be routed.
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    static class ReadReplicaPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(ReadReplicaPostProcessor.class);
+
+        private final Environment environment;
+
+        private ReadReplicaRoutingDataSource router;
+
+        ReadReplicaPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || bean instanceof ReadReplicaRoutingDataSource
+                    || bean instanceof StatementCountingDataSource || bean instanceof ConcurrencyLimitingDataSource) {
+                return bean;
+            }
+            List<String> urls = List.of(environment.getProperty("db.replicas.urls", String[].class, new String[0]));
+            if (urls.isEmpty()) {
+                LOGGER.warn("db.replicas.enabled is set but db.replicas.urls is empty; everything uses the primary");
+                return bean;
+            }
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (int i = 0; i < urls.size(); i++) {
+                replicas.put("replica-" + (i + 1), replicaPool("replica-" + (i + 1), urls.get(i).trim()));
+            }
+            long healthCheckMillis = environment.getProperty("db.replicas.health-check-ms", Long.class, 5000L);
+            long readYourWritesMillis = environment.getProperty("db.replicas.read-your-writes-ms", Long.class, 5000L);
+            int validationTimeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(
+                    environment.getProperty("db.replicas.connection-timeout-ms", Long.class, 1000L)));
+            LOGGER.info("Routing read-only transactions of data source '{}' to {} replica(s)", beanName, urls.size());
+            router = new ReadReplicaRoutingDataSource(primary, replicas, readYourWritesMillis, validationTimeoutSeconds);
+            router.startHealthChecks(healthCheckMillis);
+            return router;
+        }
+
+        // Replicas that are down at startup are retried by the health check rather than failing it.
+        private HikariDataSource replicaPool(String name, String url) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName(name);
+            config.setJdbcUrl(url);
+            config.setUsername(environment.getProperty("db.replicas.username",
+                    environment.getProperty("spring.datasource.username")));
+            config.setPassword(environment.getProperty("db.replicas.password",
+                    environment.getProperty("spring.datasource.password")));
+            config.setMaximumPoolSize(environment.getProperty("db.replicas.pool-size", Integer.class, 10));
+            config.setConnectionTimeout(environment.getProperty("db.replicas.connection-timeout-ms", Long.class, 1000L));
+            config.setReadOnly(true);
+            config.setInitializationFailTimeout(-1);
+            return new HikariDataSource(config);
+        }
+
+        // Before the statement counting and the concurrency limit, which then wrap the router.
+        @Override
+        public int getOrder() {
+            return -1;
+        }
+
+        @Override
+        public void destroy() {
+            if (router != null) {
+                router.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary.
+ * Connections are handed out lazily, as by {@link LazyConnectionDataSourceProxy}: the
+ * physical connection is taken at the first statement, by which time the transaction
+ * has started, and a read-only one picks a replica. Writes and reads outside a
+ * read-only transaction use the primary.
+ * <p>
+ * Replicas are used round-robin among those that passed their last health check. One
+ * that fails to hand out a connection is marked down until a check succeeds again;
+ * with none available, reads fall back to the primary. Replicas apply a commit a
+ * little after the primary, so for a short window after a user's own write their
+ * reads go to the primary as well. The window is kept per instance.
+ */
+public class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long readYourWritesNanos;
+    private final int validationTimeoutSeconds;
+
+    // Users who wrote recently, with the System.nanoTime() until which they read from the primary.
+    private final Map<String, Long> recentWriters = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    private final ScheduledExecutorService healthChecks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-health");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+            long readYourWritesMillis, int validationTimeoutSeconds) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        setTargetDataSource(new RoutingTarget());
+        afterPropertiesSet();
+    }
+
+    // Replicas start out down, so reads use the primary until the first check passes.
+    public void startHealthChecks(long intervalMillis) {
+        healthChecks.scheduleWithFixedDelay(this::checkReplicas, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Called after a read-write transaction commits on behalf of the current user.
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null && readYourWritesNanos > 0) {
+            recentWriters.put(user, System.nanoTime() + readYourWritesNanos);
+        }
+    }
+
+    public Map<String, Boolean> getReplicaStatus() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        replicas.forEach(replica -> status.put(replica.name, replica.up));
+        return status;
+    }
+
+    public Map<String, DataSource> getReplicaDataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.name, replica.dataSource));
+        return dataSources;
+    }
+
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    public void close() {
+        healthChecks.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    LOGGER.warn("Could not close replica {}: {}", replica.name, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Connection readConnection() throws SQLException {
+        String user = currentUser();
+        if (user == null || !wroteRecently(user)) {
+            int size = replicas.size();
+            int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.up) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaReads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markDown(replica, e);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    private boolean wroteRecently(String user) {
+        Long until = recentWriters.get(user);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until > 0) {
+            recentWriters.remove(user, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(validationTimeoutSeconds)) {
+                    throw new SQLException("Connection failed validation");
+                }
+                if (!replica.up) {
+                    LOGGER.info("Replica {} is up; routing read-only transactions to it", replica.name);
+                    replica.up = true;
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+            }
+        }
+        long now = System.nanoTime();
+        recentWriters.values().removeIf(until -> now - until > 0);
+    }
+
+    private static void markDown(Replica replica, Exception cause) {
+        if (replica.up) {
+            LOGGER.warn("Replica {} is down, reading from the primary or other replicas: {}", replica.name,
+                    cause.getMessage());
+            replica.up = false;
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean up;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    // The target of the lazy proxy, asked for a connection at the first statement.
+    private final class RoutingTarget extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? readConnection()
+                    : primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        // Lookups of the pool (the concurrency limit, health details, Boot's Hikari metrics) find the primary's.
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+}
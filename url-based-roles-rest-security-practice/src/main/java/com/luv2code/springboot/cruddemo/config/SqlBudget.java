@@ -0,0 +1,24 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how many SQL statements a controller method may execute per request,
+ * counting everything from the handler call to the end of response rendering
+ * (lazy loads included). A JDBC batch counts as one statement. Going over the budget
+ * logs a warning, or fails the request when sql.budget.fail-on-exceed is set.
+ *
+ * @see SqlBudgetInterceptor
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface SqlBudget {
+
+    /** Maximum number of statements. */
+    int value();
+}
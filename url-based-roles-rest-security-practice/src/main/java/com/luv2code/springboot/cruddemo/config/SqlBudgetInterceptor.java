@@ -0,0 +1,122 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Opens a {@link SqlStatementScope} around every controller call and, when the
+ * request completes:
+ * <ul>
+ * <li>logs the statement count and time at DEBUG and records them per endpoint as
+ * http.server.requests.sql.statements and http.server.requests.sql,</li>
+ * <li>warns when the method's {@link SqlBudget} was exceeded,</li>
+ * <li>warns when one SQL string ran at least the N+1 threshold times,</li>
+ * <li>leaves the count in the {@link #STATEMENTS_ATTRIBUTE} request attribute for tests.</li>
+ * </ul>
+ * An async request is counted per dispatch; the scope is closed when the request
+ * thread is released so it never leaks to the next request on that thread.
+ */
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+
+    /** Integer: statements executed by the handler (last dispatch for async requests). */
+    public static final String STATEMENTS_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".statements";
+
+    /** Integer: the handler's {@link SqlBudget}, absent if it declares none. */
+    public static final String BUDGET_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".budget";
+
+    private static final String SCOPE_ATTRIBUTE = SqlBudgetInterceptor.class.getName() + ".scope";
+
+    private final boolean failOnExceed;
+    private final int repeatThreshold;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param meterRegistry where per-endpoint counts are recorded, or null
+     */
+    public SqlBudgetInterceptor(boolean failOnExceed, int repeatThreshold, MeterRegistry meterRegistry) {
+        this.failOnExceed = failOnExceed;
+        this.repeatThreshold = repeatThreshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        if (budget != null) {
+            request.setAttribute(BUDGET_ATTRIBUTE, budget.value());
+        }
+        request.setAttribute(SCOPE_ATTRIBUTE, SqlStatementScope.open(request.getMethod() + " " + pattern(request),
+                budget != null ? budget.value() : -1, failOnExceed));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) {
+        complete(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        complete(request);
+    }
+
+    private void complete(HttpServletRequest request) {
+        if (!(request.getAttribute(SCOPE_ATTRIBUTE) instanceof SqlStatementScope scope)) {
+            return;
+        }
+        scope.close();
+        request.removeAttribute(SCOPE_ATTRIBUTE);
+        request.setAttribute(STATEMENTS_ATTRIBUTE, scope.getStatements());
+
+        LOGGER.debug("{}: {} SQL statements in {} ms", scope.getName(), scope.getStatements(),
+                String.format("%.2f", scope.getMillis()));
+        if (scope.isOverBudget()) {
+            LOGGER.warn("{} ran {} SQL statements, over its budget of {}", scope.getName(), scope.getStatements(),
+                    scope.getBudget());
+        }
+        Map<String, Integer> repeated = scope.getRepeatedStatements(repeatThreshold);
+        if (!repeated.isEmpty()) {
+            Map.Entry<String, Integer> worst = repeated.entrySet().iterator().next();
+            LOGGER.warn("Possible N+1 in {}: the same statement ran {} times: {}", scope.getName(),
+                    worst.getValue(), worst.getKey());
+        }
+        if (meterRegistry != null && scope.getStatements() > 0) {
+            String method = request.getMethod();
+            String uri = pattern(request);
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .tags("method", method, "uri", uri)
+                    .description("SQL statements executed per request")
+                    .register(meterRegistry)
+                    .record(scope.getStatements());
+            Timer.builder("http.server.requests.sql")
+                    .tags("method", method, "uri", uri)
+                    .description("Time spent executing SQL per request")
+                    .register(meterRegistry)
+                    .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String pattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,67 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Counts SQL statements per request: wraps the DataSource in a
+ * {@link StatementCountingDataSource} and registers the {@link SqlBudgetInterceptor}
+ * that checks them against each endpoint's {@link SqlBudget}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig implements WebMvcConfigurer {
+
+    @Value("${sql.budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    @Value("${sql.n-plus-one.threshold:5}")
+    private int repeatThreshold;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SqlMonitoringConfig(ObjectProvider<MeterRegistry> theMeterRegistry) {
+        meterRegistry = theMeterRegistry;
+    }
+
+    // Static so the post-processor is registered before the DataSource is created. Ordered (and
+    // declared with its own type, which is what Spring checks) so it wraps the pool before the
+    // ConcurrencyLimitingDataSource does; the limiter stays the outermost DataSource.
+    @Bean
+    public static StatementCountingPostProcessor statementCountingDataSourcePostProcessor() {
+        return new StatementCountingPostProcessor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlBudgetInterceptor(failOnExceed, repeatThreshold, meterRegistry.getIfAvailable()));
+    }
+
+    static class StatementCountingPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof StatementCountingDataSource
+                    || bean instanceof ConcurrencyLimitingDataSource) {
+                return bean;
+            }
+            return new StatementCountingDataSource(dataSource);
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+    }
+}
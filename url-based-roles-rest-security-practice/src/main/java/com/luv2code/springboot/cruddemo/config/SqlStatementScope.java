@@ -0,0 +1,138 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.SqlBudgetExceededException;
+
+/**
+ * Counts the SQL statements the current thread executes through a
+ * {@link StatementCountingDataSource} while the scope is open, with their total
+ * execution time and how often each distinct SQL string ran. The same string running
+ * many times in one scope is the signature of an N+1 query.
+ * <p>
+ * {@link SqlBudgetInterceptor} opens one per request; tests can open their own:
+ * <pre>
+ * try (SqlStatementScope scope = SqlStatementScope.open("listing")) {
+ *     employeeService.getAllEmployees(PageRequest.of(0, 20), CountMode.EXACT);
+ *     assertTrue(scope.getStatements() &lt;= 2);
+ * }
+ * </pre>
+ * Scopes nest; closing one restores the enclosing scope. Not thread-safe: a scope
+ * belongs to the thread that opened it.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final int budget;
+    private final boolean failOnExceed;
+    private final SqlStatementScope enclosing;
+
+    private int statements;
+    private long nanos;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+
+    private SqlStatementScope(String name, int budget, boolean failOnExceed, SqlStatementScope enclosing) {
+        this.name = name;
+        this.budget = budget;
+        this.failOnExceed = failOnExceed;
+        this.enclosing = enclosing;
+    }
+
+    /** Opens a scope without a budget. */
+    public static SqlStatementScope open(String name) {
+        return open(name, -1, false);
+    }
+
+    /**
+     * @param budget maximum statements, or -1 for none
+     * @param failOnExceed throw a {@link SqlBudgetExceededException} instead of running
+     *        the statement that would exceed the budget
+     */
+    public static SqlStatementScope open(String name, int budget, boolean failOnExceed) {
+        SqlStatementScope scope = new SqlStatementScope(name, budget, failOnExceed, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /** The innermost open scope on this thread, or null. */
+    public static SqlStatementScope current() {
+        return CURRENT.get();
+    }
+
+    // Called by StatementCountingDataSource before a statement runs.
+    void beforeExecute(String sql) {
+        if (enclosing != null) {
+            enclosing.beforeExecute(sql);
+        }
+        if (failOnExceed && isBudgeted() && statements >= budget) {
+            throw new SqlBudgetExceededException(name + " exceeded its budget of " + budget
+                    + " SQL statements; next statement was: " + sql);
+        }
+    }
+
+    // Called by StatementCountingDataSource after a statement ran (or failed).
+    void afterExecute(String sql, long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+        executionsBySql.merge(sql, 1, Integer::sum);
+        if (enclosing != null) {
+            enclosing.afterExecute(sql, elapsedNanos);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public boolean isBudgeted() {
+        return budget >= 0;
+    }
+
+    public boolean isOverBudget() {
+        return isBudgeted() && statements > budget;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public double getMillis() {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return SQL strings that ran at least {@code threshold} times, most frequent first
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executionsBySql.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue()));
+        return repeated;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (enclosing != null) {
+                CURRENT.set(enclosing);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
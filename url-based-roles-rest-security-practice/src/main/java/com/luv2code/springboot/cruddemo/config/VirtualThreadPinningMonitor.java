@@ -0,0 +1,112 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Reports virtual threads that pin their carrier thread, i.e. block while inside a
+ * synchronized block or native frame so that the carrier cannot run other virtual
+ * threads. Pinning events are read in-process from Java Flight Recorder and logged
+ * with the top of the stack, so the offending lock can be found without restarting
+ * the JVM with -Djdk.tracePinnedThreads.
+ * <p>
+ * Active only with spring.threads.virtual.enabled=true. On a runtime older than
+ * Java 21 there are no virtual threads and Spring Boot keeps platform threads, which
+ * is logged at startup.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements DisposableBean, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    @Value("${virtual-threads.pinning.threshold-ms:20}")
+    private long thresholdMillis;
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private RecordingStream recording;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            LOGGER.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual threads; "
+                    + "requests run on platform threads (build with -Pjava21 and run on Java 21+)", javaVersion);
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+        LOGGER.info("Serving requests on virtual threads; reporting carrier pinning longer than {} ms",
+                thresholdMillis);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        LOGGER.warn("Virtual thread pinned its carrier for {} ms at:\n{}", event.getDuration().toMillis(),
+                frames(event.getStackTrace()));
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "\t(no stack trace)";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + "(line " + frame.getLineNumber() + ")")
+                .collect(Collectors.joining("\n"));
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    public long getPinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionTimer.builder("jvm.threads.virtual.pinned", this, VirtualThreadPinningMonitor::getPinnedCount,
+                        VirtualThreadPinningMonitor::getPinnedNanos, TimeUnit.NANOSECONDS)
+                .description("Virtual threads pinned to their carrier for longer than the threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
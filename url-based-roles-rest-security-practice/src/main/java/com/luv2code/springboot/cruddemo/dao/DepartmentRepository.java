@@ -1,12 +1,69 @@
 package com.luv2code.springboot.cruddemo.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import com.luv2code.springboot.cruddemo.entity.Department;
 
+import jakarta.persistence.QueryHint;
+
 public interface DepartmentRepository extends JpaRepository<Department, Long>{
     Optional<Department> findByName (String name);
     Boolean existsByName(String name);
+    List<Department> findByNameIn(Collection<String> names);
+
+    // Keyset (seek) pagination without OFFSET or COUNT(*).
+    Window<Department> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // Page-number pagination without the COUNT(*): reads one extra row to tell whether another page follows.
+    Slice<Department> findSliceBy(Pageable pageable);
+
+    // Row count from the PostgreSQL planner statistics; -1 when the table has never been analyzed.
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('departments' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
+    // --- Headcount counters ---
+
+    // Atomic increment/decrement: concurrent transactions serialize on the department row
+    // instead of overwriting each other's read-modify-write. Native, with a query space no entity
+    // maps to, so Hibernate leaves the Department cache region alone: a JPQL bulk UPDATE would
+    // evict every cached department on each employee write. The caller evicts just this one.
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "department_headcount"))
+    @Query(value = "UPDATE departments SET headcount = headcount + :delta WHERE id = :id", nativeQuery = true)
+    int adjustHeadcount(@Param("id") long id, @Param("delta") int delta);
+
+    // Departments whose stored headcount differs from the real number of employees,
+    // as rows of (id, stored headcount, actual count).
+    @Query(value = "SELECT d.id, d.headcount, COUNT(e.id) FROM departments d "
+            + "LEFT JOIN employee e ON e.department_id = d.id "
+            + "GROUP BY d.id, d.headcount HAVING d.headcount <> COUNT(e.id)", nativeQuery = true)
+    List<Object[]> findHeadcountDrift();
+
+    // Locks the department row so no employee change for it can commit while it is recounted.
+    @Query(value = "SELECT id FROM departments WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") long id);
+
+    // Declares the touched table so Hibernate only evicts the Department cache region;
+    // an undeclared native UPDATE would flush every second-level cache region.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "departments"))
+    @Query(value = "UPDATE departments SET headcount = "
+            + "(SELECT COUNT(*) FROM employee WHERE department_id = :id) WHERE id = :id", nativeQuery = true)
+    int recountHeadcount(@Param("id") long id);
 }
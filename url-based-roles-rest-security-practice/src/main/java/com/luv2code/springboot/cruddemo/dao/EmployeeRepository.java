@@ -1,13 +1,32 @@
 package com.luv2code.springboot.cruddemo.dao;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.entity.Department;
 import com.luv2code.springboot.cruddemo.entity.Employee;
 
+import jakarta.persistence.QueryHint;
+
 // This interface is a Spring Data JPA Repository.
 // It handles all database interactions for the Employee entity.
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
@@ -27,5 +46,78 @@ public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
 
     Optional<Employee> findByEmail(String email);
+
+    // Which of the given emails are already taken, checked in one round trip for a whole batch.
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
     Page<Employee> findByDepartmentId(Long departmentId, Pageable pageable);
+
+    // Translated to "SELECT ... LIMIT 1" on the department_id column; no employee is loaded.
+    boolean existsByDepartmentId(Long departmentId);
+
+    long countByDepartmentId(Long departmentId);
+
+    // Only the ids; no employee is loaded.
+    @Query("SELECT e.id FROM Employee e WHERE e.department.id = :departmentId")
+    List<Integer> findIdsByDepartmentId(@Param("departmentId") Long departmentId);
+
+    // Moves every employee of one department to another with a single UPDATE statement,
+    // however many rows are affected. Bypasses the persistence context, so pending changes are
+    // flushed first and the context is cleared afterwards to drop now-stale Employee instances.
+    // Bulk updates do not touch @Version by themselves; it is bumped explicitly because the
+    // moved employees' representations (and ETags) change.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.department = :target, e.version = e.version + 1 WHERE e.department = :source")
+    int reassignDepartment(@Param("source") Department source, @Param("target") Department target);
+
+    // Keyset (seek) pagination: continues after the given position instead of using OFFSET,
+    // and returns a Window, so no COUNT(*) query is issued.
+    // The department is fetched in the same statement to avoid one extra SELECT per row.
+    @EntityGraph(attributePaths = "department")
+    Window<Employee> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    // --- Read-only projections ---
+    // These select only the columns the API returns, joined with departments in a single
+    // statement, straight into response records. No Employee entities are loaded, so there
+    // is no lazy department access (N+1) and nothing for the persistence context to track.
+
+    @Query(value = PROJECTION + " LEFT JOIN e.department d",
+            countQuery = "SELECT COUNT(e) FROM Employee e")
+    Page<EmployeeResponseDTO> findAllProjectedBy(Pageable pageable);
+
+    @Query(value = PROJECTION + " JOIN e.department d WHERE d.id = :departmentId",
+            countQuery = "SELECT COUNT(e) FROM Employee e WHERE e.department.id = :departmentId")
+    Page<EmployeeResponseDTO> findProjectedByDepartmentId(@Param("departmentId") Long departmentId, Pageable pageable);
+
+    // The same pages as a Slice: one row more than the page size is read to tell whether
+    // another page follows, and the COUNT(*) query is skipped.
+    @Query(PROJECTION + " LEFT JOIN e.department d")
+    Slice<EmployeeResponseDTO> findSliceProjectedBy(Pageable pageable);
+
+    @Query(PROJECTION + " JOIN e.department d WHERE d.id = :departmentId")
+    Slice<EmployeeResponseDTO> findSliceProjectedByDepartmentId(@Param("departmentId") Long departmentId,
+            Pageable pageable);
+
+    // Row count as last recorded by ANALYZE/autovacuum in the PostgreSQL catalog: a single
+    // catalog lookup instead of a scan. -1 when the table has never been analyzed.
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('employee' AS regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
+    // Streams every employee through a server-side cursor: the driver fetches rows in
+    // batches of the fetch size instead of materializing the whole result set.
+    // Must be consumed inside a (read-only) transaction and closed afterwards.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(PROJECTION + " LEFT JOIN e.department d ORDER BY e.id")
+    Stream<EmployeeResponseDTO> streamAllProjectedBy();
+
+    // id, first name, last name, email and department id of every employee, for the in-memory
+    // search index. Read through a cursor like the export; the department id is the foreign key
+    // column, so departments are not joined.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.id, e.firstName, e.lastName, e.email, e.department.id FROM Employee e ORDER BY e.id")
+    Stream<Object[]> streamSearchFields();
+
+    String PROJECTION = "SELECT new com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO("
+            + "e.firstName, e.email, e.id, d.id, d.name) FROM Employee e";
 }
@@ -0,0 +1,69 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+// Column-pruned reads for sparse fieldsets: selects only the requested attributes of an entity,
+// one Object[] per row, so no entity is built, tracked or put in the second-level cache.
+// An attribute of an association ("department.name") joins its table, once and left outer;
+// "department.id" is read from the foreign key column without a join.
+@Repository
+public class FieldProjections {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Rows of the given attributes, in that order, sorted and offset as the pageable says and at
+    // most limit long. filterAttribute/filterValue, when not null, restrict rows to an equal value.
+    public List<Object[]> select(Class<?> entity, List<String> attributes, String filterAttribute, Object filterValue,
+            Pageable pageable, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<?> root = query.from(entity);
+        Map<String, Join<?, ?>> joins = new HashMap<>();
+
+        List<Selection<?>> selections = attributes.stream()
+                .<Selection<?>>map(attribute -> path(root, attribute, joins))
+                .toList();
+        query.multiselect(selections);
+        if (filterAttribute != null) {
+            query.where(builder.equal(path(root, filterAttribute, joins), filterValue));
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    private static Path<?> path(Root<?> root, String attribute, Map<String, Join<?, ?>> joins) {
+        int dot = attribute.indexOf('.');
+        if (dot < 0) {
+            return root.get(attribute);
+        }
+        String association = attribute.substring(0, dot);
+        String property = attribute.substring(dot + 1);
+        if (property.equals("id") && !joins.containsKey(association)) {
+            return root.get(association).get(property);
+        }
+        return joins.computeIfAbsent(association, name -> root.join(name, JoinType.LEFT)).get(property);
+    }
+}
@@ -0,0 +1,120 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking queries for the /api/v2 endpoints, run over R2DBC on the
+ * same employee/departments tables the JPA repositories use. Rows are mapped straight
+ * to the response DTOs and emitted as they arrive; the driver fetches them from the
+ * server in batches of {@link #FETCH_SIZE} as the subscriber requests more, so a slow
+ * client holds back the query instead of buffering its whole result.
+ */
+public class ReactiveReadRepository implements AutoCloseable, MeterBinder {
+
+    private static final int FETCH_SIZE = 256;
+
+    // Department ids are INT columns; they are cast so every driver decodes them as Long.
+    private static final String EMPLOYEE_COLUMNS = "SELECT e.id, e.first_name, e.email, "
+            + "CAST(d.id AS BIGINT) AS department_id, d.name AS department_name "
+            + "FROM employee e LEFT JOIN departments d ON d.id = e.department_id ";
+
+    private static final Function<Readable, EmployeeResponseDTO> EMPLOYEE_MAPPER =
+            row -> new EmployeeResponseDTO(
+                    row.get("first_name", String.class),
+                    row.get("email", String.class),
+                    row.get("id", Integer.class),
+                    row.get("department_id", Long.class),
+                    row.get("department_name", String.class));
+
+    private static final Function<Readable, DepartmentResponseDTO> DEPARTMENT_MAPPER =
+            row -> new DepartmentResponseDTO(
+                    row.get("id", Long.class),
+                    row.get("name", String.class),
+                    row.get("headcount", Integer.class));
+
+    private final ConnectionPool pool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveReadRepository(ConnectionPool pool) {
+        this.pool = pool;
+        this.databaseClient = DatabaseClient.create(pool);
+    }
+
+    // Employees ordered by id, starting after the given id (keyset pagination).
+    public Flux<EmployeeResponseDTO> findEmployeesAfter(int afterId, int limit) {
+        return databaseClient.sql(EMPLOYEE_COLUMNS + "WHERE e.id > :afterId ORDER BY e.id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(EMPLOYEE_MAPPER)
+                .all();
+    }
+
+    public Flux<EmployeeResponseDTO> findEmployeesByDepartmentAfter(long departmentId, int afterId, int limit) {
+        return databaseClient.sql(EMPLOYEE_COLUMNS
+                        + "WHERE e.department_id = :departmentId AND e.id > :afterId ORDER BY e.id LIMIT :limit")
+                .bind("departmentId", departmentId)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(EMPLOYEE_MAPPER)
+                .all();
+    }
+
+    public Mono<EmployeeResponseDTO> findEmployeeById(int id) {
+        return databaseClient.sql(EMPLOYEE_COLUMNS + "WHERE e.id = :id")
+                .bind("id", id)
+                .map(EMPLOYEE_MAPPER)
+                .one();
+    }
+
+    public Flux<DepartmentResponseDTO> findAllDepartments() {
+        return databaseClient.sql("SELECT CAST(id AS BIGINT) AS id, name, headcount FROM departments ORDER BY id")
+                .map(DEPARTMENT_MAPPER)
+                .all();
+    }
+
+    public Mono<DepartmentResponseDTO> findDepartmentById(long id) {
+        return databaseClient.sql("SELECT CAST(id AS BIGINT) AS id, name, headcount FROM departments WHERE id = :id")
+                .bind("id", id)
+                .map(DEPARTMENT_MAPPER)
+                .one();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        poolGauge(registry, "acquired", PoolMetrics::acquiredSize, "Connections handed out to queries");
+        poolGauge(registry, "idle", PoolMetrics::idleSize, "Open connections not in use");
+        poolGauge(registry, "pending", PoolMetrics::pendingAcquireSize, "Queries waiting for a connection");
+        poolGauge(registry, "max.allocated", PoolMetrics::getMaxAllocatedSize, "Maximum pool size");
+    }
+
+    private void poolGauge(MeterRegistry registry, String name, ToDoubleFunction<PoolMetrics> value,
+            String description) {
+        Gauge.builder("r2dbc.pool." + name, pool,
+                        p -> p.getMetrics().map(value::applyAsDouble).orElse(Double.NaN))
+                .tag("name", "api-v2")
+                .description(description)
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        pool.dispose();
+    }
+}
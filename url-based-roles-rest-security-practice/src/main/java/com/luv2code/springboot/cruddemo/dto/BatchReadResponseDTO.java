@@ -0,0 +1,11 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// The result of fetching many resources by id at once (?ids=).
+public record BatchReadResponseDTO<T>(
+        // The resources that exist, in the order their ids were requested (duplicates removed).
+        List<T> content,
+        // Requested ids for which nothing exists.
+        List<Integer> missing) {
+}
@@ -0,0 +1,39 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// A Data Transfer Object (DTO) summarising a batch update.
+// Every entry gets a result in request order; entries that fail are skipped, all others are applied.
+public record BatchUpdateResultDTO(
+        // The number of entries received in the request.
+        int received,
+        // The number of employees written to the database.
+        int updated,
+        // One result per entry, in request order.
+        List<ItemResult> results,
+        // Time spent validating and writing the batch, in milliseconds.
+        long elapsedMillis) {
+
+    public enum Status {
+        // Written; "version" is the new version.
+        UPDATED,
+        // Already had these values, nothing was written.
+        UNCHANGED,
+        // No employee with this id.
+        NOT_FOUND,
+        // The given version is not the current one: the employee changed since the client read it.
+        CONFLICT,
+        // The entry failed validation; see "message".
+        INVALID
+    }
+
+    public record ItemResult(
+            Integer id,
+            Status status,
+            @JsonInclude(JsonInclude.Include.NON_NULL) String message,
+            // The employee's current version, for the next conditional update.
+            @JsonInclude(JsonInclude.Include.NON_NULL) Long version) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// A Data Transfer Object (DTO) summarising a bulk employee import.
+// Valid rows are imported; every rejected row is listed with the reason so the client can fix and resend it.
+public record BulkImportResultDTO(
+        // The number of rows received in the request.
+        int received,
+        // The number of rows written to the database.
+        int imported,
+        // The rows that were rejected (1-based row numbers, in request order).
+        List<RowError> errors,
+        // Time spent validating and writing the batch, in milliseconds.
+        long elapsedMillis,
+        // Write throughput for this batch.
+        double rowsPerSecond) {
+
+    public record RowError(int row, String message) {
+    }
+}
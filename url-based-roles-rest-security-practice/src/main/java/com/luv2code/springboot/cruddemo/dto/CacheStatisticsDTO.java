@@ -0,0 +1,28 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// A Data Transfer Object (DTO) with Hibernate second-level cache statistics since startup.
+public record CacheStatisticsDTO(
+        // Entity lookups answered from the cache.
+        long hits,
+        // Entity lookups that had to go to the database.
+        long misses,
+        // Entries written to the cache.
+        long puts,
+        // hits / (hits + misses), or 0 before the first lookup.
+        double hitRatio,
+        // Natural id (email -> id) resolutions answered from the cache, and those that were not.
+        long naturalIdHits,
+        long naturalIdMisses,
+        // The same counters per cache region.
+        List<Region> regions) {
+
+    public record Region(String name, long hits, long misses, long puts, double hitRatio) {
+    }
+
+    public static double ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : Math.round(hits * 1000.0 / lookups) / 1000.0;
+    }
+}
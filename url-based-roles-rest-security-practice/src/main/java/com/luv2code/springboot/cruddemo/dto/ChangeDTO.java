@@ -0,0 +1,31 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One entry of the change feed: which record changed and how. Clients fetch the current
+// state themselves (e.g. GET /api/employees?ids=...); a DELETE is a tombstone.
+public record ChangeDTO(
+        // Position in the feed; strictly increasing in commit order.
+        long seq,
+        EntityType type,
+        long id,
+        Operation operation,
+        // Employees only: the department after the change (before it, for a DELETE), and
+        // the one it came from when the employee moved.
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long departmentId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long previousDepartmentId,
+        Instant changedAt) {
+
+    public enum EntityType {
+        EMPLOYEE,
+        DEPARTMENT
+    }
+
+    public enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+}
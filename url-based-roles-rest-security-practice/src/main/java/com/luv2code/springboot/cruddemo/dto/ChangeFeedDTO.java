@@ -0,0 +1,13 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// A batch of the change feed (GET /api/changes).
+public record ChangeFeedDTO(
+        // The changes after the requested cursor, in commit order.
+        List<ChangeDTO> changes,
+        // Pass back as ?since= to continue; unchanged when there was nothing new.
+        long next,
+        // True if more changes are waiting beyond this batch.
+        boolean hasMore) {
+}
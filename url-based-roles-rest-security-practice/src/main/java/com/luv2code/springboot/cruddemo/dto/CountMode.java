@@ -0,0 +1,23 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+
+// How a paged list reports its total, chosen with ?count=.
+public enum CountMode {
+    // No total: the page is read as a Slice, one row past the page size tells whether
+    // another page follows, and no COUNT(*) runs.
+    NONE,
+    // An approximate total from statistics the database already keeps, instead of a scan.
+    ESTIMATE,
+    // A COUNT(*) next to the page query.
+    EXACT;
+
+    public static CountMode of(String value) {
+        for (CountMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new InvalidRequestException("count must be one of none, estimate or exact, got: " + value);
+    }
+}
@@ -0,0 +1,15 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// A page of results fetched with keyset (cursor) pagination.
+// Unlike Spring's Page, it carries no total count: the client follows "next"
+// (an opaque cursor to pass back as ?after=) until it is null.
+public record CursorPageResponseDTO<T>(
+        // The items on this page, in the requested sort order.
+        List<T> content,
+        // The number of items on this page.
+        int size,
+        // Cursor for the following page, or null when this is the last page.
+        String next) {
+}
@@ -1,12 +1,23 @@
 package com.luv2code.springboot.cruddemo.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.luv2code.springboot.cruddemo.entity.Department;
 
-public record DepartmentResponseDTO(Long id, String name) {
+public record DepartmentResponseDTO(
+        Long id,
+        String name,
+        // Number of employees; omitted where the department is nested in an employee response.
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer headcount) {
+
+    public DepartmentResponseDTO(Long id, String name) {
+        this(id, name, null);
+    }
+
     public DepartmentResponseDTO(Department department) {
         this(
             department != null ? department.getId() : null,
-            department != null ? department.getName() : null
+            department != null ? department.getName() : null,
+            department != null ? department.getHeadcount() : null
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+// A Data Transfer Object (DTO) with the headcount of every department.
+// Built from the stored per-department counters, so it never counts the employee table.
+public record DepartmentStatsDTO(
+        // The number of departments.
+        int totalDepartments,
+        // The number of employees across all departments.
+        long totalEmployees,
+        // Every department with its headcount, largest first.
+        List<DepartmentResponseDTO> departments) {
+}
@@ -0,0 +1,14 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+// A Data Transfer Object (DTO) describing a move of all employees from one department to another,
+// as done by the reassign and merge-into endpoints.
+public record DepartmentTransferResultDTO(
+        // The department the employees were moved out of.
+        Long sourceDepartmentId,
+        // The department the employees were moved into.
+        Long targetDepartmentId,
+        // The number of employees that were moved.
+        int employeesMoved,
+        // True when the source department was deleted afterwards (merge).
+        boolean sourceDeleted) {
+}
@@ -0,0 +1,28 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+// One entry of a batch update (PUT /api/employees/batch): which employee, and its new values.
+public record EmployeeBatchUpdateDTO(
+        @NotNull(message = "Id is mandatory")
+        Integer id,
+
+        @NotBlank(message = "First name is mandatory")
+        String firstName,
+
+        @NotBlank(message = "Last name is mandatory")
+        String lastName,
+
+        @NotBlank(message = "Email is mandatory")
+        @Email(message = "Email should be valid")
+        String email,
+
+        @NotBlank(message = "Department name is mandatory")
+        String departmentName,
+
+        // Optional: the version the client's copy was based on, as returned by an earlier batch
+        // update (or the first part of the employee's ETag). The entry is refused if it is stale.
+        Long version) {
+}
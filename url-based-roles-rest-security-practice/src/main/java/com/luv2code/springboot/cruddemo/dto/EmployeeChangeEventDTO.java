@@ -0,0 +1,20 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// The data of one event on GET /api/employees/stream; the SSE id is the change feed seq.
+public record EmployeeChangeEventDTO(
+        // The employee id.
+        long id,
+        ChangeDTO.Operation operation,
+        // The department after the change (before it, for a DELETE).
+        Long departmentId,
+        // Set when the employee moved: the department it left.
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long previousDepartmentId,
+        // The employee as it is when the event is sent; absent for deletes and for
+        // employees deleted in the meantime.
+        @JsonInclude(JsonInclude.Include.NON_NULL) EmployeeResponseDTO employee,
+        Instant changedAt) {
+}
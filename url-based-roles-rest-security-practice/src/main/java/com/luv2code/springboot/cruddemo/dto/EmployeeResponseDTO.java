@@ -1,5 +1,8 @@
 package com.luv2code.springboot.cruddemo.dto;
 
+import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
 // A Data Transfer Object (DTO) used for sending employee data back to the client.
 // It provides a tailored view of the data, exposing only what the client needs.
 // This protects the internal Entity structure (e.g., hiding the ID or other sensitive fields if necessary).
@@ -12,4 +15,20 @@ public record EmployeeResponseDTO(
         int id,
         // The empployee department Id
         DepartmentResponseDTO department) {
+
+    // Flat constructor used by JPQL constructor expressions ("SELECT new ..."),
+    // so read queries can build the response straight from the selected columns.
+    public EmployeeResponseDTO(String firstName, String email, int id, Long departmentId, String departmentName) {
+        this(firstName, email, id,
+                departmentId != null ? new DepartmentResponseDTO(departmentId, departmentName) : null);
+    }
+
+    // Maps a loaded entity; the nested department carries only its id and name.
+    public EmployeeResponseDTO(Employee employee) {
+        this(employee.getFirstName(), employee.getEmail(), employee.getId(), department(employee.getDepartment()));
+    }
+
+    private static DepartmentResponseDTO department(Department department) {
+        return department != null ? new DepartmentResponseDTO(department.getId(), department.getName()) : null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// A page of results fetched with page-number pagination.
+// Replaces serializing Spring's PageImpl, whose JSON repeats the Pageable and Sort objects
+// and is not guaranteed to stay stable between Spring Data versions.
+public record PageResponseDTO<T>(
+        // The items on this page, in the requested sort order.
+        List<T> content,
+        // The zero-based page number.
+        int page,
+        // The requested page size; the last page may hold fewer items.
+        int size,
+        // Whether another page follows.
+        boolean hasNext,
+        // "exact", "estimate" or "none": how the totals below were obtained.
+        String count,
+        // Total number of items and pages; left out with ?count=none.
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer totalPages) {
+
+    public static <T> PageResponseDTO<T> of(Slice<T> slice, CountMode count) {
+        if (count != CountMode.NONE && slice instanceof Page<T> page) {
+            return new PageResponseDTO<>(page.getContent(), page.getNumber(), page.getSize(), page.hasNext(),
+                    count.name().toLowerCase(), page.getTotalElements(), page.getTotalPages());
+        }
+        return new PageResponseDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(),
+                CountMode.NONE.name().toLowerCase(), null, null);
+    }
+}
@@ -0,0 +1,82 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+
+// The properties of a resource a client asked for with ?fields=, e.g. "id,email,department.name".
+// Naming a nested object ("department") selects all of its properties. Paths are kept in the
+// resource's own order whatever order the client listed them in.
+public final class SparseFieldset {
+
+    private final List<String> paths;
+
+    private SparseFieldset(List<String> paths) {
+        this.paths = paths;
+    }
+
+    // available: every selectable property path of the resource, in response order.
+    public static SparseFieldset of(String fields, List<String> available) {
+        Set<String> selected = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            List<String> matching = available.stream()
+                    .filter(path -> path.equals(name) || path.startsWith(name + "."))
+                    .toList();
+            if (matching.isEmpty()) {
+                throw new InvalidRequestException(
+                        "Unknown field '" + name + "', expected any of: " + String.join(", ", available));
+            }
+            selected.addAll(matching);
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidRequestException("fields must name at least one of: " + String.join(", ", available));
+        }
+        return new SparseFieldset(available.stream().filter(selected::contains).toList());
+    }
+
+    public List<String> paths() {
+        return paths;
+    }
+
+    // Builds the response object from one row of selected values, in the order of paths().
+    public Map<String, Object> toMap(Object[] row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (int i = 0; i < paths.size(); i++) {
+            put(result, paths.get(i), row[i]);
+        }
+        return result;
+    }
+
+    // Picks the selected properties out of a full representation converted to nested maps.
+    public Map<String, Object> pick(Map<String, ?> full) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String path : paths) {
+            Object value = full;
+            for (String name : path.split("\\.")) {
+                value = value instanceof Map<?, ?> map ? map.get(name) : null;
+            }
+            put(result, path, value);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void put(Map<String, Object> target, String path, Object value) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            target.put(path, value);
+            return;
+        }
+        Map<String, Object> nested = (Map<String, Object>) target.computeIfAbsent(path.substring(0, dot),
+                name -> new LinkedHashMap<String, Object>());
+        put(nested, path.substring(dot + 1), value);
+    }
+}
@@ -0,0 +1,8 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+// A response body together with the @Version of the entity it was read from,
+// taken in the same transaction so that an ETag built from both always matches the body.
+public record Versioned<T>(
+        T body,
+        long version) {
+}
@@ -5,8 +5,13 @@ import java.util.List;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name = "departments")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department")
 
 public class Department {
 
@@ -17,6 +22,19 @@ public class Department {
     @Column(unique = true, nullable = false)
     private String name;
 
+    // Number of employees in this department. Never written through the entity: it is
+    // only changed by atomic "headcount = headcount + n" updates in the same transaction
+    // as the employee change (see DepartmentRepository.adjustHeadcount), after which only that
+    // department is evicted from the second-level cache.
+    @Column(name = "headcount", nullable = false, insertable = false, updatable = false)
+    private int headcount;
+
+    // Incremented when the department itself is updated (renamed). Headcount changes are
+    // atomic counter updates that deliberately leave it alone, so they never conflict with a rename.
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @OneToMany(mappedBy = "department", cascade =  {CascadeType.PERSIST, CascadeType.MERGE})
     private List<Employee> employees = new ArrayList<>();
   
@@ -36,6 +54,14 @@ public class Department {
         return name;
     }
 
+    public int getHeadcount() {
+        return headcount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
     public List<Employee> getEmployees() {
         return employees;
     }
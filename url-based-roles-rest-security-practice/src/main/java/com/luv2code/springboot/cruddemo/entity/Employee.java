@@ -2,6 +2,11 @@ package com.luv2code.springboot.cruddemo.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,13 +14,19 @@ import jakarta.validation.constraints.NotNull;
 @Entity
 // Specifies the name of the database table this entity maps to.
 @Table(name = "employee")
+// Kept in the second-level cache, so repeated reads by id (and by email, below) skip the database.
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "employee")
+@NaturalIdCache(region = "employee-email")
 public class Employee {
 
     // Marks this field as the primary key of the table.
     @Id
-    // Configures how the primary key is generated (auto-increment in most
-    // databases).
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Ids come from the SERIAL column's sequence, 50 at a time. Unlike IDENTITY this
+    // lets Hibernate batch INSERTs, since it knows the id before the row is written.
+    // allocationSize must match the sequence's INCREMENT BY (see data.sql).
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_seq")
+    @SequenceGenerator(name = "employee_seq", sequenceName = "employee_id_seq", allocationSize = 50)
     // Maps this field to the 'id' column in the table.
     @Column(name = "id")
     private int id;
@@ -33,6 +44,8 @@ public class Employee {
     // Validation: Ensures the field is not null and contains a valid email format.
     @NotNull(message = "Email Address is required")
     @Email(message = "Must be a valid email")
+    // Unique business key; email -> id resolutions are cached too. Mutable because PUT can change it.
+    @NaturalId(mutable = true)
     @Column(name = "email")
     private String email;
 
@@ -40,6 +53,12 @@ public class Employee {
     @JoinColumn(name = "department_id")
     private Department department;
 
+    // Incremented on every update. A stale version makes the update fail instead of
+    // overwriting a concurrent change, and the ETag of GET /api/employees/{id} is derived from it.
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
     // Default constructor required by JPA for entity creation.
     public Employee() {
     }
@@ -93,4 +112,8 @@ public class Employee {
     public void setDepartment(Department department) {
         this.department = department;
     }
+
+    public long getVersion() {
+        return version;
+    }
 }
\ No newline at end of file
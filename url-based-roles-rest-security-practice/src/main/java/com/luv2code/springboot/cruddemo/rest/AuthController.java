@@ -1,11 +1,16 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import com.luv2code.springboot.cruddemo.ExceptionHandling.ServiceBusyException;
 import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
+import com.luv2code.springboot.cruddemo.security.VerifiedToken;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -19,40 +24,57 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtService jwtService;
+    private final TokenDenylist tokenDenylist;
 
     public AuthController(AuthenticationManager authenticationManager,
-            UserDetailsService userDetailsService,
-            JwtService jwtService) {
+            JwtService jwtService,
+            TokenDenylist tokenDenylist) {
         this.authenticationManager = authenticationManager;
-        this.userDetailsService = userDetailsService;
         this.jwtService = jwtService;
+        this.tokenDenylist = tokenDenylist;
     }
 
     @Operation(summary = "User login", description = "Authenticate user and return JWT token")
     @PostMapping("/login")
     public ResponseEntity<Map<String, String>> login(@RequestBody LoginRequest loginRequest) {
         try {
-            // Authenticate user
-            authenticationManager.authenticate(
+            // Authenticate user; the provider already loaded the user, so reuse its principal
+            Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getUsername(),
                             loginRequest.getPassword()));
 
-            // Load user and generate token
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getUsername());
+            // Generate token
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
             String jwtToken = jwtService.generateToken(userDetails);
 
             return ResponseEntity.ok(Map.of(
                     "token", jwtToken,
                     "username", userDetails.getUsername(),
                     "message", "Login successful"));
+        } catch (ServiceBusyException e) {
+            // Password hashing pool is saturated; let the client back off and retry.
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
         }
     }
 
+    @Operation(summary = "User logout", description = "Revoke the presented JWT token until it expires")
+    @PostMapping("/logout")
+    public ResponseEntity<Map<String, String>> logout(@RequestHeader("Authorization") String authHeader) {
+        try {
+            VerifiedToken token = jwtService.verify(authHeader.substring("Bearer ".length()));
+            tokenDenylist.revoke(token.tokenId(), token.expiration());
+            return ResponseEntity.ok(Map.of("message", "Logout successful"));
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body(Map.of("error", "Invalid token"));
+        }
+    }
+
     public static class LoginRequest {
         private String username;
         private String password;
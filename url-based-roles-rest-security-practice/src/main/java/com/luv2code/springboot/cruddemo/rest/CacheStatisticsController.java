@@ -0,0 +1,40 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.luv2code.springboot.cruddemo.dto.CacheStatisticsDTO;
+import com.luv2code.springboot.cruddemo.service.CacheStatisticsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@Tag(name = "Administration", description = "Operational statistics")
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheStatisticsController(CacheStatisticsService theCacheStatisticsService) {
+        cacheStatisticsService = theCacheStatisticsService;
+    }
+
+    // GET second-level cache hit/miss counters, overall and per region
+    @GetMapping("/stats")
+    @Operation(summary = "Get second-level cache statistics")
+    public ResponseEntity<CacheStatisticsDTO> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+
+    // Reset the counters, e.g. before a load test
+    @DeleteMapping("/stats")
+    @Operation(summary = "Reset second-level cache statistics")
+    public ResponseEntity<Void> resetStatistics() {
+        cacheStatisticsService.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
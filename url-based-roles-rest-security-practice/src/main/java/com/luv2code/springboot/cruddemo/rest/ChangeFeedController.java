@@ -0,0 +1,55 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.config.SqlBudget;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+import com.luv2code.springboot.cruddemo.service.ChangeLog;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@Tag(name = "Change Feed", description = "Incremental sync of employees and departments")
+@RestController
+@RequestMapping("/api")
+public class ChangeFeedController {
+
+    private final ChangeLog changeLog;
+
+    @Value("${changes.max-limit:1000}")
+    private int maxLimit;
+
+    public ChangeFeedController(ChangeLog theChangeLog) {
+        changeLog = theChangeLog;
+    }
+
+    /**
+     * GET endpoint for the inserts, updates and deletes to employees and departments
+     * after a position, in commit order. Start with since=0 (or after a full read,
+     * with the "next" of an empty poll), then keep passing back "next". A 410 Gone
+     * means the position is no longer available and the client must read everything again.
+     *
+     * @param since The "next" value of the previous response; 0 for the beginning.
+     * @param limit The maximum number of changes to return (defaults to 100).
+     * @return The changes, the position to continue from and whether more are waiting.
+     */
+    @SqlBudget(2)
+    @GetMapping("/changes")
+    @Operation(summary = "Get the changes to employees and departments since a position")
+    public ResponseEntity<ChangeFeedDTO> getChanges(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (since < 0) {
+            throw new InvalidRequestException("since must not be negative");
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxLimit);
+        }
+        return ResponseEntity.ok(changeLog.read(since, limit));
+    }
+}
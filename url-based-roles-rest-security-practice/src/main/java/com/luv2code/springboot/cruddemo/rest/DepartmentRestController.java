@@ -1,10 +1,16 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,14 +22,25 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.config.SqlBudget;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
+import com.luv2code.springboot.cruddemo.dto.CursorPageResponseDTO;
 import com.luv2code.springboot.cruddemo.dto.DepartmentRequestDTO;
 import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentTransferResultDTO;
+import com.luv2code.springboot.cruddemo.dto.PageResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
 import com.luv2code.springboot.cruddemo.entity.Department;
 
 import com.luv2code.springboot.cruddemo.service.DepartmentService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -33,16 +50,33 @@ import jakarta.validation.Valid;
 @RequestMapping("/api/departments")
 public class DepartmentRestController {
 
+    // Indexed columns that cursor pagination can seek on.
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "name");
+
+    // Properties a client can select with ?fields=, in response order.
+    private static final List<String> SPARSE_FIELDS = List.of("id", "name", "headcount");
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
     @Autowired
     private DepartmentService departmentService;
 
-    // Get all departments
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Get all departments; 304 Not Modified if the If-None-Match ETag is still current.
+    // ?count=none skips the COUNT(*), ?count=estimate reads the planner's row estimate instead.
+    @SqlBudget(2)
     @GetMapping
     @Operation(summary = "Get all department with pagination")
-    public ResponseEntity<Page<DepartmentResponseDTO>> getAllDepartments(
+    public ResponseEntity<PageResponseDTO<DepartmentResponseDTO>> getAllDepartments(
             @Valid @RequestParam(defaultValue = "0") int page,
             @Valid @RequestParam(defaultValue = "10") int size,
-            @Valid @RequestParam(defaultValue = "id,asc") String[] sort) {
+            @Valid @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        CountMode countMode = CountMode.of(count);
 
         // Parse the sort parameter into field and direction.
         String sortField = sort[0];
@@ -55,35 +89,124 @@ public class DepartmentRestController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
 
         // Fetch the page of Department entities from the service.
-        Page<Department> departmentPage = departmentService.getAllDepartments(pageable);
+        Slice<Department> departmentPage = departmentService.getAllDepartments(pageable, countMode);
 
         // Map the Page of Entities to a Page of DTOs to control the exposed data.
-        Page<DepartmentResponseDTO> dtoPage = departmentPage
+        Slice<DepartmentResponseDTO> dtoPage = departmentPage
                 .map(DepartmentResponseDTO::new);
 
         // Return the page of DTOs with an HTTP 200 OK status.
-        return ResponseEntity.ok(dtoPage);
+        return ETags.revalidated(PageResponseDTO.of(dtoPage, countMode));
+    }
+
+    // Selected fields of all departments (?fields=id,name): only those columns are read,
+    // without building entities. Paging, sorting and ?count= as above.
+    @SqlBudget(2)
+    @GetMapping(params = { "fields", "!after" })
+    @Operation(summary = "Get selected fields of all departments (?fields=id,name)")
+    public ResponseEntity<PageResponseDTO<Map<String, Object>>> getAllDepartmentFields(
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        CountMode countMode = CountMode.of(count);
+        Sort.Direction direction = sort.length > 1 && sort[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort[0].trim()));
+        return ETags.revalidated(PageResponseDTO.of(
+                departmentService.getDepartmentFields(fieldset, pageable, countMode), countMode));
+    }
+
+    // Get departments with keyset (cursor) pagination: ?after= for the first page,
+    // then the returned "next" cursor. Sortable by the indexed "id" or "name" columns.
+    @SqlBudget(2)
+    @GetMapping(params = "after")
+    @Operation(summary = "Get departments using cursor pagination (pass ?after= for the first page)")
+    public ResponseEntity<CursorPageResponseDTO<DepartmentResponseDTO>> getDepartmentsAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(required = false) String fields) {
+        PageLimits.checkSize(size);
+        if (fields != null) {
+            throw new InvalidRequestException("fields is not supported with cursor pagination (after)");
+        }
+        KeysetCursor cursor = after.isEmpty()
+                ? KeysetCursor.first(sort, KEYSET_SORT_FIELDS)
+                : KeysetCursor.decode(after, KEYSET_SORT_FIELDS);
+
+        Window<Department> window = departmentService.getDepartmentsAfter(
+                cursor.position(Long::valueOf), cursor.sort(), size);
+
+        List<DepartmentResponseDTO> content = window.getContent().stream()
+                .map(DepartmentResponseDTO::new)
+                .toList();
+        String next = window.hasNext() && !window.isEmpty()
+                ? cursor.after(window.positionAt(window.size() - 1)).encode()
+                : null;
+
+        return ETags.revalidated(new CursorPageResponseDTO<>(content, content.size(), next));
+    }
+
+    // GET headcount of every department, from the stored counters (no COUNT(*) over employees)
+    @SqlBudget(1)
+    @GetMapping("/stats")
+    @Operation(summary = "Get the headcount of every department")
+    public ResponseEntity<DepartmentStatsDTO> getDepartmentStats() {
+        return ETags.revalidated(departmentService.getDepartmentStats());
     }
 
-    // GET department by id
+    // GET department by id, with its ETag; 304 without a body if If-None-Match still matches
+    @SqlBudget(1)
     @GetMapping("/id/{id}")
     @Operation(summary = "Get department by id")
     public ResponseEntity<DepartmentResponseDTO> getDepartmentById(@PathVariable Long id) {
         Department department = departmentService.getDepartmentById(id);
         DepartmentResponseDTO responseDTO = new DepartmentResponseDTO(department);
-        return ResponseEntity.ok(responseDTO);
+        return ETags.ok(ETags.department(department), responseDTO);
     }
 
     // GET department by name
+    @SqlBudget(1)
     @Operation(summary = "Get department by name")
     @GetMapping("/name/{name}")
     public ResponseEntity<DepartmentResponseDTO> getDepartmentByName(@PathVariable String name) {
         Department department = departmentService.getDepartmentByName(name);
         DepartmentResponseDTO responseDTO = new DepartmentResponseDTO(department);
-        return ResponseEntity.ok(responseDTO);
+        return ETags.ok(ETags.department(department), responseDTO);
+    }
+
+    // Selected fields of one department. Departments come from the second-level cache, so the
+    // output is pruned rather than the query.
+    @SqlBudget(1)
+    @GetMapping(value = "/id/{id}", params = "fields")
+    @Operation(summary = "Get selected fields of a department by id")
+    public ResponseEntity<Map<String, Object>> getDepartmentFieldsById(@PathVariable Long id,
+            @RequestParam String fields) {
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        return selectedFields(departmentService.getDepartmentById(id), fieldset);
+    }
+
+    @SqlBudget(1)
+    @GetMapping(value = "/name/{name}", params = "fields")
+    @Operation(summary = "Get selected fields of a department by name")
+    public ResponseEntity<Map<String, Object>> getDepartmentFieldsByName(@PathVariable String name,
+            @RequestParam String fields) {
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        return selectedFields(departmentService.getDepartmentByName(name), fieldset);
+    }
+
+    private ResponseEntity<Map<String, Object>> selectedFields(Department department, SparseFieldset fieldset) {
+        return ETags.ok(ETags.department(department),
+                fieldset.pick(objectMapper.convertValue(new DepartmentResponseDTO(department), JSON_OBJECT)));
     }
 
     // CREATE new department
+    @SqlBudget(5)
     @PostMapping
     @Operation(summary = "Create a new department")
     @ApiResponse(responseCode = "201", description = "Department created")
@@ -95,24 +218,47 @@ public class DepartmentRestController {
         return new ResponseEntity<>(new DepartmentResponseDTO(saved), HttpStatus.CREATED);
     }
 
-    // UPDATE existing department
+    // UPDATE existing department; with If-Match, only if it is unchanged since that ETag (else 412).
+    // The tag is compared with the department the update itself loads, and a rename committed
+    // after that load fails on @Version (409), so no change is silently overwritten.
+    @SqlBudget(5)
     @PutMapping("/{id}")
     @Operation(summary = "Update existing department")
     public ResponseEntity<DepartmentResponseDTO> updateDepartment(@PathVariable Long id,
-            @RequestBody @Valid DepartmentRequestDTO requestDTO) {
-
+            @RequestBody @Valid DepartmentRequestDTO requestDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // Create department entity from DTO
         Department departmentDetails = new Department();
         departmentDetails.setName(requestDTO.name());
 
         // Update department
-        Department updateDepartment = departmentService.updateDepartment(id, departmentDetails);
+        Department updateDepartment = departmentService.updateDepartment(id, departmentDetails,
+                current -> ETags.checkIfMatch(ifMatch, ETags.department(current)));
         DepartmentResponseDTO responseDTO = new DepartmentResponseDTO(updateDepartment);
 
-        return ResponseEntity.ok(responseDTO);
+        return ETags.ok(ETags.department(updateDepartment), responseDTO);
+    }
+
+    // Move every employee of a department to another one (single UPDATE statement)
+    @SqlBudget(8)
+    @PostMapping("/{id}/reassign")
+    @Operation(summary = "Move all employees of a department to another department")
+    public ResponseEntity<DepartmentTransferResultDTO> reassignEmployees(@PathVariable Long id,
+            @RequestParam("to") Long targetId) {
+        return ResponseEntity.ok(departmentService.reassignEmployees(id, targetId));
+    }
+
+    // Move every employee to another department, then delete this one
+    @SqlBudget(10)
+    @PostMapping("/{id}/merge-into/{targetId}")
+    @Operation(summary = "Merge a department into another: move its employees and delete it")
+    public ResponseEntity<DepartmentTransferResultDTO> mergeInto(@PathVariable Long id,
+            @PathVariable Long targetId) {
+        return ResponseEntity.ok(departmentService.mergeInto(id, targetId));
     }
 
     // DELETE department
+    @SqlBudget(6)
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a department without employee under it")
     public ResponseEntity<DepartmentResponseDTO> deleteDepartment(@PathVariable Long id) {
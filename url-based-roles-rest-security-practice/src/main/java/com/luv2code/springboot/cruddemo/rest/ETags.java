@@ -0,0 +1,80 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.PreconditionFailedException;
+import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.entity.Department;
+
+/**
+ * Strong ETags for single records, derived from entity versions rather than from hashing
+ * response bodies, so a conditional request can be answered before anything is serialized.
+ * <ul>
+ * <li>An employee's ETag covers its @Version plus the id and name of the embedded department,
+ * which a department rename changes without touching the employee row.</li>
+ * <li>A department's ETag covers its @Version plus its headcount, which changes through
+ * counter updates that leave the version alone.</li>
+ * <li>Lists, cursor pages, search results and /stats are tagged by
+ * {@link com.luv2code.springboot.cruddemo.config.CollectionETagConfig} with a hash of the
+ * body they render, so their tags follow the rows actually returned.</li>
+ * </ul>
+ * Responses carry "Cache-Control: private, no-cache": clients may keep them but must
+ * revalidate with If-None-Match, which costs a 304 without a body when nothing changed.
+ */
+final class ETags {
+
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ETags() {
+    }
+
+    static String employee(long version, EmployeeResponseDTO employee) {
+        DepartmentResponseDTO department = employee.department();
+        String departmentTag = department != null
+                ? department.id() + "." + Integer.toHexString(String.valueOf(department.name()).hashCode())
+                : "0";
+        return quote(version + "." + departmentTag);
+    }
+
+    static String department(Department department) {
+        return quote(department.getVersion() + "." + department.getHeadcount());
+    }
+
+    /**
+     * Lost-update protection for PUT: passes when there is no If-Match header, when it is
+     * "*", or when it lists the current ETag (strong comparison, so weak tags never match).
+     *
+     * @throws PreconditionFailedException otherwise
+     */
+    static void checkIfMatch(String ifMatch, String currentETag) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(currentETag)) {
+                return;
+            }
+        }
+        throw new PreconditionFailedException("The resource has changed; its current ETag is " + currentETag);
+    }
+
+    static <T> ResponseEntity<T> ok(String eTag, T body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag).cacheControl(REVALIDATE);
+        }
+        return response.body(body);
+    }
+
+    // For collections: the ETag is added from the rendered body on the way out.
+    static <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(body);
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
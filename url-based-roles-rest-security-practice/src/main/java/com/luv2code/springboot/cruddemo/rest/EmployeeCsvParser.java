@@ -0,0 +1,105 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dto.CreateEmployeeRequestDTO;
+
+/**
+ * Reads employees for a bulk import from CSV (RFC 4180, the same dialect
+ * {@link EmployeeExportWriter} writes). The first line is a header naming the
+ * columns firstName, lastName, email and departmentName in any order; other
+ * columns are ignored. Missing values become empty strings so that the row is
+ * reported by validation rather than failing the whole upload.
+ */
+final class EmployeeCsvParser {
+
+    private static final String[] COLUMNS = { "firstName", "lastName", "email", "departmentName" };
+
+    private EmployeeCsvParser() {
+    }
+
+    static List<CreateEmployeeRequestDTO> parse(Reader reader) {
+        try {
+            List<String> header = readRecord(reader);
+            if (header == null) {
+                return List.of();
+            }
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                index.put(header.get(i).trim(), i);
+            }
+            for (String column : COLUMNS) {
+                if (!index.containsKey(column)) {
+                    throw new InvalidRequestException("CSV header must contain the columns " + String.join(",", COLUMNS));
+                }
+            }
+
+            List<CreateEmployeeRequestDTO> rows = new ArrayList<>();
+            List<String> record;
+            while ((record = readRecord(reader)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue; // blank line
+                }
+                rows.add(new CreateEmployeeRequestDTO(
+                        value(record, index.get("firstName")),
+                        value(record, index.get("lastName")),
+                        value(record, index.get("email")),
+                        value(record, index.get("departmentName"))));
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String value(List<String> record, int column) {
+        return column < record.size() ? record.get(column).trim() : "";
+    }
+
+    // Reads one record, honouring quoted fields that contain separators, quotes or line breaks.
+    // Returns null at end of input.
+    private static List<String> readRecord(Reader reader) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
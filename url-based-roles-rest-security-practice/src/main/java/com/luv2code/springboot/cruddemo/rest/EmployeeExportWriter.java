@@ -0,0 +1,129 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+
+/**
+ * Writes employees to an output stream one row at a time, either as
+ * newline-delimited JSON (one EmployeeResponseDTO per line) or as CSV.
+ * Nothing is buffered beyond the underlying writer, so memory use does not
+ * depend on how many rows are exported.
+ */
+abstract class EmployeeExportWriter implements AutoCloseable {
+
+    enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        final String contentType;
+        final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidRequestException("format must be ndjson or csv, got: " + value);
+        }
+    }
+
+    static EmployeeExportWriter create(Format format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        return format == Format.CSV ? new Csv(out) : new NdJson(out, objectMapper);
+    }
+
+    // Unchecked so it can be used from a Consumer while a database cursor is open.
+    abstract void write(EmployeeResponseDTO employee);
+
+    @Override
+    public abstract void close() throws IOException;
+
+    private static final class NdJson extends EmployeeExportWriter {
+
+        private final ObjectMapper objectMapper;
+        private final JsonGenerator generator;
+
+        NdJson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.objectMapper = objectMapper;
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void write(EmployeeResponseDTO employee) {
+            try {
+                objectMapper.writeValue(generator, employee);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class Csv extends EmployeeExportWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            writer.write("id,firstName,email,departmentId,departmentName\n");
+        }
+
+        @Override
+        void write(EmployeeResponseDTO employee) {
+            try {
+                writer.write(String.valueOf(employee.id()));
+                writer.write(',');
+                writer.write(escape(employee.firstName()));
+                writer.write(',');
+                writer.write(escape(employee.email()));
+                writer.write(',');
+                if (employee.department() != null) {
+                    writer.write(String.valueOf(employee.department().id()));
+                    writer.write(',');
+                    writer.write(escape(employee.department().name()));
+                } else {
+                    writer.write(',');
+                }
+                writer.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // RFC 4180: quote fields containing a separator, quote or line break; double inner quotes.
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -14,15 +27,34 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
 import com.luv2code.springboot.cruddemo.ExceptionHandling.EmployeeNotFoundException;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.config.SqlBudget;
+import com.luv2code.springboot.cruddemo.dto.BatchReadResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO;
+import com.luv2code.springboot.cruddemo.dto.BulkImportResultDTO;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.CreateEmployeeRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.CursorPageResponseDTO;
 import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeBatchUpdateDTO;
 import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.PageResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
+import com.luv2code.springboot.cruddemo.dto.Versioned;
 import com.luv2code.springboot.cruddemo.entity.Employee;
+import com.luv2code.springboot.cruddemo.service.EmployeeChangeStream;
 import com.luv2code.springboot.cruddemo.service.EmployeeService;
 
 import jakarta.validation.Valid;
@@ -36,12 +68,31 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @RequestMapping("/api")
 public class EmployeeRestController {
 
+    // Indexed columns that cursor pagination can seek on.
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "email");
+
+    // Properties a client can select with ?fields=, in response order.
+    private static final List<String> SPARSE_FIELDS = List.of("id", "firstName", "email", "department.id",
+            "department.name");
+
+    private static final TypeReference<Map<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+
     // Service layer dependency for handling business logic.
     private final EmployeeService employeeService;
 
+    // Used to write export rows directly to the response stream.
+    private final ObjectMapper objectMapper;
+
+    // Pushes committed changes to the /employees/stream subscribers.
+    private final EmployeeChangeStream changeStream;
+
     // Constructor-based dependency injection (best practice).
-    public EmployeeRestController(EmployeeService theEmployeeService) {
+    public EmployeeRestController(EmployeeService theEmployeeService, ObjectMapper theObjectMapper,
+            EmployeeChangeStream theChangeStream) {
         employeeService = theEmployeeService;
+        objectMapper = theObjectMapper;
+        changeStream = theChangeStream;
     }
 
     /**
@@ -51,15 +102,22 @@ public class EmployeeRestController {
      * @param size The number of items per page (defaults to 10).
      * @param sort An array defining the sort field and direction (e.g.,
      *             ["firstName", "asc"]).
-     * @return A ResponseEntity containing a Page of EmployeeResponseDTO objects.
+     * @param count How to report the total: "exact" (default, a COUNT(*)),
+     *             "estimate" (PostgreSQL planner statistics) or "none" (no total).
+     * @return A ResponseEntity containing a page of EmployeeResponseDTO objects,
+     *         or 304 Not Modified if the If-None-Match ETag is still current.
      */
 
+    @SqlBudget(2)
     @GetMapping("/employees")
     @Operation(summary = "Get all employees with corresponding department details")
-    public ResponseEntity<Page<EmployeeResponseDTO>> getAllEmployees(
+    public ResponseEntity<PageResponseDTO<EmployeeResponseDTO>> getAllEmployees(
             @Valid @RequestParam(defaultValue = "0") int page,
             @Valid @RequestParam(defaultValue = "10") int size,
-            @Valid @RequestParam(defaultValue = "id,asc") String[] sort) { // Changed default to avoid space issue
+            @Valid @RequestParam(defaultValue = "id,asc") String[] sort, // Changed default to avoid space issue
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        CountMode countMode = CountMode.of(count);
 
         // Parse the sort parameter into field and direction.
         String sortField = sort[0];
@@ -69,16 +127,235 @@ public class EmployeeRestController {
         // Create a PageRequest object which encapsulates pagination and sorting info.
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
 
-        // Fetch the page of Employee entities from the service.
-        Page<Employee> employeePage = employeeService.getAllEmployees(pageable);
-
-        // Map the Page of Entities to a Page of DTOs to control the exposed data.
-        Page<EmployeeResponseDTO> dtoPage = employeePage
-                .map(emp -> new EmployeeResponseDTO(emp.getFirstName(), emp.getEmail(), emp.getId(),
-                        emp.getDepartment() != null ? new DepartmentResponseDTO(emp.getDepartment()) : null));
+        // Fetch the page of DTOs from the service; the department is joined in the same query.
+        Slice<EmployeeResponseDTO> dtoPage = employeeService.getAllEmployees(pageable, countMode);
 
         // Return the page of DTOs with an HTTP 200 OK status.
-        return ResponseEntity.ok(dtoPage);
+        return ETags.revalidated(PageResponseDTO.of(dtoPage, countMode));
+    }
+
+    /**
+     * GET endpoint for selected fields of all employees, e.g.
+     * ?fields=id,email,department.name ("department" selects both of its fields).
+     * Only those columns are read, departments are joined only for department.name,
+     * and rows are serialized without building entities.
+     *
+     * @param fields Comma-separated fields: id, firstName, email, department.id, department.name.
+     * @return A ResponseEntity containing a page of objects with only the selected fields.
+     */
+    @SqlBudget(2)
+    @GetMapping(value = "/employees", params = { "fields", "!after", "!ids" })
+    @Operation(summary = "Get selected fields of all employees (?fields=id,email,department.name)")
+    public ResponseEntity<PageResponseDTO<Map<String, Object>>> getAllEmployeeFields(
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        CountMode countMode = CountMode.of(count);
+        return ETags.revalidated(PageResponseDTO.of(
+                employeeService.getEmployeeFields(fieldset, pageable(page, size, sort), countMode), countMode));
+    }
+
+    /**
+     * GET endpoint for many employees by id, e.g. ?ids=3,1,2, instead of one request
+     * per employee. Employees in the second-level cache cost no SQL and the rest are
+     * read with a single query. Optionally combined with ?fields= to prune the output.
+     *
+     * @param ids    Comma-separated employee ids; duplicates are ignored.
+     * @param fields Optional comma-separated fields, as for the list endpoint.
+     * @return The employees in the requested order, and the ids that do not exist.
+     */
+    @SqlBudget(2)
+    @GetMapping(value = "/employees", params = { "ids", "!after" })
+    @Operation(summary = "Get many employees by id (?ids=1,2,3)")
+    public ResponseEntity<BatchReadResponseDTO<?>> getEmployeesByIds(@RequestParam String ids,
+            @RequestParam(required = false) String fields) {
+        SparseFieldset fieldset = fields != null ? SparseFieldset.of(fields, SPARSE_FIELDS) : null;
+        List<Integer> requested = parseIds(ids);
+        List<EmployeeResponseDTO> employees = employeeService.getEmployeesByIds(requested);
+
+        Set<Integer> found = Set.copyOf(employees.stream().map(EmployeeResponseDTO::id).toList());
+        List<Integer> missing = requested.stream().filter(id -> !found.contains(id)).toList();
+        if (fieldset == null) {
+            return ResponseEntity.ok(new BatchReadResponseDTO<>(employees, missing));
+        }
+        List<Map<String, Object>> content = employees.stream()
+                .map(employee -> fieldset.pick(objectMapper.convertValue(employee, JSON_OBJECT)))
+                .toList();
+        return ResponseEntity.ok(new BatchReadResponseDTO<>(content, missing));
+    }
+
+    /**
+     * GET endpoint to fetch a paginated and sorted list of the employees in one department.
+     *
+     * @param departmentId The ID of the department.
+     * @param page         The page number to retrieve (defaults to 0).
+     * @param size         The number of items per page (defaults to 10).
+     * @param sort         An array defining the sort field and direction.
+     * @param count        "exact" (default), "estimate" (the department's stored
+     *                     headcount) or "none".
+     * @return A ResponseEntity containing a page of EmployeeResponseDTO objects.
+     */
+    @SqlBudget(3)
+    @GetMapping("/employees/department/{departmentId}")
+    @Operation(summary = "Get employees of a department with pagination")
+    public ResponseEntity<PageResponseDTO<EmployeeResponseDTO>> getEmployeesByDepartment(
+            @PathVariable Long departmentId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        CountMode countMode = CountMode.of(count);
+
+        Sort.Direction direction = sort.length > 1 && sort[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort[0].trim()));
+
+        return ETags.revalidated(PageResponseDTO.of(
+                employeeService.getEmployeesByDepartment(departmentId, pageable, countMode), countMode));
+    }
+
+    // Selected fields of the employees in one department (see getAllEmployeeFields).
+    @SqlBudget(3)
+    @GetMapping(value = "/employees/department/{departmentId}", params = "fields")
+    @Operation(summary = "Get selected fields of the employees of a department")
+    public ResponseEntity<PageResponseDTO<Map<String, Object>>> getEmployeeFieldsByDepartment(
+            @PathVariable Long departmentId,
+            @RequestParam String fields,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(defaultValue = "exact") String count) {
+        PageLimits.check(page, size);
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        CountMode countMode = CountMode.of(count);
+        return ETags.revalidated(PageResponseDTO.of(employeeService.getEmployeeFieldsByDepartment(
+                departmentId, fieldset, pageable(page, size, sort), countMode), countMode));
+    }
+
+    /**
+     * GET endpoint to fetch employees with keyset (cursor) pagination.
+     * Selected instead of the page-number variant whenever the "after" parameter
+     * is present; pass an empty value for the first page and the returned "next"
+     * cursor for each following page. Latency does not grow with depth because
+     * each page seeks on an index rather than skipping OFFSET rows.
+     *
+     * @param after The cursor returned by the previous page (empty for the first page).
+     * @param size  The number of items per page (defaults to 10).
+     * @param sort  Sort field and direction for the first page; "id" or "email".
+     * @return A ResponseEntity containing the page and the cursor for the next one.
+     */
+    @SqlBudget(2)
+    @GetMapping(value = "/employees", params = "after")
+    @Operation(summary = "Get employees using cursor pagination (pass ?after= for the first page)")
+    public ResponseEntity<CursorPageResponseDTO<EmployeeResponseDTO>> getEmployeesAfter(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,asc") String[] sort,
+            @RequestParam(required = false) String fields) {
+        PageLimits.checkSize(size);
+        if (fields != null) {
+            throw new InvalidRequestException("fields is not supported with cursor pagination (after)");
+        }
+        KeysetCursor cursor = after.isEmpty()
+                ? KeysetCursor.first(sort, KEYSET_SORT_FIELDS)
+                : KeysetCursor.decode(after, KEYSET_SORT_FIELDS);
+
+        Window<Employee> window = employeeService.getEmployeesAfter(
+                cursor.position(Integer::valueOf), cursor.sort(), size);
+
+        List<EmployeeResponseDTO> content = window.getContent().stream()
+                .map(EmployeeResponseDTO::new)
+                .toList();
+        String next = window.hasNext() && !window.isEmpty()
+                ? cursor.after(window.positionAt(window.size() - 1)).encode()
+                : null;
+
+        return ETags.revalidated(new CursorPageResponseDTO<>(content, content.size(), next));
+    }
+
+    /**
+     * GET endpoint to search employees by first name, last name or email.
+     * Every whitespace-separated term must occur in one of those fields (terms
+     * shorter than three characters must start one). Results are ranked, best
+     * match first: a whole field, then a prefix, then a substring.
+     *
+     * @param q    The search terms.
+     * @param page The page number to retrieve (defaults to 0).
+     * @param size The number of items per page (defaults to 10).
+     * @return A ResponseEntity containing a page of matching EmployeeResponseDTO objects.
+     */
+    @SqlBudget(2)
+    @GetMapping("/employees/search")
+    @Operation(summary = "Search employees by name or email")
+    public ResponseEntity<PageResponseDTO<EmployeeResponseDTO>> searchEmployees(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        PageLimits.check(page, size);
+        // The index knows the number of matches, so the total is always exact and free.
+        return ETags.revalidated(PageResponseDTO.of(
+                employeeService.searchEmployees(q, PageRequest.of(page, size)), CountMode.EXACT));
+    }
+
+    /**
+     * GET endpoint to export every employee in a single streamed response.
+     * Rows are read through a database cursor and written as they arrive, so
+     * the server holds only one batch in memory however large the table is.
+     *
+     * @param format "ndjson" (default, one JSON object per line) or "csv"; anything else is a 400.
+     * @return A streaming response body with the exported rows.
+     */
+    @GetMapping("/employees/export")
+    @Operation(summary = "Export all employees as newline-delimited JSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportEmployees(
+            @RequestParam(defaultValue = "ndjson") String format) {
+        EmployeeExportWriter.Format exportFormat = EmployeeExportWriter.Format.of(format);
+
+        StreamingResponseBody body = out -> {
+            try (EmployeeExportWriter writer = EmployeeExportWriter.create(exportFormat, out, objectMapper)) {
+                employeeService.streamAllEmployees(writer::write);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"employees." + exportFormat.extension + "\"")
+                .body(body);
+    }
+
+    /**
+     * GET endpoint streaming employee creates, updates and deletes as server-sent
+     * events once they are committed. Each event is named "create", "update" or
+     * "delete", its id is the change feed seq and its data the employee change.
+     * Events are sent in commit order. A client that reconnects with the Last-Event-ID
+     * header gets everything it missed; 410 Gone means that is no longer kept and
+     * it must read everything again. Slow clients are disconnected and resume the same way.
+     *
+     * @param departmentId Only employees in, or moving out of, this department.
+     * @param lastEventId  The id of the last event received, to resume after it.
+     * @return The event stream.
+     */
+    @SqlBudget(2)
+    @GetMapping(value = "/employees/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream employee changes as server-sent events")
+    public ResponseEntity<SseEmitter> streamEmployeeChanges(@RequestParam(required = false) Long departmentId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // EventSource clients accept only text/event-stream, so errors go out as a bare status.
+        if (lastEventId != null && lastEventId < 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(changeStream.subscribe(departmentId, lastEventId));
+        } catch (CursorExpiredException e) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
     }
 
     /**
@@ -88,6 +365,7 @@ public class EmployeeRestController {
      * @return A confirmation message.
      * @throws EmployeeNotFoundException if no employee with the given ID exists.
      */
+    @SqlBudget(5)
     @DeleteMapping("/employees/{employeeId}")
     @Operation(summary = "Delete employee based on employee ID")
     public ResponseEntity<String> deleteEmployee(@PathVariable int employeeId) {
@@ -103,6 +381,7 @@ public class EmployeeRestController {
      * @return A ResponseEntity with the created employee's data and HTTP 201
      *         status.
      */
+    @SqlBudget(6)
     @PostMapping("/employees")
     @Operation(summary = "Create new employee (id is autoincremented)")
     public ResponseEntity<EmployeeResponseDTO> createEmployee(
@@ -113,42 +392,114 @@ public class EmployeeRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * POST endpoint to create many employees at once from a JSON array.
+     * Department names and existing emails are looked up once for the whole
+     * batch and rows are written with batched INSERTs. Invalid rows are skipped
+     * and listed in the result together with their row number.
+     *
+     * @param employees The employees to create.
+     * @return A summary of the import, including per-row errors and throughput.
+     */
+    @PostMapping(value = "/employees/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Create many employees from a JSON array")
+    public ResponseEntity<BulkImportResultDTO> bulkCreateEmployees(
+            @RequestBody List<CreateEmployeeRequestDTO> employees) {
+        return bulkImport(employees);
+    }
+
+    /**
+     * POST endpoint to create many employees from a CSV body with the header
+     * firstName,lastName,email,departmentName.
+     *
+     * @param csv The CSV document.
+     * @return A summary of the import, including per-row errors and throughput.
+     */
+    @PostMapping(value = "/employees/bulk", consumes = "text/csv")
+    @Operation(summary = "Create many employees from a CSV document")
+    public ResponseEntity<BulkImportResultDTO> bulkCreateEmployeesFromCsv(@RequestBody String csv) {
+        return bulkImport(EmployeeCsvParser.parse(new StringReader(csv)));
+    }
+
+    /**
+     * POST endpoint to create many employees from an uploaded CSV file
+     * (multipart form field "file").
+     *
+     * @param file The uploaded CSV file.
+     * @return A summary of the import, including per-row errors and throughput.
+     */
+    @PostMapping(value = "/employees/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Create many employees from an uploaded CSV file")
+    public ResponseEntity<BulkImportResultDTO> bulkCreateEmployeesFromFile(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            return bulkImport(EmployeeCsvParser.parse(reader));
+        }
+    }
+
+    private ResponseEntity<BulkImportResultDTO> bulkImport(List<CreateEmployeeRequestDTO> employees) {
+        if (employees.isEmpty()) {
+            throw new InvalidRequestException("No employees to import");
+        }
+        BulkImportResultDTO result = employeeService.bulkCreate(employees);
+        // 201 when anything was written; 400 only if every row was rejected.
+        HttpStatus status = result.imported() > 0 ? HttpStatus.CREATED : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * GET endpoint to fetch a single employee by their ID.
      * 
      * @param employeeId The ID of the employee to retrieve.
-     * @return A ResponseEntity containing the EmployeeResponseDTO.
+     * @return A ResponseEntity containing the EmployeeResponseDTO and its ETag; 304 Not
+     *         Modified without a body if the If-None-Match ETag is still current.
      */
+    @SqlBudget(2)
     @GetMapping("/employees/{employeeId}")
     @Operation(summary = "Get employee details based on employee ID)")
     public ResponseEntity<EmployeeResponseDTO> getEmployee(@PathVariable int employeeId) {
-        // Fetch the employee entity
-        Employee employee = employeeService.findById(employeeId); // This should return Employee entity
+        // Read-only path, served from the second-level cache for hot records.
+        Versioned<EmployeeResponseDTO> employee = employeeService.getUserById(employeeId);
 
-        // Create the DTO using the same pattern as your /employees endpoint
-        EmployeeResponseDTO responseDTO = new EmployeeResponseDTO(
-                employee.getFirstName(),
-                employee.getEmail(),
-                employee.getId(),
-                employee.getDepartment() != null ? new DepartmentResponseDTO(employee.getDepartment()) : null);
+        // Spring compares the ETag with If-None-Match and sends a 304 without serializing the body.
+        return ETags.ok(ETags.employee(employee.version(), employee.body()), employee.body());
+    }
 
-        return ResponseEntity.ok(responseDTO);
+    // Selected fields of one employee. The employee comes from the second-level cache like the
+    // full GET, where a column-pruned query would cost a round trip, so only the output is pruned.
+    @SqlBudget(2)
+    @GetMapping(value = "/employees/{employeeId}", params = "fields")
+    @Operation(summary = "Get selected fields of an employee")
+    public ResponseEntity<Map<String, Object>> getEmployeeFields(@PathVariable int employeeId,
+            @RequestParam String fields) {
+        SparseFieldset fieldset = SparseFieldset.of(fields, SPARSE_FIELDS);
+        Versioned<EmployeeResponseDTO> employee = employeeService.getUserById(employeeId);
+        return ETags.ok(ETags.employee(employee.version(), employee.body()),
+                fieldset.pick(objectMapper.convertValue(employee.body(), JSON_OBJECT)));
     }
 
     /**
      * PUT endpoint to update an existing employee.
      * 
-     * @param id  The ID of the employee to update.
-     * @param dto The DTO containing the updated data.
-     * @return A ResponseEntity with the updated employee's data.
+     * @param id      The ID of the employee to update.
+     * @param dto     The DTO containing the updated data.
+     * @param ifMatch Optional ETag from an earlier GET; the update is refused with 412
+     *                Precondition Failed if the employee has changed since.
+     * @return A ResponseEntity with the updated employee's data and its new ETag.
      */
+    @SqlBudget(7)
     @PutMapping("/employees/{id}")
     @Operation(summary = "Update an existing employee")
     public ResponseEntity<EmployeeResponseDTO> updateEmployee(@PathVariable int id,
-            @Valid @RequestBody CreateEmployeeRequestDTO dto) { // Added @Valid for consistency
+            @Valid @RequestBody CreateEmployeeRequestDTO dto, // Added @Valid for consistency
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         // 1. Fetch the existing employee from the database (throws exception if not
         // found).
         Employee employee = employeeService.findById(id);
+        // A concurrent change between this check and the write still fails, on the @Version.
+        if (ifMatch != null) {
+            ETags.checkIfMatch(ifMatch, ETags.employee(employee.getVersion(), new EmployeeResponseDTO(employee)));
+        }
         // 2. Update the entity with new values from the DTO.
         employee.setFirstName(dto.firstName());
         employee.setLastName(dto.lastName());
@@ -164,6 +515,54 @@ public class EmployeeRestController {
         // 4. Convert the saved entity to a Response DTO and return it.
         EmployeeResponseDTO responseDTO = new EmployeeResponseDTO(updatedEmployee.getFirstName(),
                 updatedEmployee.getEmail(), updatedEmployee.getId(), departmentDTO);
-        return ResponseEntity.ok(responseDTO);
+        return ETags.ok(ETags.employee(updatedEmployee.getVersion(), responseDTO), responseDTO);
+    }
+
+    /**
+     * PUT endpoint to update many employees in one transaction. Each entry carries
+     * the employee id, its new values and optionally the version it was based on.
+     * The UPDATEs are sent in JDBC batches; entries that cannot be applied are
+     * skipped and reported with their reason.
+     *
+     * @param updates The updates to apply.
+     * @return One result per entry, in request order: 200 when anything was applied
+     *         or already up to date, 400 if every entry was rejected.
+     */
+    // One read each for the employees, departments and taken emails, one batched UPDATE and
+    // the change log's two statements, whatever the batch size; plus one headcount UPDATE
+    // per department whose count changes, so this covers moves across up to six departments.
+    @SqlBudget(12)
+    @PutMapping("/employees/batch")
+    @Operation(summary = "Update many employees at once")
+    public ResponseEntity<BatchUpdateResultDTO> batchUpdateEmployees(@RequestBody List<EmployeeBatchUpdateDTO> updates) {
+        BatchUpdateResultDTO result = employeeService.batchUpdate(updates);
+        boolean applied = result.results().stream().anyMatch(item ->
+                item.status() == BatchUpdateResultDTO.Status.UPDATED
+                        || item.status() == BatchUpdateResultDTO.Status.UNCHANGED);
+        return ResponseEntity.status(applied ? HttpStatus.OK : HttpStatus.BAD_REQUEST).body(result);
+    }
+
+    // "3,1,2" into distinct ids in the order given.
+    private static List<Integer> parseIds(String ids) {
+        Set<Integer> parsed = new LinkedHashSet<>();
+        for (String id : ids.split(",")) {
+            if (id.isBlank()) {
+                continue;
+            }
+            try {
+                parsed.add(Integer.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException("ids must be a comma-separated list of employee ids, got: " + id.trim());
+            }
+        }
+        return new ArrayList<>(parsed);
+    }
+
+    // "field" or "field,asc|desc" into a page request.
+    private static Pageable pageable(int page, int size, String[] sort) {
+        Sort.Direction direction = sort.length > 1 && sort[1].trim().equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        return PageRequest.of(page, size, Sort.by(direction, sort[0].trim()));
     }
 }
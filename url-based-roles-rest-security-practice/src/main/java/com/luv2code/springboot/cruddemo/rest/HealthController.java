@@ -1,8 +1,17 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.actuate.endpoint.ApiVersion;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.WebServerNamespace;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpointWebExtension;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.security.Principal;
 import java.util.Map;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,32 +21,77 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 /**
  * HealthController provides health check and basic information endpoints
  * for the Employee Management API. These endpoints are publicly accessible
- * and do not require authentication.
+ * and do not require authentication; component details are only shown to
+ * the roles in management.endpoint.health.roles, as on /actuator/health.
  */
 @Tag(name = "Health & Status", description = "API health monitoring and status endpoints")
 @RestController
 public class HealthController {
 
+    // Same status mapping (DOWN -> 503) and show-details rules as /actuator/health
+    private final HealthEndpointWebExtension healthEndpoint;
+
+    public HealthController(HealthEndpointWebExtension theHealthEndpoint) {
+        healthEndpoint = theHealthEndpoint;
+    }
+
     /**
-     * Health check endpoint to verify API service status.
-     * This endpoint is typically used by monitoring systems, load balancers,
-     * and container orchestration platforms to determine service availability.
+     * Readiness check: whether this instance can serve requests right now.
+     * Probes the database with a timeout and reports connection pool usage.
+     * Load balancers should stop routing to an instance that answers 503.
      *
-     * @return Map containing service status information with keys:
-     *         - "status": Service status (UP/DOWN)
-     *         - "service": Service identifier
+     * @return the readiness health group with its components; 503 if any is DOWN
      */
     @Operation(
-        summary = "Health check endpoint",
-        description = "Returns the current health status of the API service. Used for monitoring and availability checks.",
+        summary = "Readiness check",
+        description = "Probes the database and reports connection pool saturation. Used by load balancers and orchestrators to decide whether to route traffic here.",
         responses = {
-            @ApiResponse(responseCode = "200", description = "Service is healthy and running"),
-            @ApiResponse(responseCode = "503", description = "Service is unavailable")
+            @ApiResponse(responseCode = "200", description = "Service is ready to serve requests"),
+            @ApiResponse(responseCode = "503", description = "Service or its database is unavailable")
         }
     )
-    @GetMapping("/health")
-    public Map<String, String> health() {
-        return Map.of("status", "UP", "service", "Employee Management API");
+    @GetMapping({"/health", "/health/ready"})
+    public ResponseEntity<HealthComponent> health(HttpServletRequest request) {
+        return healthOf("readiness", request);
+    }
+
+    /**
+     * Liveness check: whether the application itself is running. Does not touch the
+     * database, so an outage there does not get healthy instances restarted.
+     *
+     * @return the liveness health group; 503 if the application is broken
+     */
+    @Operation(
+        summary = "Liveness check",
+        description = "Reports whether the application is running, independent of its dependencies.",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Application is running"),
+            @ApiResponse(responseCode = "503", description = "Application is broken and should be restarted")
+        }
+    )
+    @GetMapping("/health/live")
+    public ResponseEntity<HealthComponent> liveness(HttpServletRequest request) {
+        return healthOf("liveness", request);
+    }
+
+    private ResponseEntity<HealthComponent> healthOf(String group, HttpServletRequest request) {
+        WebEndpointResponse<HealthComponent> health = healthEndpoint.health(
+                ApiVersion.V3, WebServerNamespace.SERVER, securityContext(request), group);
+        return ResponseEntity.status(health.getStatus()).body(health.getBody());
+    }
+
+    private static SecurityContext securityContext(HttpServletRequest request) {
+        return new SecurityContext() {
+            @Override
+            public Principal getPrincipal() {
+                return request.getUserPrincipal();
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return request.isUserInRole(role);
+            }
+        };
     }
 
     /**
@@ -0,0 +1,101 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+
+/**
+ * Opaque cursor for keyset pagination. It records the sort field and direction
+ * plus the sort value and id of the last row a client has seen, so the next page
+ * is fetched with an index seek ("WHERE key > last") instead of an OFFSET scan.
+ * Only indexed, unique-or-tie-broken fields may be used as sort keys.
+ */
+final class KeysetCursor {
+
+    private static final String ID = "id";
+    private static final char SEPARATOR = '|';
+
+    private final String field;
+    private final Sort.Direction direction;
+    private final String lastId;
+    private final String lastValue;
+
+    private KeysetCursor(String field, Sort.Direction direction, String lastId, String lastValue) {
+        this.field = field;
+        this.direction = direction;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+    }
+
+    // Cursor for the first page, built from the usual "field,direction" sort parameter.
+    static KeysetCursor first(String[] sort, Set<String> sortableFields) {
+        String field = sort.length > 0 ? sort[0].trim() : ID;
+        String direction = sort.length > 1 ? sort[1].trim() : "asc";
+        if (!sortableFields.contains(field)) {
+            throw new InvalidRequestException("Cursor pagination supports sorting by " + sortableFields);
+        }
+        return new KeysetCursor(field, direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC,
+                null, null);
+    }
+
+    static KeysetCursor decode(String token, Set<String> sortableFields) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // direction|field|lastId|lastValue - the value goes last since it may contain the separator.
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || !sortableFields.contains(parts[1]) || parts[2].isEmpty()) {
+                throw new InvalidRequestException("Invalid pagination cursor");
+            }
+            String field = parts[1];
+            Sort.Direction direction = Sort.Direction.fromString(parts[0]);
+            return new KeysetCursor(field, direction, parts[2], field.equals(ID) ? null : parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid pagination cursor");
+        }
+    }
+
+    Sort sort() {
+        Sort sort = Sort.by(direction, field);
+        // The id breaks ties so the ordering is total and no row is skipped or repeated.
+        return field.equals(ID) ? sort : sort.and(Sort.by(direction, ID));
+    }
+
+    /**
+     * @param idType converts the stored id back to the entity's id type (Integer or Long),
+     *               which the generated seek predicate binds as a parameter.
+     */
+    ScrollPosition position(Function<String, Object> idType) {
+        if (lastId == null) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        if (!field.equals(ID)) {
+            keys.put(field, lastValue);
+        }
+        keys.put(ID, idType.apply(lastId));
+        return ScrollPosition.forward(keys);
+    }
+
+    // The cursor pointing just past the given row, in the same sort order.
+    KeysetCursor after(ScrollPosition position) {
+        Map<String, ?> keys = ((KeysetScrollPosition) position).getKeys();
+        Object value = keys.get(field);
+        return new KeysetCursor(field, direction, String.valueOf(keys.get(ID)),
+                value != null ? value.toString() : null);
+    }
+
+    String encode() {
+        String raw = direction.name() + SEPARATOR + field + SEPARATOR + lastId + SEPARATOR
+                + (lastValue != null ? lastValue : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+
+/**
+ * Bounds on the page and size a client may ask for from the paged, cursor and
+ * search endpoints. Reading everything goes through GET /api/employees/export,
+ * which streams instead of building one large response.
+ */
+final class PageLimits {
+
+    static final int MAX_SIZE = 1000;
+
+    private PageLimits() {
+    }
+
+    static void check(int page, int size) {
+        if (page < 0) {
+            throw new InvalidRequestException("Page must be at least 0");
+        }
+        checkSize(size);
+    }
+
+    static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new InvalidRequestException("Page size must be between 1 and " + MAX_SIZE);
+        }
+    }
+}
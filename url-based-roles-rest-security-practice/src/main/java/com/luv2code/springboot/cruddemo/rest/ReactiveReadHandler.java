@@ -0,0 +1,161 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.EmployeeNotFoundException;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.ErrorResponse;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dao.ReactiveReadRepository;
+import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handlers for the read-only /api/v2 endpoints. Nothing here blocks: each response is
+ * a Flux or Mono from {@link ReactiveReadRepository} written to the client as rows
+ * arrive, so a slow reader holds a database cursor and a socket, not a thread.
+ * <p>
+ * Lists are sent as a JSON array by default, or as one JSON object per line when the
+ * client accepts application/x-ndjson. Both are streamed element by element.
+ */
+public class ReactiveReadHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveReadHandler.class);
+
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final ReactiveReadRepository repository;
+    private final int maxLimit;
+    private final long retryAfterSeconds;
+
+    public ReactiveReadHandler(ReactiveReadRepository theRepository, int theMaxLimit, long theRetryAfterSeconds) {
+        repository = theRepository;
+        maxLimit = theMaxLimit;
+        retryAfterSeconds = theRetryAfterSeconds;
+    }
+
+    // GET /employees?after=&limit= : employees ordered by id, after the given id.
+    public Mono<ServerResponse> getEmployees(ServerRequest request) {
+        return Mono.defer(() -> list(request,
+                repository.findEmployeesAfter(afterId(request), limit(request)), EmployeeResponseDTO.class));
+    }
+
+    // GET /employees/{employeeId}
+    public Mono<ServerResponse> getEmployee(ServerRequest request) {
+        return Mono.defer(() -> {
+            int employeeId = intPathVariable(request, "employeeId");
+            return repository.findEmployeeById(employeeId)
+                    .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Did not find employee id - " + employeeId)))
+                    .flatMap(employee -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(employee));
+        });
+    }
+
+    // GET /employees/department/{departmentId}?after=&limit=
+    public Mono<ServerResponse> getEmployeesByDepartment(ServerRequest request) {
+        return Mono.defer(() -> list(request,
+                repository.findEmployeesByDepartmentAfter(longPathVariable(request, "departmentId"),
+                        afterId(request), limit(request)),
+                EmployeeResponseDTO.class));
+    }
+
+    // GET /departments
+    public Mono<ServerResponse> getDepartments(ServerRequest request) {
+        return list(request, repository.findAllDepartments(), DepartmentResponseDTO.class);
+    }
+
+    // GET /departments/{departmentId}
+    public Mono<ServerResponse> getDepartment(ServerRequest request) {
+        return Mono.defer(() -> {
+            long departmentId = longPathVariable(request, "departmentId");
+            return repository.findDepartmentById(departmentId)
+                    .switchIfEmpty(Mono.error(() -> new EmployeeNotFoundException("Department not found with id " + departmentId)))
+                    .flatMap(department -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(department));
+        });
+    }
+
+    /**
+     * Turns an error raised while handling a request into an {@link ErrorResponse} body,
+     * with the same status codes the MVC exception handler uses. A connection that could
+     * not be obtained in time is reported as 503 with a Retry-After hint.
+     */
+    public Mono<ServerResponse> handleError(Throwable exc, ServerRequest request) {
+        if (exc instanceof EmployeeNotFoundException) {
+            return error(HttpStatus.NOT_FOUND, exc.getMessage());
+        }
+        if (exc instanceof InvalidRequestException) {
+            return error(HttpStatus.BAD_REQUEST, exc.getMessage());
+        }
+        if (exc instanceof DataAccessResourceFailureException) {
+            LOGGER.warn("No database connection for {}: {}", request.path(), exc.getMessage());
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ErrorResponse("The server is busy, please try again shortly.",
+                            HttpStatus.SERVICE_UNAVAILABLE.value(), System.currentTimeMillis()));
+        }
+        LOGGER.error("Unhandled exception for {}", request.path(), exc);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please contact support.");
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(message, status.value(), System.currentTimeMillis()));
+    }
+
+    // Streams the elements as NDJSON if the client asks for it, as a JSON array otherwise.
+    private static <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> body, Class<T> type) {
+        MediaType contentType = request.headers().accept().stream()
+                .anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(body, type);
+    }
+
+    private static int afterId(ServerRequest request) {
+        return request.queryParam("after")
+                .filter(after -> !after.isEmpty())
+                .map(after -> parseInt("after", after))
+                .orElse(0);
+    }
+
+    private int limit(ServerRequest request) {
+        int limit = request.queryParam("limit")
+                .map(value -> parseInt("limit", value))
+                .orElse(DEFAULT_LIMIT);
+        if (limit < 1 || limit > maxLimit) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxLimit);
+        }
+        return limit;
+    }
+
+    private static int intPathVariable(ServerRequest request, String name) {
+        return parseInt(name, request.pathVariable(name));
+    }
+
+    private static long longPathVariable(ServerRequest request, String name) {
+        String value = request.pathVariable(name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException(name + " must be a number: " + value);
+        }
+    }
+
+    private static int parseInt(String name, String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException(name + " must be a number: " + value);
+        }
+    }
+}
@@ -19,11 +19,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
 
     // Constructor injection - but we'll use @Lazy or fix the configuration
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService,
+            TokenDenylist tokenDenylist) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenDenylist = tokenDenylist;
     }
 
     @Override
@@ -42,12 +45,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Parse and verify the token once; subject and expiry come from the same result.
+        VerifiedToken token = jwtService.verify(jwt);
+        username = token.username();
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenDenylist.isRevoked(token.tokenId())) {
+            // Self-contained tokens carry their own roles; older tokens still go to the database.
+            UserDetails userDetails = jwtService.toUserDetails(token);
+            if (userDetails == null) {
+                userDetails = this.userDetailsService.loadUserByUsername(username);
+            }
+
+            if (userDetails.isEnabled() && jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -1,22 +1,38 @@
 package com.luv2code.springboot.cruddemo.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
+
+    static final String ROLES_CLAIM = "roles";
+    static final String ACTIVE_CLAIM = "active";
 
     @Value("${jwt.secret}")
     private String secretKey;
@@ -24,52 +40,157 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    // When enabled, roles and the active flag travel inside the token so requests
+    // can be authorized without loading the user from the database.
+    @Value("${jwt.claims.self-contained:false}")
+    private boolean selfContainedClaims;
+
+    // Decoded once at startup instead of on every parse.
+    private Key signInKey;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+
+    // Signature checks on cache misses; null until bound to a registry.
+    private volatile Timer validTimer;
+    private volatile Timer invalidTimer;
+
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(cacheMaxSize);
+    }
+
+    /**
+     * Verifies the token signature and returns its subject, expiry and claims.
+     * Tokens that were already verified are served from the cache until they expire.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = VerifiedTokenCache.digest(token);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException e) {
+            record(invalidTimer, start);
+            throw e;
+        }
+        record(validTimer, start);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration(), claims);
+        verifiedTokens.put(digest, verified);
+        return verified;
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (selfContainedClaims) {
+            claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .toList());
+            claims.put(ACTIVE_CLAIM, userDetails.isEnabled());
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return Jwts.builder()
                 .setClaims(extraClaims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userDetails.getUsername())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.username().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isSelfContained() {
+        return selfContainedClaims;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Rebuilds the user from the role and active claims embedded at login.
+     *
+     * @return the user, or null if self-contained claims are disabled or the
+     *         token was issued without them (the caller then falls back to the database).
+     */
+    public UserDetails toUserDetails(VerifiedToken token) {
+        if (!selfContainedClaims || !(token.claims().get(ROLES_CLAIM) instanceof List<?> roles)) {
+            return null;
+        }
+        return User.withUsername(token.username())
+                .password("")
+                .authorities(roles.stream().map(String::valueOf).toArray(String[]::new))
+                .disabled(!Boolean.TRUE.equals(token.claims().get(ACTIVE_CLAIM)))
+                .build();
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public long getCacheHits() {
+        return verifiedTokens.hits();
+    }
+
+    public long getCacheMisses() {
+        return verifiedTokens.misses();
+    }
+
+    public int getCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        validTimer = verificationTimer(registry, "valid");
+        invalidTimer = verificationTimer(registry, "invalid");
+        FunctionCounter.builder("jwt.cache.requests", this, JwtService::getCacheHits)
+                .tag("result", "hit")
+                .description("Token verifications served from the verified-token cache")
+                .register(registry);
+        FunctionCounter.builder("jwt.cache.requests", this, JwtService::getCacheMisses)
+                .tag("result", "miss")
+                .description("Token verifications that had to check the signature")
+                .register(registry);
+        Gauge.builder("jwt.cache.size", this, JwtService::getCacheSize)
+                .description("Verified tokens currently cached")
+                .register(registry);
+    }
+
+    private static Timer verificationTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("jwt.verification")
+                .tag("outcome", outcome)
+                .description("Time to parse a token and check its signature (cache misses only)")
+                .register(registry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+
+/**
+ * Stores a re-hashed password in the members table. Spring Security calls this
+ * after a successful login whenever the stored hash was produced with a lower
+ * BCrypt cost than the one currently configured.
+ */
+public class MemberPasswordService implements UserDetailsPasswordService {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MemberPasswordService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        jdbcTemplate.update("UPDATE members SET pw = ? WHERE user_id = ?", newPassword, user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+}
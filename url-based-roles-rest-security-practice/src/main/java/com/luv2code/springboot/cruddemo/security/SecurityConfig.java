@@ -1,7 +1,9 @@
 package com.luv2code.springboot.cruddemo.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -15,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.JdbcUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.sql.DataSource;
 
@@ -26,7 +30,8 @@ public class SecurityConfig {
     // We'll use @Bean method instead
 
     @Bean
-    public UserDetailsService userDetailsService(DataSource dataSource) {
+    public UserDetailsService userDetailsService(DataSource dataSource, PlatformTransactionManager transactionManager,
+            @Value("${db.replicas.enabled:false}") boolean readReplicas) {
         JdbcUserDetailsManager userDetailsManager = new JdbcUserDetailsManager(dataSource);
 
         userDetailsManager.setUsersByUsernameQuery(
@@ -34,18 +39,28 @@ public class SecurityConfig {
         userDetailsManager.setAuthoritiesByUsernameQuery(
                 "SELECT user_id, role FROM roles WHERE user_id = ?");
 
-        return userDetailsManager;
+        if (!readReplicas) {
+            return userDetailsManager;
+        }
+        // Read-only transactions are what the replica routing goes by.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return username -> readOnly.execute(status -> userDetailsManager.loadUserByUsername(username));
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter,
+            AuthenticationProvider authenticationProvider) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
                         // Public endpoints
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/public/**").permitAll()
-                        .requestMatchers("/health").permitAll()
+                        .requestMatchers("/health", "/health/**").permitAll()
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // Metrics include pool and limiter internals: the scraper authenticates as an admin
+                        .requestMatchers("/actuator/prometheus").hasRole("ADMIN")
                         .requestMatchers("/").permitAll()
 
                         // Swagger UI endpoints - make them public
@@ -61,19 +76,27 @@ public class SecurityConfig {
                         .requestMatchers("/api/employees/**").hasAnyRole("EMPLOYEE", "MANAGER", "ADMIN")
                         .requestMatchers("/api/departments/**").hasAnyRole("MANAGER", "ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // The change feed covers departments as well
+                        .requestMatchers("/api/changes").hasAnyRole("MANAGER", "ADMIN")
+                        // Reactive read-only API, same roles as the MVC endpoints
+                        .requestMatchers("/api/v2/employees/**").hasAnyRole("EMPLOYEE", "MANAGER", "ADMIN")
+                        .requestMatchers("/api/v2/departments/**").hasAnyRole("MANAGER", "ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authenticationProvider(authenticationProvider(userDetailsService(null)))
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService) {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder, JdbcTemplate jdbcTemplate) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Re-hash on login when a stored hash is weaker than the configured BCrypt cost.
+        authProvider.setUserDetailsPasswordService(new MemberPasswordService(jdbcTemplate));
         return authProvider;
     }
 
@@ -82,8 +105,16 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
+    // BCrypt runs on its own bounded pool so a login burst cannot tie up every request thread.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.strength:10}") int strength,
+            @Value("${security.bcrypt.pool-size:0}") int poolSize,
+            @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${security.bcrypt.timeout-ms:5000}") long timeoutMillis,
+            @Value("${security.bcrypt.retry-after-seconds:1}") long retryAfterSeconds) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                threads, queueCapacity, timeoutMillis, retryAfterSeconds);
     }
 }
\ No newline at end of file
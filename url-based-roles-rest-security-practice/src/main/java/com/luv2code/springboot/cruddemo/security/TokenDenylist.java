@@ -0,0 +1,116 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory list of revoked token IDs (the JWT "jti" claim), mirrored from the
+ * {@code revoked_tokens} table. Lookups read an immutable snapshot through a
+ * single volatile reference, so the authorization path never takes a lock or
+ * touches the database. A bloom filter answers the common "not revoked" case;
+ * only possible matches fall through to the exact set.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenDenylist.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(Set.of()));
+
+    public TokenDenylist(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && snapshot.get().contains(tokenId);
+    }
+
+    /**
+     * Persists the revocation and applies it locally straight away, so the
+     * token is rejected on this instance without waiting for the next refresh.
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        jdbcTemplate.update(
+                "INSERT INTO revoked_tokens (jti, expires_at) VALUES (?, ?) ON CONFLICT (jti) DO NOTHING",
+                tokenId, new Timestamp(expiresAt.getTime()));
+        snapshot.updateAndGet(current -> current.with(tokenId));
+    }
+
+    // Reloads the revocations that are still relevant; expired tokens are rejected anyway.
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at < now()");
+            List<String> ids = jdbcTemplate.queryForList(
+                    "SELECT jti FROM revoked_tokens WHERE expires_at >= now()", String.class);
+            snapshot.set(Snapshot.of(new HashSet<>(ids)));
+        } catch (DataAccessException e) {
+            // Keep serving the last known list rather than failing every request.
+            LOGGER.warn("Could not refresh revoked token list: {}", e.getMessage());
+        }
+    }
+
+    public int size() {
+        return snapshot.get().ids.size();
+    }
+
+    private static final class Snapshot {
+
+        private static final int HASHES = 3;
+
+        private final Set<String> ids;
+        private final long[] bits;
+
+        private Snapshot(Set<String> ids) {
+            this.ids = Set.copyOf(ids);
+            // Roughly 16 bits per entry keeps the false-positive rate well under 1%.
+            int bitCount = Math.max(64, Integer.highestOneBit(Math.max(1, ids.size()) * 16) << 1);
+            this.bits = new long[bitCount / 64];
+            for (String id : ids) {
+                for (int i = 0; i < HASHES; i++) {
+                    int bit = index(id, i);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+
+        static Snapshot of(Set<String> ids) {
+            return new Snapshot(ids);
+        }
+
+        Snapshot with(String id) {
+            Set<String> next = new HashSet<>(ids);
+            next.add(id);
+            return new Snapshot(next);
+        }
+
+        boolean contains(String id) {
+            for (int i = 0; i < HASHES; i++) {
+                int bit = index(id, i);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return ids.contains(id);
+        }
+
+        // Double hashing: h1 + i * h2, masked to the power-of-two table size.
+        private int index(String id, int i) {
+            int h1 = id.hashCode();
+            int h2 = Integer.rotateLeft(h1 * 0x9E3779B9, 16) | 1;
+            return (h1 + i * h2) & (bits.length * 64 - 1);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The result of a single signature check on a JWT: the subject, the expiry and
+ * the full claim set. Instances are shared through the verified-token cache, so
+ * callers must treat the claims as read-only.
+ */
+public record VerifiedToken(String username, Date expiration, Claims claims) {
+
+    // The "jti" claim, used to look the token up in the revocation list.
+    public String tokenId() {
+        return claims.getId();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
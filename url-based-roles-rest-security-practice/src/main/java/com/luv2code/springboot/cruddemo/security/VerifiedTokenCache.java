@@ -0,0 +1,100 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Bounded cache of tokens whose signature has already been checked, keyed by a
+ * SHA-256 digest of the raw token so the bearer string itself is never retained.
+ * Entries are dropped as soon as the token they describe expires; when the cache
+ * is full, Caffeine evicts the least valuable entries in amortized constant time.
+ */
+class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> entries;
+    private final int maxSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 0))
+                .expireAfter(new UntilTokenExpiry())
+                // Evict on the calling thread rather than the common pool.
+                .executor(Runnable::run)
+                .build();
+    }
+
+    // Returns the cached verification result, or null if the token has to be parsed.
+    VerifiedToken get(String digest) {
+        VerifiedToken token = entries.getIfPresent(digest);
+        if (token == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return token;
+    }
+
+    void put(String digest, VerifiedToken token) {
+        if (maxSize <= 0 || token.isExpired()) {
+            return;
+        }
+        entries.put(digest, token);
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+
+    int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to ship SHA-256.
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Each entry lives until its token's "exp" claim; tokens without one only leave by eviction.
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+            if (token.expiration() == null) {
+                return Long.MAX_VALUE;
+            }
+            long millis = token.expiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(digest, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String digest, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import com.luv2code.springboot.cruddemo.dto.CacheStatisticsDTO;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Reads Hibernate's second-level cache counters (hibernate.generate_statistics)
+ * so hit ratios can be checked under load.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final Statistics statistics;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public CacheStatisticsDTO getStatistics() {
+        List<CacheStatisticsDTO.Region> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> {
+                    CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+                    return new CacheStatisticsDTO.Region(name, region.getHitCount(), region.getMissCount(),
+                            region.getPutCount(), CacheStatisticsDTO.ratio(region.getHitCount(), region.getMissCount()));
+                })
+                .toList();
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        return new CacheStatisticsDTO(hits, misses, statistics.getSecondLevelCachePutCount(),
+                CacheStatisticsDTO.ratio(hits, misses),
+                statistics.getNaturalIdCacheHitCount(), statistics.getNaturalIdCacheMissCount(), regions);
+    }
+
+    public void clear() {
+        statistics.clear();
+    }
+}
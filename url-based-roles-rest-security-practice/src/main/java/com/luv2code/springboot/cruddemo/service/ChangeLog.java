@@ -0,0 +1,235 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.EntityType;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Append-only log of inserts, updates and deletes to employees and departments,
+ * read by the change feed and the employee event stream. Services record changes
+ * inside their transaction; the entries are written just before it commits, so a
+ * rollback leaves nothing behind, and several changes to one record in a
+ * transaction collapse into one entry. Employee entries also carry the department
+ * they are in and, when they moved, the one they came from.
+ * <p>
+ * Ids follow commit order. A writer takes its ids by incrementing the counter in
+ * {@code change_log_position}, and the row lock of that UPDATE is held until it
+ * commits, so once a reader has seen id n no smaller id can appear later. Only
+ * this last step before the commit is serialized. Listeners registered with
+ * {@link #onCommit} are told after each commit that wrote entries.
+ */
+@Component
+public class ChangeLog {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeLog.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${changes.retention-days:7}")
+    private int retentionDays;
+
+    private final List<Runnable> commitListeners = new CopyOnWriteArrayList<>();
+
+    public ChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordDepartment(long id, Operation operation) {
+        record(new Key(EntityType.DEPARTMENT, id), new Entry(operation, null, null));
+    }
+
+    // The department the employee is in after the change; for a DELETE, the one it was in.
+    public void recordEmployee(long id, Operation operation, Long departmentId) {
+        record(new Key(EntityType.EMPLOYEE, id), new Entry(operation, departmentId, null));
+    }
+
+    public void recordEmployeeMove(long id, Long fromDepartmentId, Long toDepartmentId) {
+        Long previous = Objects.equals(fromDepartmentId, toDepartmentId) ? null : fromDepartmentId;
+        record(new Key(EntityType.EMPLOYEE, id), new Entry(Operation.UPDATE, toDepartmentId, previous));
+    }
+
+    // Runs on the committing thread, so it should only hand the work off.
+    public void onCommit(Runnable listener) {
+        commitListeners.add(listener);
+    }
+
+    private void record(Key key, Entry entry) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Changes must be recorded inside a transaction");
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(key, entry);
+    }
+
+    // The id of the newest entry, where a reader that only wants what comes next starts.
+    public long lastPosition() {
+        return jdbcTemplate.queryForObject("SELECT last_id FROM change_log_position WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Up to {@code limit} changes after the given position, read with an index range
+     * scan so the cost depends on the number of changes, not on the table sizes.
+     *
+     * @throws CursorExpiredException if changes after {@code since} have been purged,
+     *                                or {@code since} is beyond the end of the log
+     */
+    public ChangeFeedDTO read(long since, int limit) {
+        List<ChangeDTO> changes = jdbcTemplate.query(
+                "SELECT id, entity_type, entity_id, operation, department_id, previous_department_id, changed_at "
+                        + "FROM change_log WHERE id > ? ORDER BY id LIMIT ?",
+                (row, rowNum) -> new ChangeDTO(row.getLong(1), EntityType.valueOf(row.getString(2)), row.getLong(3),
+                        Operation.valueOf(row.getString(4)), row.getObject(5, Long.class), row.getObject(6, Long.class),
+                        row.getTimestamp(7).toInstant()),
+                since, limit + 1);
+        // Read after the changes: a purge marks the position before deleting, so this sees it
+        // whenever the rows above might have been incomplete.
+        Map<String, Object> position = jdbcTemplate.queryForMap(
+                "SELECT last_id, purged_through FROM change_log_position WHERE id = 1");
+        if (since < ((Number) position.get("purged_through")).longValue()) {
+            throw new CursorExpiredException("Changes after " + since + " are no longer kept; read everything again");
+        }
+        if (since > ((Number) position.get("last_id")).longValue()) {
+            throw new CursorExpiredException("Unknown position " + since + "; read everything again");
+        }
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long next = changes.isEmpty() ? since : changes.get(changes.size() - 1).seq();
+        return new ChangeFeedDTO(changes, next, hasMore);
+    }
+
+    // Drops entries older than the retention period. Clients further behind than that get a 410.
+    @Scheduled(initialDelayString = "${changes.purge-ms:3600000}", fixedDelayString = "${changes.purge-ms:3600000}")
+    public void purge() {
+        try {
+            Timestamp cutoff = Timestamp.from(Instant.now().minus(Duration.ofDays(retentionDays)));
+            Long through = jdbcTemplate.queryForObject(
+                    "SELECT MAX(id) FROM change_log WHERE changed_at < ?", Long.class, cutoff);
+            if (through != null) {
+                jdbcTemplate.update("UPDATE change_log_position SET purged_through = ? "
+                        + "WHERE id = 1 AND purged_through < ?", through, through);
+                int deleted = jdbcTemplate.update("DELETE FROM change_log WHERE id <= ?", through);
+                LOGGER.info("Purged {} change log entries up to id {}", deleted, through);
+            }
+        } catch (DataAccessException e) {
+            // Try again on the next run; old entries only cost space meanwhile.
+            LOGGER.warn("Could not purge the change log: {}", e.getMessage());
+        }
+    }
+
+    private record Key(EntityType type, long id) {
+    }
+
+    private record Entry(Operation operation, Long departmentId, Long previousDepartmentId) {
+
+        // An INSERT followed by UPDATEs is still an INSERT; anything followed by a DELETE is a
+        // DELETE. The department is the latest one, the previous one where it was before the
+        // transaction.
+        Entry then(Entry next) {
+            Operation merged = operation == Operation.INSERT && next.operation == Operation.UPDATE ? operation
+                    : next.operation;
+            Long before = operation == Operation.INSERT ? null
+                    : previousDepartmentId != null ? previousDepartmentId : departmentId;
+            return new Entry(merged, next.departmentId,
+                    Objects.equals(before, next.departmentId) ? null : before);
+        }
+    }
+
+    // The changes of one transaction, written when it commits.
+    private final class Pending implements TransactionSynchronization {
+
+        private final Map<Key, Entry> entries = new LinkedHashMap<>();
+
+        void add(Key key, Entry entry) {
+            entries.merge(key, entry, Entry::then);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Flush the entity changes first: they may have to wait for other transactions'
+            // row locks, which must not happen while this one holds the position lock.
+            entityManager.flush();
+            List<Map.Entry<Key, Entry>> batch = new ArrayList<>(entries.entrySet());
+            long lastId = jdbcTemplate.queryForObject(
+                    "UPDATE change_log_position SET last_id = last_id + ? WHERE id = 1 RETURNING last_id",
+                    Long.class, batch.size());
+            long firstId = lastId - batch.size() + 1;
+            Timestamp now = Timestamp.from(Instant.now());
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO change_log (id, entity_type, entity_id, operation, department_id, "
+                            + "previous_department_id, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            Map.Entry<Key, Entry> entry = batch.get(i);
+                            statement.setLong(1, firstId + i);
+                            statement.setString(2, entry.getKey().type().name());
+                            statement.setLong(3, entry.getKey().id());
+                            statement.setString(4, entry.getValue().operation().name());
+                            statement.setObject(5, entry.getValue().departmentId(), Types.BIGINT);
+                            statement.setObject(6, entry.getValue().previousDepartmentId(), Types.BIGINT);
+                            statement.setTimestamp(7, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    });
+        }
+
+        @Override
+        public void afterCommit() {
+            for (Runnable listener : commitListeners) {
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Change log commit listener failed", e);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ChangeLog.this);
+        }
+    }
+}
@@ -1,8 +1,20 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Consumer;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import com.luv2code.springboot.cruddemo.dto.CountMode;
+import com.luv2code.springboot.cruddemo.dto.DepartmentStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentTransferResultDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
 import com.luv2code.springboot.cruddemo.entity.Department;
 import com.luv2code.springboot.cruddemo.entity.Employee;
 
@@ -10,7 +22,31 @@ public interface DepartmentService {
     Department createDepartment(Department department);
     Department getDepartmentById(Long id);
     Department getDepartmentByName(String name);
-    Page<Department> getAllDepartments(Pageable pageable);
-    Department updateDepartment(Long id, Department departmentDetails);
+    // Cached id/name reference for setting an employee's department; no query in steady state.
+    // The returned instance is unmanaged and has no headcount or employees.
+    Department getDepartmentReference(Long id);
+    Department getDepartmentReference(String name);
+    // Resolves many names at once; unknown names are simply absent from the returned map.
+    Map<String, Department> getDepartmentsByNames(Collection<String> names);
+    // A Page with an exact or estimated total, or a Slice without one (see CountMode).
+    Slice<Department> getAllDepartments(Pageable pageable, CountMode count);
+    // Only the requested fields of each department, read by a query that selects just those columns.
+    Slice<Map<String, Object>> getDepartmentFields(SparseFieldset fields, Pageable pageable, CountMode count);
+    Window<Department> getDepartmentsAfter(ScrollPosition position, Sort sort, int size);
+    // Renames a department. The precondition is given the department as loaded in the update's
+    // transaction and may throw to refuse the update; a rename committed after that load still
+    // fails the write on @Version.
+    Department updateDepartment(Long id, Department departmentDetails, Consumer<Department> precondition);
     void deleteDepartment(Long id);
+    // Moves all employees of the source department to the target in one UPDATE.
+    DepartmentTransferResultDTO reassignEmployees(Long sourceId, Long targetId);
+    // Moves all employees to the target, then deletes the source, in one transaction.
+    DepartmentTransferResultDTO mergeInto(Long sourceId, Long targetId);
+    // Adds delta to a department's stored headcount. Must be called inside the transaction
+    // that creates, deletes or moves the employees, so the counter commits (or rolls back) with them.
+    void adjustHeadcount(long departmentId, int delta);
+    // Headcount of every department, read from the stored counters.
+    DepartmentStatsDTO getDepartmentStats();
+    // Recounts the departments whose stored headcount has drifted; returns how many were corrected.
+    int reconcileHeadcounts();
 }
@@ -1,31 +1,96 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.DuplicateFormatFlagsException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.luv2code.springboot.cruddemo.ExceptionHandling.EmployeeNotFoundException;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
 import com.luv2code.springboot.cruddemo.dao.DepartmentRepository;
+import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.dao.FieldProjections;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentTransferResultDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
 import com.luv2code.springboot.cruddemo.entity.Department;
 import com.luv2code.springboot.cruddemo.entity.Employee;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 @Service
 public class DepartmentServiceImpl implements DepartmentService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DepartmentServiceImpl.class);
+
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private FieldProjections fieldProjections;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Near-cache of every department's id and name. Readers only dereference the current
+    // immutable index, so lookups never lock; writers swap in a modified copy. Null until loaded.
+    private final AtomicReference<DepartmentIndex> cache = new AtomicReference<>();
+
+    @Value("${departments.cache.warm-on-startup:true}")
+    private boolean warmCacheOnStartup;
+
     @Override
+    @Transactional
     public Department createDepartment(Department department) {
         if (departmentRepository.existsByName(department.getName())) {
             throw new DuplicateFormatFlagsException("Department with name " + department.getName() + " already exists.");
         }
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        changeLog.recordDepartment(saved.getId(), Operation.INSERT);
+        afterCommit(index -> index.with(saved.getId(), saved.getName()));
+        return saved;
     }
 
     @Override
@@ -41,25 +106,284 @@ public class DepartmentServiceImpl implements DepartmentService {
     }
 
     @Override
-    public Page<Department> getAllDepartments(Pageable pageable) {
-        return departmentRepository.findAll(pageable);
+    public Department getDepartmentReference(Long id) {
+        CachedDepartment cached = index().byId.get(id);
+        if (cached == null) {
+            // Possibly created on another instance since the last refresh.
+            cached = cacheLoaded(departmentRepository.findById(id)
+                    .orElseThrow(() -> new EmployeeNotFoundException("Department not found with id " + id)));
+        }
+        return cached.toReference();
     }
 
     @Override
-    public Department updateDepartment(Long id, Department departmentDetails) {
-        Department department = getDepartmentById(id); 
+    public Department getDepartmentReference(String name) {
+        CachedDepartment cached = index().byName.get(name);
+        if (cached == null) {
+            cached = cacheLoaded(departmentRepository.findByName(name)
+                    .orElseThrow(() -> new EmployeeNotFoundException("Department not found with name: " + name)));
+        }
+        return cached.toReference();
+    }
+
+    @Override
+    public Map<String, Department> getDepartmentsByNames(Collection<String> names) {
+        DepartmentIndex index = index();
+        Map<String, Department> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            CachedDepartment cached = index.byName.get(name);
+            if (cached != null) {
+                result.put(name, cached.toReference());
+            } else {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Department department : departmentRepository.findByNameIn(missing)) {
+                result.put(department.getName(), cacheLoaded(department).toReference());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Department> getAllDepartments(Pageable pageable, CountMode count) {
+        return switch (count) {
+            case EXACT -> departmentRepository.findAll(pageable);
+            case NONE -> departmentRepository.findSliceBy(pageable);
+            case ESTIMATE -> {
+                long estimate = departmentRepository.estimateCount();
+                yield estimate < 0
+                        ? departmentRepository.findAll(pageable)
+                        : Pages.estimated(departmentRepository.findSliceBy(pageable), estimate);
+            }
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getDepartmentFields(SparseFieldset fields, Pageable pageable, CountMode count) {
+        return Pages.read(count, pageable,
+                limit -> fieldProjections.select(Department.class, fields.paths(), null, null, pageable, limit),
+                departmentRepository::count, departmentRepository::estimateCount)
+                .map(fields::toMap);
+    }
+
+    @Override
+    public Window<Department> getDepartmentsAfter(ScrollPosition position, Sort sort, int size) {
+        return departmentRepository.findAllBy(position, sort, Limit.of(size));
+    }
+
+    @Override
+    @Transactional
+    public Department updateDepartment(Long id, Department departmentDetails, Consumer<Department> precondition) {
+        Department department = getDepartmentById(id);
+        precondition.accept(department);
         department.setName(departmentDetails.getName());
-        return departmentRepository.save(department);
+        Department saved = departmentRepository.save(department);
+        changeLog.recordDepartment(id, Operation.UPDATE);
+        afterCommit(index -> index.with(saved.getId(), saved.getName()));
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteDepartment(Long id) {
         Department department = getDepartmentById(id);
 
-        if(!department.getEmployees().isEmpty()){
+        // An EXISTS query instead of loading the whole employees collection.
+        if (employeeRepository.existsByDepartmentId(id)) {
             throw new RuntimeException("Cannot delete department with existing employees. Reassign employees first.");
         }
         departmentRepository.delete(department);
+        changeLog.recordDepartment(id, Operation.DELETE);
+        afterCommit(index -> index.without(id));
+    }
+
+    @Override
+    @Transactional
+    public DepartmentTransferResultDTO reassignEmployees(Long sourceId, Long targetId) {
+        int moved = transfer(sourceId, targetId);
+        return new DepartmentTransferResultDTO(sourceId, targetId, moved, false);
+    }
+
+    @Override
+    @Transactional
+    public DepartmentTransferResultDTO mergeInto(Long sourceId, Long targetId) {
+        int moved = transfer(sourceId, targetId);
+        // The source is empty now, and the UPDATE cleared the persistence context,
+        // so this reloads it without its former employees.
+        departmentRepository.deleteById(sourceId);
+        changeLog.recordDepartment(sourceId, Operation.DELETE);
+        afterCommit(index -> index.without(sourceId));
+        return new DepartmentTransferResultDTO(sourceId, targetId, moved, true);
+    }
+
+    private int transfer(Long sourceId, Long targetId) {
+        if (sourceId.equals(targetId)) {
+            throw new InvalidRequestException("Source and target department must be different");
+        }
+        Department source = getDepartmentReference(sourceId);
+        Department target = getDepartmentReference(targetId);
+        // The moved employees go into the change log. Locking the source first keeps anyone from
+        // adding an employee to it between reading their ids and moving them.
+        departmentRepository.lockById(sourceId);
+        for (Integer employeeId : employeeRepository.findIdsByDepartmentId(sourceId)) {
+            changeLog.recordEmployeeMove(employeeId, sourceId, targetId);
+        }
+        int moved = employeeRepository.reassignDepartment(source, target);
+        adjustHeadcount(sourceId, -moved);
+        adjustHeadcount(targetId, moved);
+        employeeSearchIndex.reassignDepartment(sourceId, targetId);
+        return moved;
     }
 
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustHeadcount(long departmentId, int delta) {
+        if (delta != 0) {
+            departmentRepository.adjustHeadcount(departmentId, delta);
+            changeLog.recordDepartment(departmentId, Operation.UPDATE);
+            evictAfterCommit(departmentId);
+        }
+    }
+
+    @Override
+    public DepartmentStatsDTO getDepartmentStats() {
+        List<DepartmentResponseDTO> departments = departmentRepository
+                .findAll(Sort.by(Sort.Direction.DESC, "headcount").and(Sort.by("name")))
+                .stream()
+                .map(DepartmentResponseDTO::new)
+                .toList();
+        long totalEmployees = departments.stream().mapToLong(DepartmentResponseDTO::headcount).sum();
+        return new DepartmentStatsDTO(departments.size(), totalEmployees, departments);
+    }
+
+    @Override
+    @Transactional
+    public int reconcileHeadcounts() {
+        List<Object[]> drift = departmentRepository.findHeadcountDrift();
+        for (Object[] row : drift) {
+            long id = ((Number) row[0]).longValue();
+            LOGGER.warn("Department {} headcount drifted: stored {}, actual {}; repairing", id, row[1], row[2]);
+            // Recount under the row lock: employee changes for this department update the same row,
+            // so none can commit between the count and the write.
+            departmentRepository.lockById(id);
+            departmentRepository.recountHeadcount(id);
+            changeLog.recordDepartment(id, Operation.UPDATE);
+        }
+        return drift.size();
+    }
+
+    // --- Department near-cache ---
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmCache() {
+        if (warmCacheOnStartup) {
+            refreshCache();
+        }
+    }
+
+    // Full reload; also picks up changes made by other instances or directly in the database.
+    @Scheduled(initialDelayString = "${departments.cache.refresh-ms:60000}",
+            fixedDelayString = "${departments.cache.refresh-ms:60000}")
+    public void refreshCache() {
+        try {
+            cache.set(DepartmentIndex.of(departmentRepository.findAll()));
+        } catch (DataAccessException e) {
+            // Keep serving the current index; misses still fall through to the database.
+            LOGGER.warn("Could not refresh the department cache: {}", e.getMessage());
+        }
+    }
+
+    private DepartmentIndex index() {
+        DepartmentIndex index = cache.get();
+        if (index == null) {
+            index = DepartmentIndex.of(departmentRepository.findAll());
+            cache.compareAndSet(null, index);
+        }
+        return index;
+    }
+
+    private CachedDepartment cacheLoaded(Department department) {
+        cache.updateAndGet(index -> index == null ? null : index.with(department.getId(), department.getName()));
+        return new CachedDepartment(department.getId(), department.getName());
+    }
+
+    // Applies a change to the cache once the surrounding transaction (if any) has committed,
+    // so readers never see a department that could still be rolled back.
+    private void afterCommit(UnaryOperator<DepartmentIndex> change) {
+        Runnable apply = () -> cache.updateAndGet(index -> index == null ? null : change.apply(index));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // Drops one department from the second-level cache once its new headcount is committed;
+    // the other cached departments stay.
+    private void evictAfterCommit(long departmentId) {
+        Runnable evict = () -> entityManager.getEntityManagerFactory().getCache().evict(Department.class, departmentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+
+    private record CachedDepartment(long id, String name) {
+
+        // A fresh, unmanaged instance each time, so callers cannot change the cached entry.
+        // Carries only id and name, which is all an employee's foreign key needs.
+        Department toReference() {
+            return new Department(id, name, new ArrayList<>());
+        }
+    }
+
+    private static final class DepartmentIndex {
+
+        final Map<Long, CachedDepartment> byId;
+        final Map<String, CachedDepartment> byName;
+
+        private DepartmentIndex(Map<Long, CachedDepartment> byId) {
+            this.byId = Map.copyOf(byId);
+            this.byName = byId.values().stream()
+                    .collect(Collectors.toUnmodifiableMap(CachedDepartment::name, Function.identity()));
+        }
+
+        static DepartmentIndex of(List<Department> departments) {
+            Map<Long, CachedDepartment> byId = new HashMap<>();
+            for (Department department : departments) {
+                byId.put(department.getId(), new CachedDepartment(department.getId(), department.getName()));
+            }
+            return new DepartmentIndex(byId);
+        }
+
+        DepartmentIndex with(long id, String name) {
+            Map<Long, CachedDepartment> copy = new HashMap<>(byId);
+            // Names are unique: drop a stale entry that still holds this name (renamed elsewhere).
+            copy.values().removeIf(cached -> cached.name().equals(name));
+            copy.put(id, new CachedDepartment(id, name));
+            return new DepartmentIndex(copy);
+        }
+
+        DepartmentIndex without(long id) {
+            Map<Long, CachedDepartment> copy = new HashMap<>(byId);
+            copy.remove(id);
+            return new DepartmentIndex(copy);
+        }
+    }
 }
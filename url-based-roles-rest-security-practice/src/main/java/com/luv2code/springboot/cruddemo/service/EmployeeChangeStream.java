@@ -0,0 +1,556 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.EntityType;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeChangeEventDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Pushes committed employee changes to server-sent event subscribers
+ * (GET /api/employees/stream). The {@link ChangeLog} is the source: a single pump
+ * thread reads each new batch once, loads the changed employees once and hands the
+ * same encoded events to every subscriber, so the database work does not grow with
+ * the number of subscribers. Local commits wake the pump; while anyone is
+ * subscribed it also polls, which picks up changes committed by other instances.
+ * <p>
+ * An idle subscriber is an emitter and an empty queue; no thread waits on it. Its
+ * events go into a bounded buffer that a sender thread drains while it has
+ * something in it. A subscriber whose buffer fills up is disconnected instead of
+ * holding up the others or piling up events in memory, and resumes from its
+ * Last-Event-ID like after any other disconnect. Subscribers that resume behind the
+ * pump are caught up from the log, one read per distinct position.
+ * <p>
+ * The same goes for a subscriber whose socket stops draining in the middle of a
+ * write: once the write has taken longer than employees.stream.send-timeout-ms it is
+ * disconnected, and the sender pool gets an extra thread until the stuck write
+ * returns, so stalled clients never hold the threads the others are served by.
+ */
+@Component
+public class EmployeeChangeStream implements MeterBinder, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeChangeStream.class);
+
+    // SSE comments keep proxies from closing idle connections; clients ignore them.
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final ChangeLog changeLog;
+
+    private final EmployeeService employeeService;
+
+    private final ObjectMapper objectMapper;
+
+    // Read-write, so the changed employees are read from the primary. A replica may not have
+    // applied changes the log already shows, and the pump has no user to get the
+    // read-your-writes window.
+    private final TransactionTemplate primaryRead;
+
+    @Value("${employees.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${employees.stream.batch-size:200}")
+    private int batchSize;
+
+    @Value("${employees.stream.timeout-ms:3600000}")
+    private long timeoutMillis;
+
+    @Value("${employees.stream.retry-ms:3000}")
+    private long retryMillis;
+
+    @Value("${employees.stream.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    // Reads the log and fans out; one thread, so position and the cursors need no locking.
+    private Executor pump = Executors.newSingleThreadExecutor(namedThreads("employee-stream"));
+
+    // Writes to the clients. A write to a slow client blocks until its socket drains.
+    private Executor sender;
+
+    private final int senderThreads;
+
+    // Writes past their deadline that have not returned yet, each holding a sender thread.
+    private final AtomicInteger stalledSends = new AtomicInteger();
+
+    private final AtomicBoolean pumpScheduled = new AtomicBoolean();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder dropped = new LongAdder();
+
+    // The last change log id the live subscribers have been given.
+    private long position;
+
+    public EmployeeChangeStream(ChangeLog changeLog, EmployeeService employeeService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager, Environment environment,
+            @Value("${employees.stream.sender-threads:8}") int senderThreads) {
+        this.changeLog = changeLog;
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.primaryRead = new TransactionTemplate(transactionManager);
+        this.senderThreads = senderThreads;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtualThreads = new SimpleAsyncTaskExecutor("employee-stream-send-");
+            virtualThreads.setVirtualThreads(true);
+            sender = virtualThreads;
+        } else {
+            sender = Executors.newFixedThreadPool(senderThreads, namedThreads("employee-stream-send"));
+        }
+        changeLog.onCommit(() -> {
+            if (!subscribers.isEmpty()) {
+                wake();
+            }
+        });
+    }
+
+    /**
+     * Opens a stream of employee changes.
+     *
+     * @param departmentId Only changes to employees in, or moving out of, this department; null for all.
+     * @param lastEventId  The id of the last event received, to resume after it; null to start now.
+     * @throws CursorExpiredException if the changes after {@code lastEventId} are no longer kept
+     */
+    public SseEmitter subscribe(Long departmentId, Long lastEventId) {
+        if (lastEventId != null) {
+            // Refuse a position that is gone now, while the client can still get a 410.
+            changeLog.read(lastEventId, 1);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, departmentId, lastEventId != null ? lastEventId : -1);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.offer(SseEmitter.event().reconnectTime(retryMillis).comment("connected").build());
+        pump.execute(() -> register(subscriber));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${employees.stream.poll-ms:1000}")
+    public void poll() {
+        if (!subscribers.isEmpty()) {
+            wake();
+        }
+    }
+
+    @Scheduled(fixedRateString = "${employees.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${employees.stream.send-check-ms:1000}")
+    public void checkSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.checkSend(now);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getStalledSendCount() {
+        return stalledSends.get();
+    }
+
+    // Keeps senderThreads threads for the healthy subscribers however many writes are stuck.
+    private synchronized void resizeSenders() {
+        if (sender instanceof ThreadPoolExecutor pool) {
+            int size = senderThreads + stalledSends.get();
+            if (size > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(size);
+                pool.setCorePoolSize(size);
+            } else {
+                pool.setCorePoolSize(size);
+                pool.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        try {
+            if (subscribers.isEmpty()) {
+                // The pump stops following the log while nobody listens.
+                position = changeLog.lastPosition();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read the change log position: {}", e.getMessage());
+            subscriber.close();
+            return;
+        }
+        if (subscriber.cursor < 0) {
+            subscriber.cursor = position;
+        }
+        subscribers.add(subscriber);
+        if (subscriber.cursor < position) {
+            wake();
+        }
+    }
+
+    private void wake() {
+        if (pumpScheduled.compareAndSet(false, true)) {
+            try {
+                pump.execute(this::pumpOnce);
+            } catch (RejectedExecutionException e) {
+                // Shutting down.
+            }
+        }
+    }
+
+    private void pumpOnce() {
+        pumpScheduled.set(false);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        try {
+            boolean more = publish();
+            if (catchUp() || more) {
+                wake();
+            }
+        } catch (RuntimeException e) {
+            // The next poll tries again.
+            LOGGER.warn("Could not stream employee changes: {}", e.getMessage());
+        }
+    }
+
+    // The new changes, to every subscriber that is up to date.
+    private boolean publish() {
+        ChangeFeedDTO batch;
+        try {
+            batch = changeLog.read(position, batchSize);
+        } catch (CursorExpiredException e) {
+            // The log was purged or reset under the pump; everyone reconnects and finds out.
+            LOGGER.warn("Employee stream position {} is gone: {}", position, e.getMessage());
+            position = changeLog.lastPosition();
+            subscribers.forEach(Subscriber::close);
+            return false;
+        }
+        if (batch.changes().isEmpty()) {
+            return false;
+        }
+        List<Event> events = encode(batch.changes());
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cursor >= position) {
+                subscriber.send(events, batch.next());
+            }
+        }
+        position = batch.next();
+        return batch.hasMore();
+    }
+
+    // Moves subscribers that resumed from an earlier position towards the pump's.
+    private boolean catchUp() {
+        Map<Long, List<Subscriber>> behind = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.cursor < position) {
+                behind.computeIfAbsent(subscriber.cursor, cursor -> new ArrayList<>()).add(subscriber);
+            }
+        }
+        boolean more = false;
+        for (Map.Entry<Long, List<Subscriber>> group : behind.entrySet()) {
+            ChangeFeedDTO batch;
+            try {
+                batch = changeLog.read(group.getKey(), batchSize);
+            } catch (CursorExpiredException e) {
+                group.getValue().forEach(Subscriber::close);
+                continue;
+            }
+            // Up to the pump's position; after that they get the shared batches.
+            List<ChangeDTO> changes = batch.changes().stream().filter(change -> change.seq() <= position).toList();
+            long next = batch.hasMore() ? Math.min(batch.next(), position) : position;
+            List<Event> events = encode(changes);
+            for (Subscriber subscriber : group.getValue()) {
+                subscriber.send(events, next);
+                more |= subscriber.cursor < position;
+            }
+        }
+        return more;
+    }
+
+    // Each event is serialized once, whatever the number of subscribers.
+    private List<Event> encode(List<ChangeDTO> changes) {
+        List<ChangeDTO> employeeChanges = changes.stream()
+                .filter(change -> change.type() == EntityType.EMPLOYEE)
+                .toList();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (ChangeDTO change : employeeChanges) {
+            if (change.operation() != Operation.DELETE) {
+                ids.add((int) change.id());
+            }
+        }
+        Map<Long, EmployeeResponseDTO> employees = new HashMap<>();
+        if (!ids.isEmpty()) {
+            List<EmployeeResponseDTO> loaded = primaryRead.execute(
+                    status -> employeeService.getEmployeesByIds(new ArrayList<>(ids)));
+            for (EmployeeResponseDTO employee : loaded) {
+                employees.put((long) employee.id(), employee);
+            }
+        }
+        List<Event> events = new ArrayList<>(employeeChanges.size());
+        for (ChangeDTO change : employeeChanges) {
+            EmployeeChangeEventDTO data = new EmployeeChangeEventDTO(change.id(), change.operation(),
+                    change.departmentId(), change.previousDepartmentId(),
+                    change.operation() == Operation.DELETE ? null : employees.get(change.id()), change.changedAt());
+            Set<DataWithMediaType> frame = SseEmitter.event()
+                    .id(Long.toString(change.seq()))
+                    .name(eventName(change.operation()))
+                    .data(json(data))
+                    .build();
+            events.add(new Event(change.seq(), change.departmentId(), change.previousDepartmentId(), frame));
+        }
+        return events;
+    }
+
+    private static String eventName(Operation operation) {
+        return switch (operation) {
+            case INSERT -> "create";
+            case UPDATE -> "update";
+            case DELETE -> "delete";
+        };
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value, e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("employees.stream.subscribers", this, EmployeeChangeStream::getSubscriberCount)
+                .description("Open employee change streams")
+                .register(registry);
+        FunctionCounter.builder("employees.stream.dropped", this, EmployeeChangeStream::getDroppedCount)
+                .description("Subscribers disconnected because their buffer was full or a write stalled")
+                .register(registry);
+        Gauge.builder("employees.stream.stalled-sends", this, EmployeeChangeStream::getStalledSendCount)
+                .description("Writes to disconnected subscribers that have not returned yet")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (pump instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+        subscribers.forEach(Subscriber::close);
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private record Event(long seq, Long departmentId, Long previousDepartmentId, Set<DataWithMediaType> frame) {
+
+        boolean matches(Long filter) {
+            return filter == null || filter.equals(departmentId) || filter.equals(previousDepartmentId);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Long departmentId;
+
+        private final BlockingQueue<Set<DataWithMediaType>> buffer = new ArrayBlockingQueue<>(bufferSize);
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        // Whether a write is in progress and since when (System.nanoTime()); guarded by this.
+        private boolean sending;
+
+        private long sendStarted;
+
+        // Whether the write in progress has been given up on and counted in stalledSends.
+        private boolean stalled;
+
+        // Set when the subscriber is closed during a write: the writer then completes the
+        // emitter, which is locked for as long as the write takes.
+        private boolean completeAfterSend;
+
+        // The last change log id handled for this subscriber; only used on the pump thread.
+        private long cursor;
+
+        Subscriber(SseEmitter emitter, Long departmentId, long cursor) {
+            this.emitter = emitter;
+            this.departmentId = departmentId;
+            this.cursor = cursor;
+        }
+
+        void send(List<Event> events, long next) {
+            for (Event event : events) {
+                if (event.seq() > cursor && event.matches(departmentId) && !offer(event.frame())) {
+                    return;
+                }
+            }
+            cursor = Math.max(cursor, next);
+        }
+
+        boolean offer(Set<DataWithMediaType> frame) {
+            if (closed) {
+                return false;
+            }
+            if (!buffer.offer(frame)) {
+                dropped.increment();
+                LOGGER.debug("Disconnecting a slow employee stream subscriber");
+                close();
+                return false;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    close();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void drain() {
+            try {
+                do {
+                    Set<DataWithMediaType> frame;
+                    while ((frame = buffer.poll()) != null) {
+                        if (!write(frame)) {
+                            return;
+                        }
+                    }
+                    draining.set(false);
+                    // Something offered after the last poll but before the flag was cleared.
+                } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the stream was completed.
+                close();
+            }
+        }
+
+        // Sends one frame; false if the subscriber was disconnected while it was written.
+        private boolean write(Set<DataWithMediaType> frame) throws IOException {
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                sending = true;
+                sendStarted = System.nanoTime();
+            }
+            boolean complete;
+            try {
+                emitter.send(frame);
+            } finally {
+                synchronized (this) {
+                    sending = false;
+                    if (stalled) {
+                        stalled = false;
+                        stalledSends.decrementAndGet();
+                        resizeSenders();
+                    }
+                    complete = completeAfterSend;
+                }
+            }
+            if (complete) {
+                emitter.complete();
+            }
+            return !closed;
+        }
+
+        synchronized void checkSend(long now) {
+            if (sending && !stalled && now - sendStarted > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis)) {
+                stalled = true;
+                stalledSends.incrementAndGet();
+                resizeSenders();
+                dropped.increment();
+                LOGGER.debug("Disconnecting an employee stream subscriber whose write has stalled");
+                close();
+            }
+        }
+
+        // Never waits for a write in progress, so a stuck client cannot hold up the pump or shutdown.
+        void close() {
+            if (!detach()) {
+                return;
+            }
+            synchronized (this) {
+                if (sending) {
+                    completeAfterSend = true;
+                    return;
+                }
+            }
+            // No write can start now that the subscriber is closed.
+            emitter.complete();
+        }
+
+        // Stops sending to this subscriber; false if it was already stopped.
+        private boolean detach() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            subscribers.remove(this);
+            buffer.clear();
+            return true;
+        }
+    }
+}
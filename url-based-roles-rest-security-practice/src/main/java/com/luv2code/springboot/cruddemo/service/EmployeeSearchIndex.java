@@ -0,0 +1,595 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+/**
+ * In-memory search index over employee first name, last name and email.
+ * <p>
+ * Every value is lower-cased and stripped of accents, then indexed by each of its
+ * trigrams (for substring matches) and by its one- and two-character prefixes (for
+ * short queries). Postings are sorted int arrays of document slots, so the index
+ * holds no boxed values per employee. A query intersects the posting lists of all
+ * its grams, shortest first, and checks the remaining candidates against the terms,
+ * so the work done depends on the number of matches rather than of employees.
+ * <p>
+ * The index is loaded at startup, kept current by the employee and department
+ * services after their transactions commit, and fully reloaded on a schedule to
+ * pick up changes made elsewhere.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    // Gram length used for substring matching; shorter terms match prefixes only.
+    private static final int GRAM = 3;
+    // Scores per term: the whole field, a prefix of it, or anywhere inside it.
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int SUBSTRING = 1;
+    static final int MAX_TERMS = 8;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${employees.search.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    // Searches share the read lock; index changes take the write lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Serializes reloads. A lock rather than synchronized, which would pin a virtual thread's
+    // carrier for the whole database read.
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    // Null until the first load. Replaced as a whole by reloads and compaction.
+    private volatile Index index;
+
+    // Changes committed while a reload is reading the table, replayed onto the new index.
+    // Non-null only during a reload.
+    private List<Consumer<Index>> pendingDuringReload;
+
+    /** One search hit, enough to build an EmployeeResponseDTO. */
+    public record Hit(int id, String firstName, String email, long departmentId) {
+    }
+
+    /** The requested window of hits, ranked, and how many employees matched in total. */
+    public record Result(List<Hit> hits, int total) {
+
+        static final Result EMPTY = new Result(List.of(), 0);
+    }
+
+    // Field values captured when a change is registered, so later changes to the entity don't leak in.
+    private record Document(int id, String firstName, String lastName, String email, long departmentId) {
+
+        static Document of(Employee employee) {
+            return new Document(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(),
+                    employee.getDepartment() != null ? employee.getDepartment().getId() : 0);
+        }
+    }
+
+    /**
+     * Finds employees whose first name, last name or email contain every whitespace-separated
+     * term of the query (terms shorter than three characters must be a prefix). Results are
+     * ranked by how closely the terms match, ties in index order.
+     */
+    public Result search(String query, int offset, int limit) {
+        String[] terms = terms(query);
+        if (terms.length == 0) {
+            throw new InvalidRequestException("Search query must not be empty");
+        }
+        if (terms.length > MAX_TERMS) {
+            throw new InvalidRequestException("Search query may contain at most " + MAX_TERMS + " terms");
+        }
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("offset must be at least 0 and limit at least 1");
+        }
+        if (index == null) {
+            loadIfMissing();
+        }
+        lock.readLock().lock();
+        try {
+            return index != null ? index.search(terms, offset, limit) : Result.EMPTY;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Employee employee) {
+        Document document = Document.of(employee);
+        afterCommit(index -> index.put(document));
+    }
+
+    public void putAll(Collection<Employee> employees) {
+        List<Document> documents = employees.stream().map(Document::of).toList();
+        afterCommit(index -> documents.forEach(index::put));
+    }
+
+    public void remove(int employeeId) {
+        afterCommit(index -> index.remove(employeeId));
+    }
+
+    // Mirrors a bulk move of all employees from one department to another.
+    public void reassignDepartment(long sourceId, long targetId) {
+        afterCommit(index -> index.reassignDepartment(sourceId, targetId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (buildOnStartup) {
+            reload();
+        }
+    }
+
+    // Full reload; also picks up changes made by other instances or directly in the database.
+    @Scheduled(initialDelayString = "${employees.search.rebuild-ms:600000}",
+            fixedDelayString = "${employees.search.rebuild-ms:600000}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            reloadLocked();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadLocked() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Index fresh = null;
+        try {
+            long start = System.nanoTime();
+            fresh = load();
+            LOGGER.info("Indexed {} employees for search in {} ms", fresh.live,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            // Keep serving the current index.
+            LOGGER.warn("Could not reload the employee search index: {}", e.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    for (Consumer<Index> change : pendingDuringReload) {
+                        change.accept(fresh);
+                    }
+                    index = fresh;
+                }
+                pendingDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void loadIfMissing() {
+        reloadLock.lock();
+        try {
+            if (index == null) {
+                reloadLocked();
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Streams the searchable columns through a cursor; no entities are loaded.
+    private Index load() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> {
+            Index fresh = new Index();
+            try (Stream<Object[]> rows = employeeRepository.streamSearchFields()) {
+                rows.forEach(row -> fresh.put(new Document((Integer) row[0], (String) row[1], (String) row[2],
+                        (String) row[3], row[4] != null ? ((Number) row[4]).longValue() : 0)));
+            }
+            fresh.trimToSize();
+            return fresh;
+        });
+    }
+
+    // Applies a change once the surrounding transaction (if any) has committed,
+    // so searches never return an employee that could still be rolled back.
+    private void afterCommit(Consumer<Index> change) {
+        Runnable apply = () -> {
+            lock.writeLock().lock();
+            try {
+                if (index != null) {
+                    change.accept(index);
+                    if (index.needsCompaction()) {
+                        index = index.compacted();
+                    }
+                }
+                if (pendingDuringReload != null) {
+                    pendingDuringReload.add(change);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    static String[] terms(String query) {
+        String normalized = normalize(query);
+        return normalized.isEmpty() ? new String[0] : normalized.split("\\s+");
+    }
+
+    // Lower-case without accents, so "José" is found by "jose".
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.trim();
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                text = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    // Packs up to three chars and the length into one long, so grams of different lengths never collide.
+    private static long gram(String value, int from, int length) {
+        long key = length;
+        for (int i = from; i < from + length; i++) {
+            key = (key << 16) | value.charAt(i);
+        }
+        return key;
+    }
+
+    /**
+     * The index proper. Each employee occupies a slot; a changed employee is deleted from its
+     * old slot and appended to a new one, so slots (and therefore every posting list) only grow
+     * in ascending order. Deleted slots are skipped by searches and dropped by compaction.
+     * Not thread-safe: guarded by the enclosing component's lock.
+     */
+    private static final class Index {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private String[] firstNames = new String[INITIAL_CAPACITY];
+        private String[] emails = new String[INITIAL_CAPACITY];
+        private long[] departmentIds = new long[INITIAL_CAPACITY];
+        // Normalized first name, last name and email per slot; null once the slot is deleted.
+        private String[][] fields = new String[INITIAL_CAPACITY][];
+        private int slots;
+        private int live;
+
+        private final IdToSlot slotById = new IdToSlot();
+        private final Map<Long, Postings> postings = new HashMap<>();
+
+        void put(Document document) {
+            String[] normalized = {
+                    normalize(document.firstName()), normalize(document.lastName()), normalize(document.email()) };
+            int slot = slotById.get(document.id());
+            if (slot >= 0) {
+                if (Arrays.equals(normalized, fields[slot])) {
+                    // Nothing searchable changed (e.g. a department move): update in place.
+                    firstNames[slot] = document.firstName();
+                    emails[slot] = document.email();
+                    departmentIds[slot] = document.departmentId();
+                    return;
+                }
+                delete(slot);
+            }
+            append(document.id(), document.firstName(), document.email(), document.departmentId(), normalized);
+        }
+
+        void remove(int id) {
+            int slot = slotById.get(id);
+            if (slot >= 0) {
+                delete(slot);
+                slotById.put(id, -1);
+            }
+        }
+
+        void reassignDepartment(long sourceId, long targetId) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (departmentIds[slot] == sourceId) {
+                    departmentIds[slot] = targetId;
+                }
+            }
+        }
+
+        boolean needsCompaction() {
+            int deleted = slots - live;
+            return deleted > INITIAL_CAPACITY && deleted > live;
+        }
+
+        Index compacted() {
+            Index compacted = new Index();
+            for (int slot = 0; slot < slots; slot++) {
+                if (fields[slot] != null) {
+                    compacted.append(ids[slot], firstNames[slot], emails[slot], departmentIds[slot], fields[slot]);
+                }
+            }
+            compacted.trimToSize();
+            return compacted;
+        }
+
+        // Drops the spare capacity left by growing the posting lists during a full load.
+        void trimToSize() {
+            postings.values().forEach(Postings::trimToSize);
+        }
+
+        private void append(int id, String firstName, String email, long departmentId, String[] normalized) {
+            if (slots == ids.length) {
+                int capacity = slots * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                firstNames = Arrays.copyOf(firstNames, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+                departmentIds = Arrays.copyOf(departmentIds, capacity);
+                fields = Arrays.copyOf(fields, capacity);
+            }
+            int slot = slots++;
+            ids[slot] = id;
+            // Emails are usually stored lower-case already: keep one copy of the string.
+            firstNames[slot] = normalized[0].equals(firstName) ? normalized[0] : firstName;
+            emails[slot] = normalized[2].equals(email) ? normalized[2] : email;
+            departmentIds[slot] = departmentId;
+            fields[slot] = normalized;
+            slotById.put(id, slot);
+            live++;
+
+            for (String value : normalized) {
+                for (int length = 1; length < GRAM && length <= value.length(); length++) {
+                    postings.computeIfAbsent(gram(value, 0, length), key -> new Postings()).add(slot);
+                }
+                for (int i = 0; i + GRAM <= value.length(); i++) {
+                    postings.computeIfAbsent(gram(value, i, GRAM), key -> new Postings()).add(slot);
+                }
+            }
+        }
+
+        private void delete(int slot) {
+            fields[slot] = null;
+            firstNames[slot] = null;
+            emails[slot] = null;
+            live--;
+        }
+
+        Result search(String[] terms, int offset, int limit) {
+            List<Postings> lists = new ArrayList<>();
+            for (String term : terms) {
+                int grams = term.length() < GRAM ? 1 : term.length() - GRAM + 1;
+                for (int i = 0; i < grams; i++) {
+                    Postings list = postings.get(
+                            term.length() < GRAM ? gram(term, 0, term.length()) : gram(term, i, GRAM));
+                    if (list == null) {
+                        return Result.EMPTY;
+                    }
+                    lists.add(list);
+                }
+            }
+
+            // Candidates hold every gram of every term: intersect the lists, shortest first.
+            lists.sort((a, b) -> Integer.compare(a.size, b.size));
+            int[] candidates = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+            int count = candidates.length;
+            for (int i = 1; i < lists.size() && count > 0; i++) {
+                count = lists.get(i).retainAll(candidates, count);
+            }
+
+            // Confirm each candidate (grams may come from different fields or positions) and
+            // score it, counting how many fall on each score.
+            int maxScore = EXACT * terms.length;
+            int[] matches = new int[count];
+            byte[] scores = new byte[count];
+            int[] perScore = new int[maxScore + 1];
+            int total = 0;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates[i];
+                int score = score(fields[slot], terms);
+                if (score > 0) {
+                    matches[total] = slot;
+                    scores[total] = (byte) score;
+                    perScore[score]++;
+                    total++;
+                }
+            }
+
+            if (offset >= total) {
+                return new Result(List.of(), total);
+            }
+
+            // Rank by score without sorting: each score's run starts after all higher scores,
+            // and only the requested window is materialized.
+            int[] position = new int[maxScore + 1];
+            for (int score = maxScore, start = 0; score > 0; score--) {
+                position[score] = start;
+                start += perScore[score];
+            }
+            int end = (int) Math.min((long) offset + limit, total);
+            Hit[] window = new Hit[Math.max(0, end - offset)];
+            for (int i = 0; i < total; i++) {
+                int rank = position[scores[i]]++;
+                if (rank >= offset && rank < end) {
+                    int slot = matches[i];
+                    window[rank - offset] = new Hit(ids[slot], firstNames[slot], emails[slot], departmentIds[slot]);
+                }
+            }
+            return new Result(List.of(window), total);
+        }
+
+        // Sum of each term's best match over the fields, or 0 if any term matches none.
+        private static int score(String[] values, String[] terms) {
+            if (values == null) {
+                return 0;
+            }
+            int total = 0;
+            for (String term : terms) {
+                int best = 0;
+                for (String value : values) {
+                    if (value.equals(term)) {
+                        best = EXACT;
+                        break;
+                    } else if (value.startsWith(term)) {
+                        best = Math.max(best, PREFIX);
+                    } else if (best == 0 && term.length() >= GRAM && value.contains(term)) {
+                        best = SUBSTRING;
+                    }
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                total += best;
+            }
+            return total;
+        }
+    }
+
+    // Ascending slot numbers for one gram.
+    private static final class Postings {
+
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            // A value may contain the same gram twice; slots arrive in ascending order.
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, Math.max(4, size * 2));
+            }
+            slots[size++] = slot;
+        }
+
+        void trimToSize() {
+            if (slots.length > size) {
+                slots = Arrays.copyOf(slots, size);
+            }
+        }
+
+        // Keeps the first count candidates (ascending) that are also in this list, compacting
+        // them to the front, and returns how many remain. Each lookup gallops forward from the
+        // previous position, so a short candidate array costs little against a long list.
+        int retainAll(int[] candidates, int count) {
+            int kept = 0;
+            int from = 0;
+            for (int i = 0; i < count && from < size; i++) {
+                int target = candidates[i];
+                int step = 1;
+                int to = from;
+                while (to < size && slots[to] < target) {
+                    from = to + 1;
+                    to += step;
+                    step <<= 1;
+                }
+                int found = Arrays.binarySearch(slots, from, Math.min(to + 1, size), target);
+                if (found >= 0) {
+                    candidates[kept++] = target;
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return kept;
+        }
+    }
+
+    // Open-addressing map from employee id to slot, avoiding an Integer pair per employee.
+    // Employee ids start at 1, so 0 marks an empty bucket; removed ids map to -1.
+    private static final class IdToSlot {
+
+        private static final int INITIAL_BUCKETS = 2048;
+
+        private int[] keys = new int[INITIAL_BUCKETS];
+        private int[] values = new int[INITIAL_BUCKETS];
+        private int size;
+
+        int get(int id) {
+            int mask = keys.length - 1;
+            for (int i = bucket(id, mask); keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(int id, int slot) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int i = bucket(id, mask);
+            while (keys[i] != 0 && keys[i] != id) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) {
+                keys[i] = id;
+                size++;
+            }
+            values[i] = slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int bucket(int id, int mask) {
+            int hash = id * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO;
+import com.luv2code.springboot.cruddemo.dto.BulkImportResultDTO;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.CreateEmployeeRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeBatchUpdateDTO;
 import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
+import com.luv2code.springboot.cruddemo.dto.Versioned;
 import com.luv2code.springboot.cruddemo.entity.Employee;
 
 // This interface defines the contract for the Employee Service layer.
@@ -15,7 +28,10 @@ public interface EmployeeService {
 
     // Fetches a paginated list of all employees from the database.
     // Pageable object contains pagination and sorting information (page number, size, sort criteria).
-    Page<Employee> getAllEmployees(Pageable pageable);
+    // Rows are projected straight into DTOs together with their department in a single query.
+    // The count mode decides the total: a Page with a COUNT(*) (EXACT) or with the planner's
+    // row estimate (ESTIMATE), or a bare Slice without any count (NONE).
+    Slice<EmployeeResponseDTO> getAllEmployees(Pageable pageable, CountMode count);
 
     // Saves a new employee or updates an existing one in the database.
     // Returns the saved employee entity (often with a generated ID if it's new).
@@ -30,12 +46,47 @@ public interface EmployeeService {
 
     // Fetches a specific employee by ID and returns it as a Data Transfer Object (DTO).
     // Used to control the data exposed to the client, hiding internal entity details.
-    EmployeeResponseDTO getUserById(int id);
+    // Comes with the employee's version, for the ETag.
+    Versioned<EmployeeResponseDTO> getUserById(int id);
 
     // Creates a new employee using data from a Create DTO.
     // This separates the API request structure from the internal Entity model.
     // Returns a Response DTO containing the saved employee's data for the client.
     EmployeeResponseDTO createUser(CreateEmployeeRequestDTO request);
 
-    Page<Employee> getEmployeesByDepartment(Long departmentId, Pageable pageable);
+    // Same count modes as getAllEmployees; ESTIMATE uses the department's stored headcount.
+    Slice<EmployeeResponseDTO> getEmployeesByDepartment(Long departmentId, Pageable pageable, CountMode count);
+
+    // Only the requested fields of each employee (a sparse fieldset), read by a query that selects
+    // just those columns and joins departments only for department.name. No entities are built.
+    Slice<Map<String, Object>> getEmployeeFields(SparseFieldset fields, Pageable pageable, CountMode count);
+
+    Slice<Map<String, Object>> getEmployeeFieldsByDepartment(Long departmentId, SparseFieldset fields,
+            Pageable pageable, CountMode count);
+
+    // Creates many employees in one transaction using batched INSERTs.
+    // Department names and duplicate emails are resolved once for the whole batch; rows that
+    // fail validation are skipped and reported, all other rows are imported.
+    BulkImportResultDTO bulkCreate(List<CreateEmployeeRequestDTO> requests);
+
+    // The employees with the given ids, in that order; unknown ids are left out. Employees in the
+    // second-level cache are served from it and the rest are read with one statement.
+    List<EmployeeResponseDTO> getEmployeesByIds(List<Integer> ids);
+
+    // Applies many updates in one transaction: employees, departments and email clashes are
+    // resolved once for the whole batch and the UPDATEs are sent in JDBC batches. Each entry gets
+    // its own result; entries that fail (validation, unknown id, stale version) are skipped.
+    BatchUpdateResultDTO batchUpdate(List<EmployeeBatchUpdateDTO> updates);
+
+    // Passes every employee, in id order, to the given consumer while reading them through a
+    // database cursor. Memory use stays constant regardless of the number of rows.
+    void streamAllEmployees(Consumer<EmployeeResponseDTO> consumer);
+
+    // Ranked full-text search over first name, last name and email, answered from the in-memory
+    // EmployeeSearchIndex rather than a LIKE '%...%' table scan.
+    Page<EmployeeResponseDTO> searchEmployees(String query, Pageable pageable);
+
+    // Fetches the next window of employees after the given keyset position (cursor pagination).
+    // Cost stays constant however deep the client pages, since no OFFSET or COUNT is involved.
+    Window<Employee> getEmployeesAfter(ScrollPosition position, Sort sort, int size);
 }
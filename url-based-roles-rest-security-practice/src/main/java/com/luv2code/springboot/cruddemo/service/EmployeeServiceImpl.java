@@ -1,19 +1,56 @@
 package com.luv2code.springboot.cruddemo.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
+import com.luv2code.springboot.cruddemo.ExceptionHandling.EmployeeNotFoundException;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
 import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.dao.FieldProjections;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO.ItemResult;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO.Status;
+import com.luv2code.springboot.cruddemo.dto.BulkImportResultDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.CreateEmployeeRequestDTO;
 import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeBatchUpdateDTO;
 import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
+import com.luv2code.springboot.cruddemo.dto.Versioned;
 import com.luv2code.springboot.cruddemo.entity.Department;
 import com.luv2code.springboot.cruddemo.entity.Employee;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService {
@@ -29,19 +66,65 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     private DepartmentService departmentService;
 
+    @Autowired
+    private EmployeeSearchIndex searchIndex;
+
+    @Autowired
+    private FieldProjections fieldProjections;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Must match hibernate.jdbc.batch_size so each flush sends full JDBC batches.
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${employees.bulk.max-rows:10000}")
+    private int bulkMaxRows;
+
+    @Value("${employees.batch.max-ids:500}")
+    private int batchMaxIds;
+
+    @Value("${employees.batch.max-updates:1000}")
+    private int batchMaxUpdates;
+
     @Override
+    @Transactional
     public Employee save(Employee theEmployee, String departmentName) {
         if (theEmployee.getId() == 0) {
-            if (employeeRepository.findByEmail(theEmployee.getEmail()).isPresent()) {
+            if (findByEmail(theEmployee.getEmail()).isPresent()) {
                 throw new RuntimeException("Employee with email already exists: " + theEmployee.getEmail());
             }
         }
-        Department department = departmentService.getDepartmentByName(departmentName);
+        Department previous = theEmployee.getId() == 0 ? null : theEmployee.getDepartment();
+        Department department = departmentService.getDepartmentReference(departmentName);
         theEmployee.setDepartment(department);
-        return employeeRepository.save(theEmployee);
+        Employee saved = employeeRepository.save(theEmployee);
+        if (previous == null) {
+            changeLog.recordEmployee(saved.getId(), Operation.INSERT, department.getId());
+        } else {
+            changeLog.recordEmployeeMove(saved.getId(), previous.getId(), department.getId());
+        }
+
+        // Keep the headcounts in step: a new employee or a move between departments.
+        if (previous == null || previous.getId() != department.getId()) {
+            if (previous != null) {
+                departmentService.adjustHeadcount(previous.getId(), -1);
+            }
+            departmentService.adjustHeadcount(department.getId(), 1);
+        }
+        searchIndex.put(saved);
+        return saved;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Employee findById(int theId) {
         Optional<Employee> result = employeeRepository.findById(theId);
         Employee theEmployee = null;
@@ -55,39 +138,375 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     @Override
+    @Transactional
     public void deleteById(int theId) {
-        employeeRepository.deleteById(theId);
+        employeeRepository.findById(theId).ifPresent(employee -> {
+            employeeRepository.delete(employee);
+            changeLog.recordEmployee(theId, Operation.DELETE,
+                    employee.getDepartment() != null ? employee.getDepartment().getId() : null);
+            searchIndex.remove(theId);
+            if (employee.getDepartment() != null) {
+                departmentService.adjustHeadcount(employee.getDepartment().getId(), -1);
+            }
+        });
+    }
+
+    // Loads the entity rather than a projection: for hot records both the employee and its
+    // department come from the second-level cache, so a repeated lookup issues no SQL at all.
+    // That includes the version, so a conditional GET answered with 304 costs no SQL either.
+    @Transactional(readOnly = true)
+    public Versioned<EmployeeResponseDTO> getUserById(int id) {
+        return employeeRepository.findById(id)
+                .map(employee -> new Versioned<>(toResponse(employee), employee.getVersion()))
+                .orElseThrow(() -> new EmployeeNotFoundException("Did not find employee id - " + id));
     }
 
-    public EmployeeResponseDTO getUserById(int id) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Did not find employee id - " + id));
-        return toResponse(employee);
+    // Lookup by the email natural id: the email -> id resolution and the entity itself are
+    // served from the second-level cache when present, unlike a derived "findByEmail" query.
+    private Optional<Employee> findByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Employee.class)
+                .loadOptional(email);
     }
 
+    @Transactional
     public EmployeeResponseDTO createUser(CreateEmployeeRequestDTO request) {
         Employee employee = new Employee();
         employee.setFirstName(request.firstName());
         employee.setLastName(request.lastName());
         employee.setEmail(request.email());
 
+        // department_id is NOT NULL, and the new employee counts towards its headcount.
+        Department department = departmentService.getDepartmentReference(request.departmentName());
+        employee.setDepartment(department);
+
         Employee saved = employeeRepository.save(employee);
+        changeLog.recordEmployee(saved.getId(), Operation.INSERT, department.getId());
+        departmentService.adjustHeadcount(department.getId(), 1);
+        searchIndex.put(saved);
         return toResponse(saved);
     }
 
     private EmployeeResponseDTO toResponse(Employee employee) {
-        return new EmployeeResponseDTO(employee.getFirstName(), employee.getEmail(), employee.getId(), employee.getDepartment() != null ? new DepartmentResponseDTO(null) : null);
+        return new EmployeeResponseDTO(employee);
     }
 
+    // Read-only, so with read replicas configured the page and its count come from one replica.
     @Override
-    public Page<Employee> getAllEmployees(Pageable pageable) {
-        return employeeRepository.findAll(pageable);
+    @Transactional(readOnly = true)
+    public Slice<EmployeeResponseDTO> getAllEmployees(Pageable pageable, CountMode count) {
+        return switch (count) {
+            case EXACT -> employeeRepository.findAllProjectedBy(pageable);
+            case NONE -> employeeRepository.findSliceProjectedBy(pageable);
+            case ESTIMATE -> {
+                long estimate = employeeRepository.estimateCount();
+                // Never analyzed: no statistics to go on, so count.
+                yield estimate < 0
+                        ? employeeRepository.findAllProjectedBy(pageable)
+                        : Pages.estimated(employeeRepository.findSliceProjectedBy(pageable), estimate);
+            }
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<EmployeeResponseDTO> getEmployeesByDepartment(Long departmentId, Pageable pageable, CountMode count) {
+        if (count == CountMode.ESTIMATE) {
+            // The stored headcount, kept in step with the employees and normally served from
+            // the second-level cache. Also ensures the department exists.
+            int headcount = departmentService.getDepartmentById(departmentId).getHeadcount();
+            return Pages.estimated(employeeRepository.findSliceProjectedByDepartmentId(departmentId, pageable), headcount);
+        }
+        // ensures department exists, will throw if not found (answered from the department cache)
+        departmentService.getDepartmentReference(departmentId);
+        return count == CountMode.EXACT
+                ? employeeRepository.findProjectedByDepartmentId(departmentId, pageable)
+                : employeeRepository.findSliceProjectedByDepartmentId(departmentId, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getEmployeeFields(SparseFieldset fields, Pageable pageable, CountMode count) {
+        return Pages.read(count, pageable,
+                limit -> fieldProjections.select(Employee.class, fields.paths(), null, null, pageable, limit),
+                employeeRepository::count, employeeRepository::estimateCount)
+                .map(fields::toMap);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Map<String, Object>> getEmployeeFieldsByDepartment(Long departmentId, SparseFieldset fields,
+            Pageable pageable, CountMode count) {
+        // ensures department exists, will throw if not found (answered from the department cache)
+        departmentService.getDepartmentReference(departmentId);
+        return Pages.read(count, pageable,
+                limit -> fieldProjections.select(Employee.class, fields.paths(), "department.id", departmentId,
+                        pageable, limit),
+                () -> employeeRepository.countByDepartmentId(departmentId),
+                () -> departmentService.getDepartmentById(departmentId).getHeadcount())
+                .map(fields::toMap);
+    }
+
+    @Override
+    @Transactional
+    public BulkImportResultDTO bulkCreate(List<CreateEmployeeRequestDTO> requests) {
+        if (requests.size() > bulkMaxRows) {
+            throw new InvalidRequestException(
+                    "A bulk import may contain at most " + bulkMaxRows + " rows, got " + requests.size());
+        }
+        long start = System.nanoTime();
+        List<BulkImportResultDTO.RowError> errors = new ArrayList<>();
+        // Don't flood the second-level cache with rows nobody has read yet.
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        // One query each for all departments and all already-used emails in the batch.
+        Set<String> departmentNames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (CreateEmployeeRequestDTO request : requests) {
+            departmentNames.add(request.departmentName());
+            emails.add(request.email());
+        }
+        departmentNames.remove(null);
+        emails.remove(null);
+        Map<String, Department> departments = departmentService.getDepartmentsByNames(departmentNames);
+        Set<String> takenEmails = emails.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(employeeRepository.findExistingEmails(emails));
+
+        List<Employee> created = new ArrayList<>();
+        Map<Long, Integer> addedPerDepartment = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateEmployeeRequestDTO request = requests.get(i);
+            String error = validate(request, departments, takenEmails);
+            if (error != null) {
+                errors.add(new BulkImportResultDTO.RowError(i + 1, error));
+                continue;
+            }
+            Employee employee = new Employee(request.firstName(), request.lastName(), request.email());
+            employee.setDepartment(departments.get(request.departmentName()));
+            entityManager.persist(employee);
+            changeLog.recordEmployee(employee.getId(), Operation.INSERT, employee.getDepartment().getId());
+            created.add(employee);
+            takenEmails.add(request.email());
+            addedPerDepartment.merge(employee.getDepartment().getId(), 1, Integer::sum);
+
+            // Flush full batches and detach them so the persistence context stays small.
+            if (created.size() % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // One counter update per department rather than per row.
+        addedPerDepartment.forEach(departmentService::adjustHeadcount);
+        searchIndex.putAll(created);
+        int imported = created.size();
+
+        long elapsedNanos = System.nanoTime() - start;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : imported / (elapsedNanos / 1_000_000_000.0);
+        return new BulkImportResultDTO(requests.size(), imported, errors,
+                elapsedNanos / 1_000_000, Math.round(rowsPerSecond * 10) / 10.0);
+    }
+
+    // Returns the reason a row cannot be imported, or null if it is valid.
+    private String validate(CreateEmployeeRequestDTO request, Map<String, Department> departments,
+            Set<String> takenEmails) {
+        Set<ConstraintViolation<CreateEmployeeRequestDTO>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (!departments.containsKey(request.departmentName())) {
+            return "Department not found with name: " + request.departmentName();
+        }
+        if (takenEmails.contains(request.email())) {
+            return "Employee with email already exists: " + request.email();
+        }
+        return null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeResponseDTO> getEmployeesByIds(List<Integer> ids) {
+        checkBatchSize(ids.size(), batchMaxIds, "ids");
+        // Department names come from the department near-cache, so no department proxy is initialized.
+        return loadAll(ids).stream()
+                .filter(Objects::nonNull)
+                .map(employee -> {
+                    Department department = departmentService.getDepartmentReference(employee.getDepartment().getId());
+                    return new EmployeeResponseDTO(employee.getFirstName(), employee.getEmail(), employee.getId(),
+                            new DepartmentResponseDTO(department.getId(), department.getName()));
+                })
+                .toList();
+    }
+
+    // Loads many employees at once, in the order of the ids and with null for unknown ones.
+    // Hits in the second-level cache cost nothing; the misses are read with a single statement
+    // (WHERE id = ANY(?) on PostgreSQL) instead of one SELECT per id. Multi-loads only consult
+    // the second-level cache when a cache mode is set explicitly.
+    private List<Employee> loadAll(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Employee.class)
+                .with(CacheMode.NORMAL)
+                .enableOrderedReturn(true)
+                .withBatchSize(ids.size())
+                .multiLoad(ids);
+    }
+
+    @Override
+    @Transactional
+    public BatchUpdateResultDTO batchUpdate(List<EmployeeBatchUpdateDTO> updates) {
+        checkBatchSize(updates.size(), batchMaxUpdates, "updates");
+        long start = System.nanoTime();
+
+        // One read each for all employees, departments and changed emails in the batch.
+        Map<Integer, Employee> employees = new HashMap<>();
+        List<Integer> ids = updates.stream().map(EmployeeBatchUpdateDTO::id).filter(Objects::nonNull).distinct().toList();
+        for (Employee employee : loadAll(ids)) {
+            if (employee != null) {
+                employees.put(employee.getId(), employee);
+            }
+        }
+        Set<String> departmentNames = new HashSet<>();
+        Set<String> newEmails = new HashSet<>();
+        for (EmployeeBatchUpdateDTO update : updates) {
+            departmentNames.add(update.departmentName());
+            Employee employee = employees.get(update.id());
+            if (employee != null && update.email() != null && !update.email().equals(employee.getEmail())) {
+                newEmails.add(update.email());
+            }
+        }
+        departmentNames.remove(null);
+        Map<String, Department> departments = departmentService.getDepartmentsByNames(departmentNames);
+        Set<String> takenEmails = newEmails.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(employeeRepository.findExistingEmails(newEmails));
+
+        List<ItemResult> results = new ArrayList<>(updates.size());
+        Map<Integer, Employee> written = new HashMap<>();
+        Set<Integer> seen = new HashSet<>();
+        Map<Long, Integer> headcountDeltas = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            EmployeeBatchUpdateDTO update = updates.get(i);
+            Employee employee = employees.get(update.id());
+            ItemResult rejected = check(update, employee, seen, departments, takenEmails);
+            if (rejected != null) {
+                results.add(rejected);
+                continue;
+            }
+            Department department = departments.get(update.departmentName());
+            Department previous = employee.getDepartment();
+            if (update.firstName().equals(employee.getFirstName()) && update.lastName().equals(employee.getLastName())
+                    && update.email().equals(employee.getEmail()) && previous.getId() == department.getId()) {
+                results.add(new ItemResult(update.id(), Status.UNCHANGED, null, employee.getVersion()));
+                continue;
+            }
+            employee.setFirstName(update.firstName());
+            employee.setLastName(update.lastName());
+            employee.setEmail(update.email());
+            if (previous.getId() != department.getId()) {
+                employee.setDepartment(department);
+                headcountDeltas.merge(previous.getId(), -1, Integer::sum);
+                headcountDeltas.merge(department.getId(), 1, Integer::sum);
+            }
+            takenEmails.add(update.email());
+            changeLog.recordEmployeeMove(employee.getId(), previous.getId(), department.getId());
+            written.put(i, employee);
+            results.add(null); // filled in after the flush, which assigns the new version
+        }
+
+        // Dirty checking turns the changes into UPDATEs, sent in JDBC batches ordered by entity.
+        entityManager.flush();
+        written.forEach((index, employee) ->
+                results.set(index, new ItemResult(employee.getId(), Status.UPDATED, null, employee.getVersion())));
+        // One counter update per department rather than per row.
+        headcountDeltas.forEach((departmentId, delta) -> {
+            if (delta != 0) {
+                departmentService.adjustHeadcount(departmentId, delta);
+            }
+        });
+        searchIndex.putAll(written.values());
+
+        return new BatchUpdateResultDTO(updates.size(), written.size(), results,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Returns why an update cannot be applied, or null if it can.
+    private ItemResult check(EmployeeBatchUpdateDTO update, Employee employee, Set<Integer> seen,
+            Map<String, Department> departments, Set<String> takenEmails) {
+        Set<ConstraintViolation<EmployeeBatchUpdateDTO>> violations = validator.validate(update);
+        if (!violations.isEmpty()) {
+            return new ItemResult(update.id(), Status.INVALID, violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")), null);
+        }
+        if (!seen.add(update.id())) {
+            return new ItemResult(update.id(), Status.INVALID, "Employee id appears more than once in the batch", null);
+        }
+        if (employee == null) {
+            return new ItemResult(update.id(), Status.NOT_FOUND, "Did not find employee id - " + update.id(), null);
+        }
+        if (update.version() != null && update.version() != employee.getVersion()) {
+            return new ItemResult(update.id(), Status.CONFLICT,
+                    "Employee was modified since version " + update.version(), employee.getVersion());
+        }
+        if (!departments.containsKey(update.departmentName())) {
+            return new ItemResult(update.id(), Status.INVALID,
+                    "Department not found with name: " + update.departmentName(), null);
+        }
+        if (!update.email().equals(employee.getEmail()) && takenEmails.contains(update.email())) {
+            return new ItemResult(update.id(), Status.INVALID,
+                    "Employee with email already exists: " + update.email(), null);
+        }
+        return null;
+    }
+
+    private static void checkBatchSize(int size, int max, String what) {
+        if (size == 0) {
+            throw new InvalidRequestException("At least one entry is required in " + what);
+        }
+        if (size > max) {
+            throw new InvalidRequestException("A batch may contain at most " + max + " " + what + ", got " + size);
+        }
+    }
+
+    // The transaction keeps the connection (and the PostgreSQL cursor) open while rows are consumed.
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<EmployeeResponseDTO> consumer) {
+        try (Stream<EmployeeResponseDTO> employees = employeeRepository.streamAllProjectedBy()) {
+            employees.forEach(consumer);
+        }
+    }
+
+    @Override
+    public Page<EmployeeResponseDTO> searchEmployees(String query, Pageable pageable) {
+        if (pageable.getOffset() > Integer.MAX_VALUE) {
+            throw new InvalidRequestException("Page is past the end of any possible search result");
+        }
+        EmployeeSearchIndex.Result result = searchIndex.search(query, (int) pageable.getOffset(), pageable.getPageSize());
+        // Department names come from the department near-cache, so a rename shows up immediately.
+        List<EmployeeResponseDTO> content = result.hits().stream()
+                .map(hit -> {
+                    Department department = hit.departmentId() != 0
+                            ? departmentService.getDepartmentReference(hit.departmentId())
+                            : null;
+                    return new EmployeeResponseDTO(hit.firstName(), hit.email(), hit.id(),
+                            department != null ? new DepartmentResponseDTO(department.getId(), department.getName()) : null);
+                })
+                .toList();
+        return new PageImpl<>(content, pageable, result.total());
     }
 
     @Override
-    public Page<Employee> getEmployeesByDepartment(Long departmentId, Pageable pageable) {
-        // ensures department exists, will throw if not found
-        departmentService.getDepartmentById(departmentId);
-        return employeeRepository.findByDepartmentId(departmentId, pageable);
+    public Window<Employee> getEmployeesAfter(ScrollPosition position, Sort sort, int size) {
+        return employeeRepository.findAllBy(position, sort, Limit.of(size));
     }
 }
@@ -0,0 +1,40 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically compares every department's stored headcount with the actual
+ * number of employees and repairs any difference. The counters are kept in
+ * step transactionally, so drift only appears after changes made outside the
+ * application (manual SQL, restores, ON DELETE CASCADE); this job bounds how
+ * long such drift stays visible.
+ */
+@Component
+public class HeadcountReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeadcountReconciler.class);
+
+    private final DepartmentService departmentService;
+
+    public HeadcountReconciler(DepartmentService departmentService) {
+        this.departmentService = departmentService;
+    }
+
+    @Scheduled(initialDelayString = "${departments.headcount.reconcile-ms:3600000}",
+            fixedDelayString = "${departments.headcount.reconcile-ms:3600000}")
+    public void reconcile() {
+        try {
+            int repaired = departmentService.reconcileHeadcounts();
+            if (repaired > 0) {
+                LOGGER.warn("Repaired headcount drift in {} department(s)", repaired);
+            }
+        } catch (DataAccessException e) {
+            // Try again on the next run; the stored counts stay usable meanwhile.
+            LOGGER.warn("Headcount reconciliation failed: {}", e.getMessage());
+        }
+    }
+}
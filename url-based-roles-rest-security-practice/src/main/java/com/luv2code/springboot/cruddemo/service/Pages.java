@@ -0,0 +1,60 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.luv2code.springboot.cruddemo.dto.CountMode;
+
+// Builds pages for the count modes of the list endpoints (see CountMode).
+final class Pages {
+
+    private Pages() {
+    }
+
+    // Runs a hand-written page query the way the count mode asks. query returns at most the given
+    // number of rows of the requested page. EXACT counts unless the rows already tell the total;
+    // NONE and ESTIMATE read one row past the page instead to find out whether another follows.
+    static <T> Slice<T> read(CountMode count, Pageable pageable, IntFunction<List<T>> query,
+            LongSupplier exactCount, LongSupplier estimate) {
+        if (count == CountMode.EXACT) {
+            return PageableExecutionUtils.getPage(query.apply(pageable.getPageSize()), pageable, exactCount);
+        }
+        List<T> rows = query.apply(pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        Slice<T> slice = new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        if (count == CountMode.NONE) {
+            return slice;
+        }
+        long estimated = estimate.getAsLong();
+        // Never analyzed: no statistics to go on, so count.
+        return estimated < 0
+                ? PageableExecutionUtils.getPage(slice.getContent(), pageable, exactCount)
+                : estimated(slice, estimated);
+    }
+
+    // The estimate is corrected by what the slice itself proves: the last page yields the exact
+    // total, a following page means there is at least one more item, and a page past the end
+    // means the total is below its offset. Planner statistics can lag behind, so this keeps the
+    // numbers a client sees consistent with the rows it got.
+    static <T> Page<T> estimated(Slice<T> slice, long estimate) {
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        long seen = offset + slice.getNumberOfElements();
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(estimate, seen + 1);
+        } else if (slice.hasContent() || offset == 0) {
+            total = seen;
+        } else {
+            total = Math.min(estimate, offset);
+        }
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+}
@@ -33,4 +33,11 @@ INSERT INTO employee (first_name, last_name, email, department_id) VALUES
 ('Maria',   'Santos',  'maria.santos@company.com', 2),
 ('Michael', 'Chen',    'michael.chen@company.com', 3),
 ('Sarah',   'Johnson', 'sarah.johnson@company.com', 4),
-('David',   'Brown',   'david.brown@company.com', 5);
\ No newline at end of file
+('David',   'Brown',   'david.brown@company.com', 5);
+
+-- Initialise the headcounts for the seeded employees
+UPDATE departments d SET headcount = (SELECT COUNT(*) FROM employee e WHERE e.department_id = d.id);
+
+-- Employee ids are allocated in blocks of 50 by Hibernate (see Employee.id), so the
+-- sequence must advance by the same step. Seeded rows above keep ids 1..6.
+ALTER SEQUENCE employee_id_seq INCREMENT BY 50;
\ No newline at end of file
@@ -3,11 +3,18 @@ DROP TABLE IF EXISTS employee CASCADE;
 DROP TABLE IF EXISTS roles CASCADE;
 DROP TABLE IF EXISTS members CASCADE;
 DROP TABLE IF EXISTS departments CASCADE;
+DROP TABLE IF EXISTS revoked_tokens CASCADE;
+DROP TABLE IF EXISTS change_log CASCADE;
+DROP TABLE IF EXISTS change_log_position CASCADE;
 
 -- Create tables in correct order
 CREATE TABLE departments (
     id SERIAL PRIMARY KEY,
-    name VARCHAR(100) NOT NULL UNIQUE
+    name VARCHAR(100) NOT NULL UNIQUE,
+    -- Maintained by the application alongside employee changes, so reads never COUNT(*) employee
+    headcount INT NOT NULL DEFAULT 0,
+    -- Optimistic lock version, bumped by Hibernate on every update; the basis of the ETags
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE members (
@@ -29,5 +36,35 @@ CREATE TABLE employee (
     last_name VARCHAR(50) NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
     department_id INT NOT NULL,
+    -- Optimistic lock version, bumped by Hibernate on every update; the basis of the ETags
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_department FOREIGN KEY (department_id) REFERENCES departments(id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+-- Revoked JWT ids (jti), kept until the token would have expired anyway
+CREATE TABLE revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL
+);
+
+-- Append-only log of inserts, updates and deletes to employee and departments, served by
+-- GET /api/changes. Written in the same transaction as the change; ids follow commit order.
+CREATE TABLE change_log (
+    id BIGINT PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    operation VARCHAR(10) NOT NULL,
+    -- Employees only: their department after the change, and the one they left if they moved.
+    department_id BIGINT,
+    previous_department_id BIGINT,
+    changed_at TIMESTAMP NOT NULL
+);
+
+-- The last change_log id handed out and the last one purged. Writers hold this row's lock
+-- from allocating their ids until they commit, which is what keeps ids in commit order.
+CREATE TABLE change_log_position (
+    id INT PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    purged_through BIGINT NOT NULL
+);
+INSERT INTO change_log_position (id, last_id, purged_through) VALUES (1, 0, 0);
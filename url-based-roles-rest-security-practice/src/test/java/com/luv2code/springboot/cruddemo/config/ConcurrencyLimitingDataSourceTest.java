@@ -0,0 +1,97 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.ServiceBusyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ConcurrencyLimitingDataSourceTest {
+
+    private DataSource pool;
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        pool = mock(DataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new ConcurrencyLimitingDataSource(pool, 2, 50, 3);
+    }
+
+    @Test
+    void testPermitIsReturnedOnClose() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(2, dataSource.getActive());
+
+        first.close();
+        first.close(); // a second close must not hand out an extra permit
+        assertEquals(1, dataSource.getActive());
+
+        second.close();
+        assertEquals(0, dataSource.getActive());
+        assertEquals(2, dataSource.getAcquiredCount());
+    }
+
+    @Test
+    void testWaiterIsRejectedAfterTimeout() throws Exception {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        ServiceBusyException busy = assertThrows(ServiceBusyException.class, dataSource::getConnection);
+
+        assertEquals(3, busy.getRetryAfterSeconds());
+        assertEquals(1, dataSource.getRejectedCount());
+        verify(pool, times(2)).getConnection();
+    }
+
+    @Test
+    void testWaiterProceedsWhenAConnectionIsClosed() throws Exception {
+        ConcurrencyLimitingDataSource patient = new ConcurrencyLimitingDataSource(pool, 1, 5000, 1);
+        Connection held = patient.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return patient.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (patient.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        held.close();
+
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, patient.getActive());
+    }
+
+    @Test
+    void testPermitIsReturnedWhenThePoolFails() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(0, dataSource.getActive());
+    }
+
+    @Test
+    void testCallsAreDelegatedToThePooledConnection() throws Exception {
+        Connection pooled = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(pooled);
+
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        verify(pooled).setAutoCommit(false);
+        verify(pooled).close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DatabaseHealthIndicatorTest {
+
+    private DataSource pool;
+    private DatabaseHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        pool = mock(DataSource.class);
+        indicator = newIndicator(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        indicator.destroy();
+    }
+
+    private static DatabaseHealthIndicator newIndicator(DataSource dataSource) {
+        DatabaseHealthIndicator indicator = new DatabaseHealthIndicator();
+        ReflectionTestUtils.setField(indicator, "dataSource", dataSource);
+        ReflectionTestUtils.setField(indicator, "timeoutMillis", 200L);
+        return indicator;
+    }
+
+    @Test
+    void testUpWhenConnectionIsValid() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(pool.getConnection()).thenReturn(connection);
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        verify(connection).close();
+    }
+
+    @Test
+    void testDownWhenConnectionFails() throws Exception {
+        when(pool.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        Health health = indicator.health();
+
+        assertEquals(Status.DOWN, health.getStatus());
+        assertTrue(health.getDetails().get("error").toString().contains("Connection refused"));
+    }
+
+    @Test
+    void testDownWhenConnectionIsInvalid() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(false);
+        when(pool.getConnection()).thenReturn(connection);
+
+        assertEquals(Status.DOWN, indicator.health().getStatus());
+    }
+
+    @Test
+    void testDownWhenProbeTimesOutAndStuckProbeIsReused() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(pool.getConnection()).thenAnswer(invocation -> {
+            release.await();
+            throw new SQLException("gave up");
+        });
+
+        Health first = indicator.health();
+        Health second = indicator.health();
+        release.countDown();
+
+        assertEquals(Status.DOWN, first.getStatus());
+        assertTrue(first.getDetails().get("error").toString().contains("200 ms"));
+        assertEquals(Status.DOWN, second.getStatus());
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    void testReportsConcurrencyLimitSaturation() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(pool.getConnection()).thenReturn(connection);
+        ConcurrencyLimitingDataSource limiter = new ConcurrencyLimitingDataSource(pool, 1, 50, 1);
+        indicator.destroy();
+        indicator = newIndicator(limiter);
+        Connection held = limiter.getConnection();
+
+        Health health = indicator.health();
+        held.close();
+
+        // The probe could not get a permit while the only connection was held.
+        assertEquals(Status.DOWN, health.getStatus());
+        Map<?, ?> details = (Map<?, ?>) health.getDetails().get("concurrencyLimit");
+        assertEquals(1, details.get("active"));
+        assertEquals(1, details.get("limit"));
+        assertEquals(Status.UP, indicator.health().getStatus());
+    }
+}
@@ -0,0 +1,152 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private ReadReplicaRoutingDataSource router;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.isValid(anyInt())).thenReturn(true);
+        // No scheduled health checks; the tests run them.
+        router = new ReadReplicaRoutingDataSource(primary, Map.of("replica-1", replica), 5000, 1);
+        router.setDefaultAutoCommit(true);
+        router.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.close();
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReadOnlyConnectionsGoToAHealthyReplica() throws Exception {
+        checkReplicas();
+        clearInvocations(primary, replica);
+
+        readOnlyStatement();
+
+        verify(replica).getConnection();
+        verify(primary, never()).getConnection();
+        assertEquals(1, router.getReplicaReadCount());
+    }
+
+    @Test
+    void testWritesGoToThePrimary() throws Exception {
+        checkReplicas();
+        clearInvocations(primary, replica);
+
+        try (Connection connection = router.getConnection()) {
+            connection.createStatement();
+        }
+
+        verify(primary).getConnection();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    void testReadsAfterOwnWriteStayOnThePrimary() throws Exception {
+        checkReplicas();
+        clearInvocations(primary, replica);
+        authenticate("alice");
+        router.recordWrite();
+
+        readOnlyStatement();
+        verify(primary).getConnection();
+        verify(replica, never()).getConnection();
+
+        authenticate("bob");
+        readOnlyStatement();
+        verify(replica).getConnection();
+    }
+
+    @Test
+    void testReadsFallBackToThePrimaryWhenTheReplicaFails() throws Exception {
+        // Down until the first health check passes.
+        readOnlyStatement();
+        verify(primary).getConnection();
+
+        checkReplicas();
+        assertEquals(Map.of("replica-1", true), router.getReplicaStatus());
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        clearInvocations(primary);
+
+        readOnlyStatement();
+
+        verify(primary).getConnection();
+        assertEquals(Map.of("replica-1", false), router.getReplicaStatus());
+        assertEquals(2, router.getPrimaryReadCount());
+    }
+
+    @Test
+    void testPoolLookupsReachThePrimary() throws Exception {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(primary.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(primary.unwrap(HikariDataSource.class)).thenReturn(pool);
+
+        assertTrue(router.isWrapperFor(HikariDataSource.class));
+        assertSame(pool, router.unwrap(HikariDataSource.class));
+        assertSame(router, router.unwrap(ReadReplicaRoutingDataSource.class));
+    }
+
+    @Test
+    void testReplicaPoolsGetMetrics() throws Exception {
+        // Never started: Hikari opens the pool at the first connection.
+        HikariDataSource pool = new HikariDataSource();
+        router.close();
+        router = new ReadReplicaRoutingDataSource(primary, Map.of("replica-1", pool), 5000, 1);
+
+        new ReadReplicaConfig().replicaPoolMetrics(router).bindTo(new SimpleMeterRegistry());
+
+        assertNotNull(pool.getMetricsTrackerFactory());
+    }
+
+    private void readOnlyStatement() throws SQLException {
+        // The connection is taken before the transaction starts, as Hibernate does, and used inside it.
+        try (Connection connection = router.getConnection()) {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            connection.createStatement();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private void checkReplicas() {
+        ReflectionTestUtils.invokeMethod(router, "checkReplicas");
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.createAuthorityList("ROLE_EMPLOYEE")));
+    }
+}
@@ -0,0 +1,112 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SqlBudgetInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlBudgetInterceptor interceptor = new SqlBudgetInterceptor(false, 5, registry);
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        assertNull(SqlStatementScope.current(), "the interceptor left a scope open");
+    }
+
+    @Test
+    void testCountsStatementsOfABudgetedHandler() throws Exception {
+        MockHttpServletRequest request = request("/api/employees");
+        HandlerMethod handler = handler("budgeted");
+
+        interceptor.preHandle(request, response, handler);
+        SqlStatementScope scope = SqlStatementScope.current();
+        assertEquals("GET /api/employees", scope.getName());
+        assertEquals(2, scope.getBudget());
+        executeStatements(3);
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(3, request.getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE));
+        assertEquals(2, request.getAttribute(SqlBudgetInterceptor.BUDGET_ATTRIBUTE));
+        assertEquals(1, registry.get("http.server.requests.sql.statements")
+                .tag("uri", "/api/employees").summary().count());
+        assertEquals(3.0, registry.get("http.server.requests.sql.statements").summary().totalAmount());
+        assertEquals(1, registry.get("http.server.requests.sql").timer().count());
+    }
+
+    @Test
+    void testHandlerWithoutBudget() throws Exception {
+        MockHttpServletRequest request = request("/api/employees/export");
+        HandlerMethod handler = handler("unbudgeted");
+
+        interceptor.preHandle(request, response, handler);
+        assertFalse(SqlStatementScope.current().isBudgeted());
+        interceptor.afterCompletion(request, response, handler, null);
+
+        assertEquals(0, request.getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE));
+        assertNull(request.getAttribute(SqlBudgetInterceptor.BUDGET_ATTRIBUTE));
+        assertNull(registry.find("http.server.requests.sql.statements").summary());
+    }
+
+    @Test
+    void testScopeIsClosedWhenAsyncProcessingStarts() throws Exception {
+        MockHttpServletRequest request = request("/api/employees");
+        HandlerMethod handler = handler("budgeted");
+
+        interceptor.preHandle(request, response, handler);
+        executeStatements(1);
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+
+        assertEquals(1, request.getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE));
+        // afterCompletion on the same request must not count again
+        interceptor.afterCompletion(request, response, handler, null);
+        assertEquals(1, registry.get("http.server.requests.sql.statements").summary().count());
+    }
+
+    @Test
+    void testIgnoresHandlersThatAreNotControllerMethods() throws Exception {
+        MockHttpServletRequest request = request("/static/app.js");
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        assertNull(SqlStatementScope.current());
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertNull(request.getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE));
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(method));
+    }
+
+    // Stands in for the StatementCountingDataSource.
+    private static void executeStatements(int count) {
+        for (int i = 0; i < count; i++) {
+            SqlStatementScope.current().beforeExecute("select 1");
+            SqlStatementScope.current().afterExecute("select 1", 1000);
+        }
+    }
+
+    public static class Handlers {
+
+        @SqlBudget(2)
+        public void budgeted() {
+        }
+
+        public void unbudgeted() {
+        }
+    }
+}
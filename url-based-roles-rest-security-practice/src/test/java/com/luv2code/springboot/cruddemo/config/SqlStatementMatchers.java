@@ -0,0 +1,54 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MockMvc assertions on the SQL statements a request executed, as counted by the
+ * {@link SqlBudgetInterceptor}:
+ * <pre>
+ * mockMvc.perform(get("/api/employees"))
+ *         .andExpect(status().isOk())
+ *         .andExpect(sqlStatements().atMost(2))
+ *         .andExpect(sqlStatements().withinBudget());
+ * </pre>
+ * Only meaningful in tests backed by a database (see EndpointSqlBudgetTest); with
+ * mocked services the count is always 0.
+ */
+public final class SqlStatementMatchers {
+
+    private SqlStatementMatchers() {
+    }
+
+    public static SqlStatementMatchers sqlStatements() {
+        return new SqlStatementMatchers();
+    }
+
+    public ResultMatcher count(int expected) {
+        return result -> assertEquals(expected, statements(result), "SQL statements executed");
+    }
+
+    public ResultMatcher atMost(int max) {
+        return result -> {
+            int statements = statements(result);
+            assertTrue(statements <= max, "Expected at most " + max + " SQL statements but " + statements + " ran");
+        };
+    }
+
+    /** The handler's {@link SqlBudget}; fails if it does not declare one. */
+    public ResultMatcher withinBudget() {
+        return result -> {
+            Object budget = result.getRequest().getAttribute(SqlBudgetInterceptor.BUDGET_ATTRIBUTE);
+            assertNotNull(budget, "Handler declares no @SqlBudget");
+            atMost((Integer) budget).match(result);
+        };
+    }
+
+    private static int statements(MvcResult result) {
+        Object statements = result.getRequest().getAttribute(SqlBudgetInterceptor.STATEMENTS_ATTRIBUTE);
+        assertNotNull(statements, "SQL statements were not counted; is SqlMonitoringConfig loaded?");
+        return (Integer) statements;
+    }
+}
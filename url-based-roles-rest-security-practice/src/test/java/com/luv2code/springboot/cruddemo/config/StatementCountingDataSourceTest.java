@@ -0,0 +1,115 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.SqlBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class StatementCountingDataSourceTest {
+
+    private Connection connection;
+    private StatementCountingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+        DataSource pool = mock(DataSource.class);
+        when(pool.getConnection()).thenReturn(connection);
+        dataSource = new StatementCountingDataSource(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        assertNull(SqlStatementScope.current(), "a test left a scope open");
+    }
+
+    @Test
+    void testConnectionIsNotWrappedOutsideAScope() throws Exception {
+        assertSame(connection, dataSource.getConnection());
+    }
+
+    @Test
+    void testCountsEachExecution() throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open("test");
+                Connection counted = dataSource.getConnection()) {
+            PreparedStatement select = counted.prepareStatement("select 1");
+            select.executeQuery();
+            select.executeQuery();
+            counted.prepareStatement("update t set x = 1").executeUpdate();
+            counted.createStatement().execute("delete from t");
+            select.setInt(1, 1); // not an execution
+
+            assertEquals(4, scope.getStatements());
+            assertEquals(Map.of("select 1", 2), scope.getRepeatedStatements(2));
+            assertTrue(scope.getRepeatedStatements(3).isEmpty());
+        }
+    }
+
+    @Test
+    void testBatchCountsOnce() throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open("test");
+                Connection counted = dataSource.getConnection()) {
+            PreparedStatement insert = counted.prepareStatement("insert into t values (?)");
+            insert.addBatch();
+            insert.addBatch();
+            insert.executeBatch();
+
+            assertEquals(1, scope.getStatements());
+        }
+    }
+
+    @Test
+    void testNestedScopesCountIntoTheEnclosingScope() throws Exception {
+        try (SqlStatementScope outer = SqlStatementScope.open("outer");
+                Connection counted = dataSource.getConnection()) {
+            counted.prepareStatement("select 1").executeQuery();
+            try (SqlStatementScope inner = SqlStatementScope.open("inner")) {
+                counted.prepareStatement("select 2").executeQuery();
+                assertEquals(1, inner.getStatements());
+            }
+            assertSame(outer, SqlStatementScope.current());
+            assertEquals(2, outer.getStatements());
+        }
+    }
+
+    @Test
+    void testStatementOverBudgetIsRejectedWhenFailing() throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open("GET /api/employees", 1, true);
+                Connection counted = dataSource.getConnection()) {
+            counted.prepareStatement("select 1").executeQuery();
+            PreparedStatement second = counted.prepareStatement("select 2");
+
+            SqlBudgetExceededException exceeded = assertThrows(SqlBudgetExceededException.class,
+                    second::executeQuery);
+
+            assertTrue(exceeded.getMessage().contains("select 2"));
+            assertEquals(1, scope.getStatements());
+        }
+        verify(connection).prepareStatement("select 2");
+    }
+
+    @Test
+    void testStatementOverBudgetRunsWhenOnlyWarning() throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open("GET /api/employees", 1, false);
+                Connection counted = dataSource.getConnection()) {
+            counted.prepareStatement("select 1").executeQuery();
+            counted.prepareStatement("select 2").executeQuery();
+
+            assertEquals(2, scope.getStatements());
+            assertTrue(scope.isOverBudget());
+        }
+    }
+}
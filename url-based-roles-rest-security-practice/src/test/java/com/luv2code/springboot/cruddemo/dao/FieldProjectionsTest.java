@@ -0,0 +1,72 @@
+package com.luv2code.springboot.cruddemo.dao;
+
+import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the Criteria multiselects against the seeded test database (see application-test.properties).
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FieldProjections.class)
+public class FieldProjectionsTest {
+
+    @Autowired
+    private FieldProjections fieldProjections;
+
+    private static List<List<Object>> rows(List<Object[]> result) {
+        return result.stream().map(Arrays::asList).toList();
+    }
+
+    @Test
+    void testSingleColumnRowsAreStillArrays() {
+        List<Object[]> result = fieldProjections.select(Employee.class, List.of("id"), null, null,
+                PageRequest.of(0, 3, Sort.by("id")), 3);
+
+        assertEquals(List.of(List.of(1), List.of(2), List.of(3)), rows(result));
+    }
+
+    @Test
+    void testMultipleColumnsFollowTheRequestedOrder() {
+        List<Object[]> result = fieldProjections.select(Employee.class, List.of("email", "id", "department.name"),
+                null, null, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "email")), 2);
+
+        assertEquals(List.of(
+                List.of("sarah.johnson@company.com", 5, "Sales"),
+                List.of("michael.chen@company.com", 4, "Marketing")), rows(result));
+    }
+
+    @Test
+    void testFilterOffsetAndLimit() {
+        // Page 1 of size 1 within department 1, read one row past the page as Pages.read does.
+        List<Object[]> result = fieldProjections.select(Employee.class, List.of("firstName", "department.id"),
+                "department.id", 1L, PageRequest.of(1, 1, Sort.by("id")), 2);
+
+        assertEquals(List.of(List.of("Jane", 1L)), rows(result));
+    }
+
+    @Test
+    void testDepartmentColumns() {
+        List<Object[]> result = fieldProjections.select(Department.class, List.of("name", "headcount"), null, null,
+                PageRequest.of(0, 5, Sort.by("id")), 5);
+
+        assertEquals(List.of(
+                List.of("Engineering", 2),
+                List.of("Human Resources", 1),
+                List.of("Marketing", 1),
+                List.of("Sales", 1),
+                List.of("Finance", 1)), rows(result));
+    }
+}
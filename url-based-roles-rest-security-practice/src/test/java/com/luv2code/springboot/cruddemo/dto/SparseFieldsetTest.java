@@ -0,0 +1,44 @@
+package com.luv2code.springboot.cruddemo.dto;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SparseFieldsetTest {
+
+    private static final List<String> FIELDS = List.of("id", "firstName", "email", "department.id", "department.name");
+
+    @Test
+    void testPathsFollowResourceOrderAndObjectsExpand() {
+        SparseFieldset fieldset = SparseFieldset.of(" department , email,id,email", FIELDS);
+
+        assertEquals(List.of("id", "email", "department.id", "department.name"), fieldset.paths());
+    }
+
+    @Test
+    void testRowBecomesNestedObject() {
+        SparseFieldset fieldset = SparseFieldset.of("department.name,id", FIELDS);
+
+        assertEquals(Map.of("id", 7, "department", Map.of("name", "HR")), fieldset.toMap(new Object[] { 7, "HR" }));
+    }
+
+    @Test
+    void testPickFromFullRepresentation() {
+        SparseFieldset fieldset = SparseFieldset.of("email,department.id", FIELDS);
+        Map<String, Object> full = Map.of("id", 7, "firstName", "Ann", "email", "ann@test.com",
+                "department", Map.of("id", 2, "name", "HR"));
+
+        assertEquals(Map.of("email", "ann@test.com", "department", Map.of("id", 2)), fieldset.pick(full));
+    }
+
+    @Test
+    void testUnknownOrEmptySelectionIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> SparseFieldset.of("id,salary", FIELDS));
+        assertThrows(InvalidRequestException.class, () -> SparseFieldset.of("depart", FIELDS));
+        assertThrows(InvalidRequestException.class, () -> SparseFieldset.of(" , ", FIELDS));
+    }
+}
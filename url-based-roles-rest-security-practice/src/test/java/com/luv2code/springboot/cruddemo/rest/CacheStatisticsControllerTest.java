@@ -0,0 +1,64 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.luv2code.springboot.cruddemo.dto.CacheStatisticsDTO;
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
+import com.luv2code.springboot.cruddemo.service.CacheStatisticsService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CacheStatisticsController.class)
+public class CacheStatisticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheStatisticsService cacheStatisticsService;
+
+    // Dependencies of the JWT filter, which @WebMvcTest picks up with the web layer.
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
+    @Test
+    @WithMockUser(roles = { "ADMIN" })
+    void testGetStatistics() throws Exception {
+        when(cacheStatisticsService.getStatistics()).thenReturn(new CacheStatisticsDTO(3, 1, 4, 0.75, 2, 0,
+                List.of(new CacheStatisticsDTO.Region("employee", 3, 1, 4, 0.75))));
+
+        mockMvc.perform(get("/api/admin/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hitRatio").value(0.75))
+                .andExpect(jsonPath("$.naturalIdHits").value(2))
+                .andExpect(jsonPath("$.regions[0].name").value("employee"));
+    }
+
+    @Test
+    @WithMockUser(roles = { "ADMIN" })
+    void testResetStatistics() throws Exception {
+        mockMvc.perform(delete("/api/admin/cache/stats")
+                .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        verify(cacheStatisticsService).clear();
+    }
+}
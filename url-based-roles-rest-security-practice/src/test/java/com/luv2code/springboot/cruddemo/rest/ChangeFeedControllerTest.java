@@ -0,0 +1,81 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
+import com.luv2code.springboot.cruddemo.service.ChangeLog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChangeFeedController.class)
+public class ChangeFeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeLog changeLog;
+
+    // Dependencies of the JWT filter, which @WebMvcTest picks up with the web layer.
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
+    @Test
+    @WithMockUser
+    void testGetChanges() throws Exception {
+        when(changeLog.read(7, 2)).thenReturn(new ChangeFeedDTO(List.of(
+                new ChangeDTO(8, ChangeDTO.EntityType.EMPLOYEE, 3, ChangeDTO.Operation.DELETE, 2L, null, Instant.EPOCH)), 8, false));
+
+        mockMvc.perform(get("/api/changes").param("since", "7").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].seq").value(8))
+                .andExpect(jsonPath("$.changes[0].type").value("EMPLOYEE"))
+                .andExpect(jsonPath("$.changes[0].operation").value("DELETE"))
+                .andExpect(jsonPath("$.changes[0].departmentId").value(2))
+                .andExpect(jsonPath("$.changes[0].previousDepartmentId").doesNotExist())
+                .andExpect(jsonPath("$.next").value(8))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @WithMockUser
+    void testExpiredCursorIsGone() throws Exception {
+        when(changeLog.read(anyLong(), anyInt())).thenThrow(new CursorExpiredException("Changes after 1 are no longer kept"));
+
+        mockMvc.perform(get("/api/changes").param("since", "1"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @WithMockUser
+    void testLimitIsBounded() throws Exception {
+        mockMvc.perform(get("/api/changes").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/changes").param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(changeLog);
+    }
+}
@@ -1,8 +1,15 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import com.luv2code.springboot.cruddemo.config.CollectionETagConfig;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.DepartmentRequestDTO;
 import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentStatsDTO;
+import com.luv2code.springboot.cruddemo.dto.DepartmentTransferResultDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
 import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
 import com.luv2code.springboot.cruddemo.service.DepartmentService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -10,14 +17,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -27,6 +43,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 @WebMvcTest(DepartmentRestController.class)
+@Import(CollectionETagConfig.class)
 public class DepartmentRestControllerTest {
 
     @Autowired
@@ -35,6 +52,16 @@ public class DepartmentRestControllerTest {
     @MockBean
     private DepartmentService departmentService;
 
+    // Dependencies of the JWT filter, which @WebMvcTest picks up with the web layer.
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
     private Department dept;
 
     @BeforeEach
@@ -79,7 +106,7 @@ public class DepartmentRestControllerTest {
     @WithMockUser
     void testGetAllDepartments() throws Exception {
 
-        when(departmentService.getAllDepartments(any(Pageable.class)))
+        when(departmentService.getAllDepartments(any(Pageable.class), eq(CountMode.EXACT)))
                 .thenReturn(new PageImpl<>(List.of(dept)));
 
         mockMvc.perform(get("/api/departments")
@@ -87,9 +114,89 @@ public class DepartmentRestControllerTest {
                 .param("size", "10")
                 .param("sort", "id,asc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].name").value("HR"));
+                .andExpect(jsonPath("$.content[0].name").value("HR"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(departmentService, times(1)).getAllDepartments(any(Pageable.class), eq(CountMode.EXACT));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllDepartmentsWithoutCount() throws Exception {
+        when(departmentService.getAllDepartments(any(Pageable.class), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(dept), PageRequest.of(1, 1), false));
+
+        mockMvc.perform(get("/api/departments")
+                .param("page", "1")
+                .param("size", "1")
+                .param("count", "NONE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("HR"))
+                .andExpect(jsonPath("$.page").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllDepartmentFields() throws Exception {
+        when(departmentService.getDepartmentFields(any(SparseFieldset.class), any(Pageable.class), eq(CountMode.EXACT)))
+                .thenReturn(new PageImpl<>(List.of(Map.of("name", "HR"))));
+
+        mockMvc.perform(get("/api/departments").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("HR"))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(departmentService, never()).getAllDepartments(any(Pageable.class), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDepartmentFieldsById() throws Exception {
+        ReflectionTestUtils.setField(dept, "headcount", 4);
+        when(departmentService.getDepartmentById(1L)).thenReturn(dept);
+
+        mockMvc.perform(get("/api/departments/id/1").param("fields", "headcount"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"headcount\": 4}", true));
+        mockMvc.perform(get("/api/departments/id/1").param("fields", "budget"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDepartmentsWithCursor() throws Exception {
+        when(departmentService.getDepartmentsAfter(any(ScrollPosition.class), any(Sort.class), eq(10)))
+                .thenReturn(Window.from(List.of(dept), i -> ScrollPosition.forward(Map.of("id", 1L, "name", "HR")), false));
+
+        mockMvc.perform(get("/api/departments")
+                .param("after", "")
+                .param("sort", "name,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("HR"))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
 
-        verify(departmentService, times(1)).getAllDepartments(any(Pageable.class));
+    @Test
+    @WithMockUser
+    void testGetDepartmentsWithCursorRejectsUnindexedSort() throws Exception {
+        mockMvc.perform(get("/api/departments")
+                .param("after", "")
+                .param("sort", "employees,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDepartmentsWithCursorRejectsOversizedPage() throws Exception {
+        mockMvc.perform(get("/api/departments")
+                .param("after", "")
+                .param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(departmentService);
     }
 
     @Test
@@ -97,7 +204,27 @@ public class DepartmentRestControllerTest {
     void testGetDepartmentById() throws Exception {
         when(departmentService.getDepartmentById(1L)).thenReturn(dept);
         mockMvc.perform(get("/api/departments/id/1")).andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("HR"));
+                .andExpect(header().string("ETag", "\"0.0\""))
+                .andExpect(jsonPath("$.name").value("HR"))
+                .andExpect(jsonPath("$.headcount").value(0));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetDepartmentByIdNotModified() throws Exception {
+        ReflectionTestUtils.setField(dept, "version", 4L);
+        ReflectionTestUtils.setField(dept, "headcount", 9);
+        when(departmentService.getDepartmentById(1L)).thenReturn(dept);
+
+        mockMvc.perform(get("/api/departments/id/1").header("If-None-Match", "\"4.9\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A headcount change alone makes the copy stale.
+        ReflectionTestUtils.setField(dept, "headcount", 10);
+        mockMvc.perform(get("/api/departments/id/1").header("If-None-Match", "\"4.9\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.10\""));
     }
 
     @Test
@@ -113,9 +240,101 @@ public class DepartmentRestControllerTest {
         verify(departmentService, times(1)).getDepartmentByName("HR");
     }
 
+    @Test
+    @WithMockUser
+    void testGetDepartmentStats() throws Exception {
+        when(departmentService.getDepartmentStats()).thenReturn(new DepartmentStatsDTO(2, 7,
+                List.of(new DepartmentResponseDTO(2L, "Engineering", 5), new DepartmentResponseDTO(1L, "HR", 2))));
+
+        mockMvc.perform(get("/api/departments/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalEmployees").value(7))
+                .andExpect(jsonPath("$.departments[0].name").value("Engineering"))
+                .andExpect(jsonPath("$.departments[0].headcount").value(5));
+    }
+
+    @Test
+    @WithMockUser
+    void testDepartmentListsAreTaggedByTheirContent() throws Exception {
+        when(departmentService.getAllDepartments(any(Pageable.class), any()))
+                .thenReturn(new PageImpl<>(List.of(dept)));
+        when(departmentService.getDepartmentStats()).thenReturn(new DepartmentStatsDTO(1, 2,
+                List.of(new DepartmentResponseDTO(1L, "HR", 2))));
+
+        for (String uri : List.of("/api/departments", "/api/departments/stats")) {
+            String eTag = mockMvc.perform(get(uri))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "no-cache, private"))
+                    .andReturn().getResponse().getHeader("ETag");
+
+            mockMvc.perform(get(uri).header("If-None-Match", eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void testReassignEmployees() throws Exception {
+        when(departmentService.reassignEmployees(1L, 2L))
+                .thenReturn(new DepartmentTransferResultDTO(1L, 2L, 3, false));
+
+        mockMvc.perform(post("/api/departments/1/reassign")
+                .with(csrf())
+                .param("to", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.employeesMoved").value(3))
+                .andExpect(jsonPath("$.sourceDeleted").value(false));
+
+        verify(departmentService).reassignEmployees(1L, 2L);
+    }
+
+    @Test
+    @WithMockUser
+    void testMergeInto() throws Exception {
+        when(departmentService.mergeInto(1L, 2L))
+                .thenReturn(new DepartmentTransferResultDTO(1L, 2L, 3, true));
+
+        mockMvc.perform(post("/api/departments/1/merge-into/2")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.targetDepartmentId").value(2))
+                .andExpect(jsonPath("$.sourceDeleted").value(true));
+
+        verify(departmentService).mergeInto(1L, 2L);
+    }
+
     @Test
     void testUpdateDepartment() {
-        when(departmentService.updateDepartment(eq(1L), any(Department.class)))
+        when(departmentService.updateDepartment(eq(1L), any(Department.class), any()))
                 .thenReturn(dept);
     }
+
+    @Test
+    @WithMockUser(roles = { "USER" })
+    void testUpdateDepartmentIfMatch() throws Exception {
+        ReflectionTestUtils.setField(dept, "version", 4L);
+        // The service runs the check on the department it loads for the update.
+        when(departmentService.updateDepartment(eq(1L), any(Department.class), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Department>>getArgument(2).accept(dept);
+            return dept;
+        });
+
+        mockMvc.perform(put("/api/departments/1")
+                .with(csrf())
+                .header("If-Match", "\"3.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"People\"}"))
+                .andExpect(status().isPreconditionFailed());
+        verify(departmentService, never()).getDepartmentById(any());
+
+        mockMvc.perform(put("/api/departments/1")
+                .with(csrf())
+                .header("If-Match", "\"4.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"People\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.0\""));
+        verify(departmentService, times(2)).updateDepartment(eq(1L), any(Department.class), any());
+    }
 }
@@ -0,0 +1,49 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmployeeExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testNdJsonWritesOneObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EmployeeExportWriter writer = EmployeeExportWriter.create(EmployeeExportWriter.Format.NDJSON, out, objectMapper)) {
+            writer.write(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR"));
+            writer.write(new EmployeeResponseDTO("Jane", "jane@test.com", 2, null, null));
+        }
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("HR", objectMapper.readTree(lines[0]).at("/department/name").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("department").isNull());
+    }
+
+    @Test
+    void testCsvEscapesSpecialCharacters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (EmployeeExportWriter writer = EmployeeExportWriter.create(EmployeeExportWriter.Format.CSV, out, objectMapper)) {
+            writer.write(new EmployeeResponseDTO("Jo, \"JJ\"", "jo@test.com", 7, 3L, "R&D"));
+        }
+
+        assertEquals("id,firstName,email,departmentId,departmentName\n"
+                + "7,\"Jo, \"\"JJ\"\"\",jo@test.com,3,R&D\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testFormatIsParsedCaseInsensitively() {
+        assertEquals(EmployeeExportWriter.Format.CSV, EmployeeExportWriter.Format.of("CSV"));
+        assertEquals(EmployeeExportWriter.Format.NDJSON, EmployeeExportWriter.Format.of("ndjson"));
+        assertThrows(InvalidRequestException.class, () -> EmployeeExportWriter.Format.of("xml"));
+    }
+}
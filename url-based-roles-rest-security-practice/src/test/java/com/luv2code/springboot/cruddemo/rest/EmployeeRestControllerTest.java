@@ -1,24 +1,52 @@
 package com.luv2code.springboot.cruddemo.rest;
 
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
+import com.luv2code.springboot.cruddemo.config.CollectionETagConfig;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO;
+import com.luv2code.springboot.cruddemo.dto.BulkImportResultDTO;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
 import com.luv2code.springboot.cruddemo.dto.CreateEmployeeRequestDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeBatchUpdateDTO;
 import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.SparseFieldset;
+import com.luv2code.springboot.cruddemo.dto.Versioned;
 import com.luv2code.springboot.cruddemo.entity.Department;
 import com.luv2code.springboot.cruddemo.entity.Employee;
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
+import com.luv2code.springboot.cruddemo.service.EmployeeChangeStream;
 import com.luv2code.springboot.cruddemo.service.EmployeeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -26,6 +54,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(EmployeeRestController.class)
+@Import(CollectionETagConfig.class)
 public class EmployeeRestControllerTest {
 
     @Autowired
@@ -33,6 +62,20 @@ public class EmployeeRestControllerTest {
 
     @MockBean
     private EmployeeService employeeService;
+
+    @MockBean
+    private EmployeeChangeStream changeStream;
+
+    // Dependencies of the JWT filter, which @WebMvcTest picks up with the web layer.
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
     private Employee employee;
     private EmployeeResponseDTO employeeResponseDTO;
     private CreateEmployeeRequestDTO createEmployeeRequestDTO;
@@ -92,29 +135,343 @@ public class EmployeeRestControllerTest {
     @Test
     @WithMockUser
     void testGetAllEmployees() throws Exception {
-        Page<Employee> employeePage = new PageImpl<>(List.of(employee));
-        when(employeeService.getAllEmployees(any())).thenReturn(employeePage);
+        Page<EmployeeResponseDTO> employeePage = new PageImpl<>(List.of(employeeResponseDTO));
+        when(employeeService.getAllEmployees(any(), eq(CountMode.EXACT))).thenReturn(employeePage);
 
         mockMvc.perform(get("/api/employees")
                 .param("page", "0")
                 .param("size", "10")
                 .param("sort", "id, asc"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].firstName").value("John"));
+                .andExpect(jsonPath("$.content[0].firstName").value("John"))
+                .andExpect(jsonPath("$.count").value("exact"))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.pageable").doesNotExist());
+
+        verify(employeeService, times(1)).getAllEmployees(any(), eq(CountMode.EXACT));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllEmployeesWithoutCount() throws Exception {
+        when(employeeService.getAllEmployees(any(), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(employeeResponseDTO), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/employees")
+                .param("size", "1")
+                .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].firstName").value("John"))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.count").value("none"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllEmployeeFields() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("email", "john@test.com");
+        when(employeeService.getEmployeeFields(any(SparseFieldset.class), any(), eq(CountMode.NONE)))
+                .thenReturn(new SliceImpl<>(List.of(row)));
+
+        mockMvc.perform(get("/api/employees")
+                .param("fields", "email, id")
+                .param("count", "none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].email").value("john@test.com"))
+                .andExpect(jsonPath("$.content[0].firstName").doesNotExist());
+
+        ArgumentCaptor<SparseFieldset> fields = ArgumentCaptor.forClass(SparseFieldset.class);
+        verify(employeeService).getEmployeeFields(fields.capture(), any(), eq(CountMode.NONE));
+        assertEquals(List.of("id", "email"), fields.getValue().paths());
+        verify(employeeService, never()).getAllEmployees(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeeFieldsRejectsUnknownField() throws Exception {
+        mockMvc.perform(get("/api/employees").param("fields", "id,salary"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/employees").param("fields", "id").param("after", ""))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeeFields() throws Exception {
+        when(employeeService.getUserById(1)).thenReturn(
+                new Versioned<>(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR"), 3));
+
+        mockMvc.perform(get("/api/employees/1").param("fields", "department.name"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().json("{\"department\": {\"name\": \"HR\"}}", true));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllEmployeesWithUnknownCountMode() throws Exception {
+        mockMvc.perform(get("/api/employees").param("count", "roughly"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesWithCursor() throws Exception {
+        Window<Employee> window = Window.from(List.of(employee),
+                i -> ScrollPosition.forward(Map.of("id", 1)), true);
+        when(employeeService.getEmployeesAfter(any(ScrollPosition.class), any(Sort.class), eq(1)))
+                .thenReturn(window);
+
+        mockMvc.perform(get("/api/employees")
+                .param("after", "")
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].firstName").value("John"))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.next").isNotEmpty());
+
+        verify(employeeService, never()).getAllEmployees(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesWithInvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/employees")
+                .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesWithCursorRejectsOversizedPage() throws Exception {
+        mockMvc.perform(get("/api/employees")
+                .param("after", "")
+                .param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/employees").param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchEmployees() throws Exception {
+        when(employeeService.searchEmployees(eq("john"), any()))
+                .thenReturn(new PageImpl<>(List.of(employeeResponseDTO)));
+
+        mockMvc.perform(get("/api/employees/search")
+                .param("q", "john")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value("john@test.com"));
+
+        verify(employeeService).searchEmployees(eq("john"), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testSearchEmployeesRejectsOversizedPage() throws Exception {
+        mockMvc.perform(get("/api/employees/search")
+                .param("q", "john")
+                .param("size", "1001"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/employees/search")
+                .param("q", "john")
+                .param("page", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testExportEmployeesAsNdJson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<EmployeeResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(employeeResponseDTO);
+            consumer.accept(new EmployeeResponseDTO("Jane", "jane@test.com", 2, 1L, "HR"));
+            return null;
+        }).when(employeeService).streamAllEmployees(any());
+
+        MvcResult result = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"email\":\"jane@test.com\"")));
+    }
+
+    @Test
+    @WithMockUser
+    void testExportEmployeesRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/employees/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testBulkCreateEmployeesFromJson() throws Exception {
+        when(employeeService.bulkCreate(anyList())).thenReturn(new BulkImportResultDTO(2, 1,
+                List.of(new BulkImportResultDTO.RowError(2, "Department not found with name: Nowhere")), 5, 200.0));
+
+        String requestBody = """
+                    [
+                      {"firstName": "John", "lastName": "Doe", "email": "john@example.com", "departmentName": "HR"},
+                      {"firstName": "Jane", "lastName": "Roe", "email": "jane@example.com", "departmentName": "Nowhere"}
+                    ]
+                """;
+
+        mockMvc.perform(post("/api/employees/bulk")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2));
+    }
+
+    @Test
+    @WithMockUser
+    void testBulkCreateEmployeesFromCsv() throws Exception {
+        when(employeeService.bulkCreate(anyList())).thenReturn(new BulkImportResultDTO(2, 2, List.of(), 5, 400.0));
+
+        String csv = "email,firstName,lastName,departmentName\r\n"
+                + "john@example.com,John,Doe,HR\r\n"
+                + "\"jane@example.com\",\"Jane \"\"JJ\"\"\",Roe,\"Research, Development\"\r\n";
 
-        verify(employeeService, times(1)).getAllEmployees(any());
+        mockMvc.perform(post("/api/employees/bulk")
+                .with(csrf())
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isCreated());
+
+        verify(employeeService).bulkCreate(List.of(
+                new CreateEmployeeRequestDTO("John", "Doe", "john@example.com", "HR"),
+                new CreateEmployeeRequestDTO("Jane \"JJ\"", "Roe", "jane@example.com", "Research, Development")));
+    }
+
+    @Test
+    @WithMockUser
+    void testBulkCreateEmployeesRejectsCsvWithoutHeader() throws Exception {
+        mockMvc.perform(post("/api/employees/bulk")
+                .with(csrf())
+                .contentType("text/csv")
+                .content("john@example.com,John,Doe,HR\n"))
+                .andExpect(status().isBadRequest());
+
+        verify(employeeService, never()).bulkCreate(anyList());
     }
 
     @Test
     @WithMockUser
     void testGetEmployee() throws Exception {
-        when(employeeService.findById(1)).thenReturn(employee);
+        when(employeeService.getUserById(1)).thenReturn(new Versioned<>(employeeResponseDTO, 3));
 
         mockMvc.perform(get("/api/employees/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3.0\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
                 .andExpect(jsonPath("$.firstName").value("John"));
 
-        verify(employeeService).findById(1);
+        verify(employeeService).getUserById(1);
+        verify(employeeService, never()).findById(anyInt());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeeNotModified() throws Exception {
+        when(employeeService.getUserById(1)).thenReturn(new Versioned<>(employeeResponseDTO, 3));
+
+        mockMvc.perform(get("/api/employees/1").header("If-None-Match", "\"3.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3.0\""))
+                .andExpect(content().string(""));
+
+        // A newer version is sent in full.
+        when(employeeService.getUserById(1)).thenReturn(new Versioned<>(employeeResponseDTO, 4));
+        mockMvc.perform(get("/api/employees/1").header("If-None-Match", "\"3.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4.0\""));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeeETagChangesWithDepartmentName() throws Exception {
+        when(employeeService.getUserById(1))
+                .thenReturn(new Versioned<>(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR"), 3));
+        String hr = mockMvc.perform(get("/api/employees/1")).andReturn().getResponse().getHeader("ETag");
+
+        when(employeeService.getUserById(1))
+                .thenReturn(new Versioned<>(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "People"), 3));
+        mockMvc.perform(get("/api/employees/1").header("If-None-Match", hr))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.department.name").value("People"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetAllEmployeesIsTaggedByItsContent() throws Exception {
+        when(employeeService.getAllEmployees(any(), any()))
+                .thenReturn(new PageImpl<>(List.of(employeeResponseDTO)));
+        String eTag = mockMvc.perform(get("/api/employees"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(eTag);
+
+        mockMvc.perform(get("/api/employees").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+
+        // A change to a row on this page changes the tag, so the client gets the new body.
+        when(employeeService.getAllEmployees(any(), any())).thenReturn(new PageImpl<>(List.of(
+                new EmployeeResponseDTO("Johnny", "john@test.com", 1, 1L, "Engineering"))));
+        mockMvc.perform(get("/api/employees").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].firstName").value("Johnny"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesByDepartment() throws Exception {
+        EmployeeResponseDTO inDepartment = new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR");
+        when(employeeService.getEmployeesByDepartment(eq(2L), any(), eq(CountMode.ESTIMATE)))
+                .thenReturn(new PageImpl<>(List.of(inDepartment), PageRequest.of(0, 1), 40));
+
+        mockMvc.perform(get("/api/employees/department/2")
+                .param("size", "1")
+                .param("count", "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].department.id").value(2))
+                .andExpect(jsonPath("$.content[0].department.name").value("HR"))
+                .andExpect(jsonPath("$.count").value("estimate"))
+                .andExpect(jsonPath("$.totalElements").value(40))
+                .andExpect(jsonPath("$.totalPages").value(40));
+
+        verify(employeeService).getEmployeesByDepartment(eq(2L), any(), eq(CountMode.ESTIMATE));
     }
 
     @Test
@@ -161,4 +518,165 @@ public class EmployeeRestControllerTest {
         verify(employeeService).findById(1);
         verify(employeeService).save(any(Employee.class), eq("HR"));
     }
+
+    @Test
+    @WithMockUser
+    void testUpdateEmployeeWithStaleIfMatch() throws Exception {
+        ReflectionTestUtils.setField(employee, "version", 2L);
+        when(employeeService.findById(1)).thenReturn(employee);
+
+        mockMvc.perform(put("/api/employees/1")
+                .with(csrf())
+                .header("If-Match", "\"1.0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john@test.com", "departmentName": "HR"}
+                        """))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(employeeService, never()).save(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testUpdateEmployeeWithCurrentIfMatch() throws Exception {
+        ReflectionTestUtils.setField(employee, "version", 2L);
+        when(employeeService.findById(1)).thenReturn(employee);
+        Department department = new Department();
+        department.setId(1);
+        department.setName("HR");
+        employee.setDepartment(department);
+        when(employeeService.save(any(Employee.class), eq("HR"))).thenReturn(employee);
+
+        mockMvc.perform(put("/api/employees/1")
+                .with(csrf())
+                .header("If-Match", "W/\"2.0\", \"2.1." + Integer.toHexString("HR".hashCode()) + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"firstName": "John", "lastName": "Doe", "email": "john@test.com", "departmentName": "HR"}
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+
+        verify(employeeService).save(any(Employee.class), eq("HR"));
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesByIds() throws Exception {
+        EmployeeResponseDTO jane = new EmployeeResponseDTO("Jane", "jane@test.com", 3, 1L, "HR");
+        when(employeeService.getEmployeesByIds(List.of(3, 1, 7))).thenReturn(List.of(jane, employeeResponseDTO));
+
+        mockMvc.perform(get("/api/employees").param("ids", "3, 1,7,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.content[1].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(7))
+                .andExpect(jsonPath("$.missing.length()").value(1));
+
+        verify(employeeService, never()).getAllEmployees(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesByIdsWithFields() throws Exception {
+        when(employeeService.getEmployeesByIds(List.of(1))).thenReturn(List.of(employeeResponseDTO));
+
+        mockMvc.perform(get("/api/employees").param("ids", "1").param("fields", "id,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].email").value("john@test.com"))
+                .andExpect(jsonPath("$.content[0].firstName").doesNotExist());
+
+        verify(employeeService, never()).getEmployeeFields(any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testGetEmployeesByIdsRejectsNonNumericIds() throws Exception {
+        mockMvc.perform(get("/api/employees").param("ids", "1,two"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    @WithMockUser
+    void testBatchUpdateEmployees() throws Exception {
+        when(employeeService.batchUpdate(anyList())).thenReturn(new BatchUpdateResultDTO(2, 1, List.of(
+                new BatchUpdateResultDTO.ItemResult(1, BatchUpdateResultDTO.Status.UPDATED, null, 3L),
+                new BatchUpdateResultDTO.ItemResult(2, BatchUpdateResultDTO.Status.CONFLICT,
+                        "Employee was modified since version 1", 2L)), 4));
+
+        mockMvc.perform(put("/api/employees/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [
+                          {"id": 1, "firstName": "John", "lastName": "Doe", "email": "john@test.com", "departmentName": "HR"},
+                          {"id": 2, "firstName": "Jane", "lastName": "Roe", "email": "jane@test.com", "departmentName": "HR", "version": 1}
+                        ]
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.results[0].message").doesNotExist())
+                .andExpect(jsonPath("$.results[1].status").value("CONFLICT"))
+                .andExpect(jsonPath("$.results[1].version").value(2));
+
+        verify(employeeService).batchUpdate(List.of(
+                new EmployeeBatchUpdateDTO(1, "John", "Doe", "john@test.com", "HR", null),
+                new EmployeeBatchUpdateDTO(2, "Jane", "Roe", "jane@test.com", "HR", 1L)));
+        verify(employeeService, never()).save(any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void testBatchUpdateEmployeesWithNothingApplied() throws Exception {
+        when(employeeService.batchUpdate(anyList())).thenReturn(new BatchUpdateResultDTO(1, 0, List.of(
+                new BatchUpdateResultDTO.ItemResult(9, BatchUpdateResultDTO.Status.NOT_FOUND,
+                        "Did not find employee id - 9", null)), 1));
+
+        mockMvc.perform(put("/api/employees/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [{"id": 9, "firstName": "Nobody", "lastName": "Here", "email": "nobody@test.com", "departmentName": "HR"}]
+                        """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.results[0].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    @WithMockUser
+    void testStreamEmployeeChanges() throws Exception {
+        when(changeStream.subscribe(2L, 40L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/employees/stream")
+                .param("departmentId", "2")
+                .header("Last-Event-ID", "40")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(changeStream).subscribe(2L, 40L);
+    }
+
+    @Test
+    @WithMockUser
+    void testStreamEmployeeChangesFromExpiredPosition() throws Exception {
+        when(changeStream.subscribe(null, 3L)).thenThrow(new CursorExpiredException("Changes after 3 are no longer kept"));
+
+        mockMvc.perform(get("/api/employees/stream").header("Last-Event-ID", "3")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    @WithMockUser
+    void testStreamEmployeeChangesWithNegativeLastEventId() throws Exception {
+        mockMvc.perform(get("/api/employees/stream").header("Last-Event-ID", "-1")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+
+        verify(changeStream, never()).subscribe(any(), any());
+    }
 }
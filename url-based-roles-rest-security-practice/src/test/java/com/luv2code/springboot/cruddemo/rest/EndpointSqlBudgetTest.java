@@ -0,0 +1,145 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.luv2code.springboot.cruddemo.config.SqlStatementScope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.luv2code.springboot.cruddemo.config.SqlStatementMatchers.sqlStatements;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the read endpoints against the seeded database and checks each stays within its
+ * {@link com.luv2code.springboot.cruddemo.config.SqlBudget}. The test profile also sets
+ * sql.budget.fail-on-exceed, so a request over budget fails outright. Also checks that
+ * ?count=none and ?count=estimate pages run no COUNT statement at all, and that a batch
+ * update stays within its budget.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class EndpointSqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/employees",
+            "/api/employees?page=1&size=2",
+            "/api/employees?fields=id",
+            "/api/employees?fields=id,email&sort=email,desc",
+            "/api/employees?ids=1,2,3",
+            "/api/employees?after=&size=2",
+            "/api/employees/department/1",
+            "/api/employees/department/1?fields=email",
+            "/api/employees/search?q=jo",
+            "/api/employees/1",
+            "/api/employees/1?fields=email",
+            "/api/departments",
+            "/api/departments?fields=name",
+            "/api/departments?after=&size=2",
+            "/api/departments/stats",
+            "/api/departments/id/1",
+            "/api/departments/name/Engineering",
+            "/api/departments/id/1?fields=name",
+            "/api/changes"
+    })
+    @WithMockUser(roles = "ADMIN")
+    void testReadEndpointsStayWithinTheirBudget(String uri) throws Exception {
+        mockMvc.perform(get(uri))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatements().withinBudget());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/employees?size=2&count=none",
+            "/api/employees?size=2&fields=id&count=none",
+            "/api/employees/department/1?size=1&count=none",
+            "/api/employees/department/1?size=1&count=estimate",
+            "/api/departments?size=2&count=none",
+            "/api/departments?size=2&fields=name&count=none"
+    })
+    @WithMockUser(roles = "ADMIN")
+    void testPagesWithoutAnExactCountRunNoCountQuery(String uri) throws Exception {
+        assertEquals(Set.of(), countQueries(uri));
+        // The same page with an exact total does count, so the check above can tell.
+        assertEquals(1, countQueries(uri.replaceAll("count=\\w+", "count=exact")).size());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testBatchUpdateStaysWithinItsBudget() throws Exception {
+        // Every employee gets a new email and moves to Finance, so all five departments change headcount.
+        String[][] employees = {
+                {"1", "John", "Doe"}, {"2", "Jane", "Smith"}, {"3", "Maria", "Santos"},
+                {"4", "Michael", "Chen"}, {"5", "Sarah", "Johnson"}, {"6", "David", "Brown"}
+        };
+        StringBuilder body = new StringBuilder("[");
+        for (String[] employee : employees) {
+            body.append(body.length() > 1 ? "," : "").append(String.format(
+                    "{\"id\":%s,\"firstName\":\"%s\",\"lastName\":\"%s\",\"email\":\"%s@finance.company.com\",\"departmentName\":\"Finance\"}",
+                    employee[0], employee[1], employee[2], employee[1].toLowerCase()));
+        }
+        body.append("]");
+
+        rolledBack(() -> mockMvc.perform(put("/api/employees/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(6))
+                .andExpect(sqlStatements().withinBudget()));
+    }
+
+    // Runs a write request in a transaction that is rolled back, so the seeded rows stay as
+    // they are. The transaction borrows its connection inside an open scope, so the
+    // request's statements are still counted; the change log's run at commit and are not.
+    private void rolledBack(RequestCall request) throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open("rolled back")) {
+            Exception failure = new TransactionTemplate(transactionManager).execute(status -> {
+                status.setRollbackOnly();
+                try {
+                    request.perform();
+                    return null;
+                } catch (Exception e) {
+                    return e;
+                }
+            });
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private interface RequestCall {
+        ResultActions perform() throws Exception;
+    }
+
+    // The SQL of the COUNT statements a GET ran, collected through a scope enclosing the request's.
+    private Set<String> countQueries(String uri) throws Exception {
+        try (SqlStatementScope scope = SqlStatementScope.open(uri)) {
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+            return scope.getRepeatedStatements(1).keySet().stream()
+                    .filter(sql -> sql.toLowerCase().contains("count("))
+                    .collect(Collectors.toSet());
+        }
+    }
+}
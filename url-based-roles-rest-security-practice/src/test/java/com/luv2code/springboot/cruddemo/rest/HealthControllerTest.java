@@ -0,0 +1,117 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.luv2code.springboot.cruddemo.security.JwtService;
+import com.luv2code.springboot.cruddemo.security.TokenDenylist;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.ApiVersion;
+import org.springframework.boot.actuate.endpoint.SecurityContext;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.WebServerNamespace;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpointWebExtension;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HealthController.class)
+public class HealthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HealthEndpointWebExtension healthEndpoint;
+
+    // Dependencies of the JWT filter, which @WebMvcTest picks up with the web layer.
+    @MockBean
+    private JwtService jwtService;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private TokenDenylist tokenDenylist;
+
+    private void givenHealth(String group, int status, HealthComponent health) {
+        when(healthEndpoint.health(eq(ApiVersion.V3), eq(WebServerNamespace.SERVER), any(), eq(group)))
+                .thenReturn(new WebEndpointResponse<>(health, status));
+    }
+
+    @Test
+    @WithMockUser
+    void testHealthReportsReadiness() throws Exception {
+        givenHealth("readiness", 200, Health.up().withDetail("pool", "ok").build());
+
+        mockMvc.perform(get("/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.details.pool").value("ok"));
+    }
+
+    @Test
+    @WithMockUser
+    void testReadinessIsUnavailableWhenDown() throws Exception {
+        givenHealth("readiness", 503, Health.down().build());
+
+        mockMvc.perform(get("/health/ready"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("DOWN"));
+    }
+
+    @Test
+    @WithMockUser
+    void testLivenessDoesNotUseReadiness() throws Exception {
+        givenHealth("liveness", 200, Health.up().build());
+
+        mockMvc.perform(get("/health/live"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        verify(healthEndpoint, never()).health(any(), any(), any(), eq("readiness"));
+    }
+
+    // Stands in for show-details=when-authorized with roles=ADMIN, judged while the request runs.
+    private void givenDetailsOnlyForAdmins() {
+        when(healthEndpoint.health(eq(ApiVersion.V3), eq(WebServerNamespace.SERVER), any(), eq("readiness")))
+                .thenAnswer(invocation -> {
+                    SecurityContext caller = invocation.getArgument(2);
+                    Health.Builder health = Health.up();
+                    if (caller.getPrincipal() != null && caller.isUserInRole("ADMIN")) {
+                        health.withDetail("pool", "ok");
+                    }
+                    return new WebEndpointResponse<>(health.build(), 200);
+                });
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void testAdminSeesHealthDetails() throws Exception {
+        givenDetailsOnlyForAdmins();
+
+        mockMvc.perform(get("/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.details.pool").value("ok"));
+    }
+
+    @Test
+    @WithMockUser(roles = "EMPLOYEE")
+    void testOtherCallersSeeOnlyTheStatus() throws Exception {
+        givenDetailsOnlyForAdmins();
+
+        mockMvc.perform(get("/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.details").doesNotExist());
+    }
+}
@@ -0,0 +1,163 @@
+package com.luv2code.springboot.cruddemo.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.config.ReactiveApiConfig;
+import com.luv2code.springboot.cruddemo.dao.ReactiveReadRepository;
+import com.luv2code.springboot.cruddemo.dto.DepartmentResponseDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class ReactiveReadHandlerTest {
+
+    private ReactiveReadRepository repository;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ReactiveReadRepository.class);
+        ReactiveReadHandler handler = new ReactiveReadHandler(repository, 500, 2);
+        client = WebTestClient
+                .bindToRouterFunction(ReactiveApiConfig.routes(handler))
+                .handlerStrategies(ReactiveApiConfig.handlerStrategies(handler, new ObjectMapper()))
+                .build();
+    }
+
+    @Test
+    void testGetEmployeesAsJsonArray() {
+        when(repository.findEmployeesAfter(0, 100)).thenReturn(Flux.just(
+                new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR"),
+                new EmployeeResponseDTO("Jane", "jane@test.com", 2, null, null)));
+
+        client.get().uri("/employees")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].department.name").isEqualTo("HR")
+                .jsonPath("$[0].department.headcount").doesNotExist()
+                .jsonPath("$[1].email").isEqualTo("jane@test.com");
+    }
+
+    @Test
+    void testGetEmployeesAsNdJson() {
+        when(repository.findEmployeesAfter(10, 2)).thenReturn(Flux.just(
+                new EmployeeResponseDTO("John", "john@test.com", 11, 2L, "HR"),
+                new EmployeeResponseDTO("Jane", "jane@test.com", 12, 2L, "HR")));
+
+        List<EmployeeResponseDTO> employees = client.get().uri("/employees?after=10&limit=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .returnResult(EmployeeResponseDTO.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(List.of(11, 12), employees.stream().map(EmployeeResponseDTO::id).toList());
+
+        verify(repository).findEmployeesAfter(10, 2);
+    }
+
+    @Test
+    void testGetEmployeesRejectsLimitAboveMaximum() {
+        client.get().uri("/employees?limit=501")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.statusCode").isEqualTo(400);
+
+        verify(repository, never()).findEmployeesAfter(anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetEmployee() {
+        when(repository.findEmployeeById(1))
+                .thenReturn(Mono.just(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR")));
+
+        client.get().uri("/employees/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("John")
+                .jsonPath("$.department.id").isEqualTo(2);
+    }
+
+    @Test
+    void testGetEmployeeNotFound() {
+        when(repository.findEmployeeById(99)).thenReturn(Mono.empty());
+
+        client.get().uri("/employees/99")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Did not find employee id - 99");
+    }
+
+    @Test
+    void testGetEmployeeWithInvalidId() {
+        client.get().uri("/employees/abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testGetEmployeesByDepartment() {
+        when(repository.findEmployeesByDepartmentAfter(2L, 0, 100))
+                .thenReturn(Flux.just(new EmployeeResponseDTO("John", "john@test.com", 1, 2L, "HR")));
+
+        client.get().uri("/employees/department/2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].department.id").isEqualTo(2);
+    }
+
+    @Test
+    void testGetDepartments() {
+        when(repository.findAllDepartments()).thenReturn(Flux.just(new DepartmentResponseDTO(1L, "HR", 5)));
+
+        client.get().uri("/departments")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("HR")
+                .jsonPath("$[0].headcount").isEqualTo(5);
+    }
+
+    @Test
+    void testGetDepartmentNotFound() {
+        when(repository.findDepartmentById(7L)).thenReturn(Mono.empty());
+
+        client.get().uri("/departments/7")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testConnectionFailureIsReportedAsBusy() {
+        when(repository.findAllDepartments())
+                .thenReturn(Flux.error(new DataAccessResourceFailureException("Failed to obtain R2DBC Connection")));
+
+        client.get().uri("/departments")
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2");
+    }
+}
@@ -0,0 +1,120 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.ServiceBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+    private ExecutorService callers;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+        if (callers != null) {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDelegatesToBCrypt() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, 5000, 1);
+
+        String hash = encoder.encode("password");
+
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, encoder.getHashCount());
+    }
+
+    @Test
+    void testMetricsTimeEachOperation() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 4, 5000, 1);
+        encoder.bindTo(registry);
+
+        String hash = encoder.encode("password");
+        encoder.matches("password", hash);
+        encoder.matches("wrong", hash);
+
+        assertEquals(1, registry.get("bcrypt.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, registry.get("bcrypt.hash").tag("operation", "matches").timer().count());
+        assertEquals(0.0, registry.get("bcrypt.rejected").functionCounter().count());
+        assertEquals(0.0, registry.get("bcrypt.queue.size").gauge().value());
+    }
+
+    @Test
+    void testUpgradeEncodingWhenCostIncreases() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password");
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(6), 1, 4, 5000, 1);
+
+        assertTrue(encoder.upgradeEncoding(weakHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new BCryptPasswordEncoder(4) {
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 1, 1, 5000, 7);
+        callers = Executors.newFixedThreadPool(2);
+
+        // One call occupies the worker, the next one fills the queue.
+        callers.submit(() -> encoder.matches("a", "b"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        callers.submit(() -> encoder.matches("a", "b"));
+        while (encoder.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+
+        ServiceBusyException busy = assertThrows(ServiceBusyException.class, () -> encoder.matches("a", "b"));
+        assertEquals(7, busy.getRetryAfterSeconds());
+        assertEquals(1, encoder.getRejectedCount());
+        release.countDown();
+    }
+
+    @Test
+    void testTimesOutSlowHash() {
+        PasswordEncoder slow = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, 50, 1);
+
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("password"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+
+    private JwtService jwtService;
+    private UserDetails user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(86400000L, 100);
+        user = User.withUsername("manager").password("x").roles("MANAGER").build();
+    }
+
+    private JwtService newService(long expiration, int cacheMaxSize) {
+        return newService(expiration, cacheMaxSize, false);
+    }
+
+    private JwtService newService(long expiration, int cacheMaxSize, boolean selfContained) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKey", SECRET);
+        ReflectionTestUtils.setField(service, "jwtExpiration", expiration);
+        ReflectionTestUtils.setField(service, "cacheMaxSize", cacheMaxSize);
+        ReflectionTestUtils.setField(service, "selfContainedClaims", selfContained);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void testVerifyReturnsSubjectAndExpiry() {
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken verified = jwtService.verify(token);
+
+        assertEquals("manager", verified.username());
+        assertNotNull(verified.expiration());
+        assertTrue(jwtService.isTokenValid(verified, user));
+    }
+
+    @Test
+    void testRepeatedVerificationIsServedFromCache() {
+        String token = jwtService.generateToken(user);
+
+        jwtService.extractUsername(token);
+        jwtService.isTokenValid(token, user);
+        jwtService.verify(token);
+
+        assertEquals(1, jwtService.getCacheMisses());
+        assertEquals(2, jwtService.getCacheHits());
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(tampered));
+        assertEquals(0, jwtService.getCacheSize());
+    }
+
+    @Test
+    void testExpiredTokenIsRejected() {
+        JwtService shortLived = newService(-1000L, 100);
+        String token = shortLived.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> shortLived.verify(token));
+    }
+
+    @Test
+    void testCacheStaysBounded() {
+        JwtService small = newService(86400000L, 2);
+        for (int i = 0; i < 5; i++) {
+            UserDetails other = User.withUsername("user" + i).password("x").roles("EMPLOYEE").build();
+            small.verify(small.generateToken(other));
+        }
+
+        assertTrue(small.getCacheSize() <= 2);
+    }
+
+    @Test
+    void testCacheStaysBoundedUnderConcurrentPuts() throws Exception {
+        JwtService small = newService(86400000L, 8);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            tokens.add(small.generateToken(User.withUsername("user" + i).password("x").roles("EMPLOYEE").build()));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String token : tokens) {
+                futures.add(pool.submit(() -> small.verify(token)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertTrue(small.getCacheSize() <= 8);
+        assertEquals(200, small.getCacheMisses());
+    }
+
+    @Test
+    void testSelfContainedTokenCarriesRoles() {
+        JwtService selfContained = newService(86400000L, 100, true);
+        String token = selfContained.generateToken(user);
+
+        VerifiedToken verified = selfContained.verify(token);
+        UserDetails fromClaims = selfContained.toUserDetails(verified);
+
+        assertNotNull(verified.tokenId());
+        assertEquals("manager", fromClaims.getUsername());
+        assertTrue(fromClaims.isEnabled());
+        assertTrue(fromClaims.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_MANAGER")));
+    }
+
+    @Test
+    void testTokenWithoutRoleClaimsFallsBackToDatabase() {
+        String token = jwtService.generateToken(user);
+
+        assertNull(jwtService.toUserDetails(jwtService.verify(token)));
+    }
+
+    @Test
+    void testMetricsTimeSignatureChecksAndCountCacheRequests() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        jwtService.bindTo(registry);
+        String token = jwtService.generateToken(user);
+
+        jwtService.verify(token);
+        jwtService.verify(token);
+        assertThrows(SignatureException.class, () -> jwtService.verify(token.substring(0, token.length() - 2) + "AA"));
+
+        assertEquals(1, registry.get("jwt.verification").tag("outcome", "valid").timer().count());
+        assertEquals(1, registry.get("jwt.verification").tag("outcome", "invalid").timer().count());
+        assertEquals(1.0, registry.get("jwt.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, registry.get("jwt.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, registry.get("jwt.cache.size").gauge().value());
+    }
+}
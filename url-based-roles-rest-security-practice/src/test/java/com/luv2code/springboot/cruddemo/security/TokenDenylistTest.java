@@ -0,0 +1,62 @@
+package com.luv2code.springboot.cruddemo.security;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TokenDenylistTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        denylist = new TokenDenylist(jdbcTemplate);
+    }
+
+    @Test
+    void testRevokeTakesEffectImmediately() {
+        denylist.revoke("abc", new Date(System.currentTimeMillis() + 60000));
+
+        assertTrue(denylist.isRevoked("abc"));
+        assertFalse(denylist.isRevoked("xyz"));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO revoked_tokens"), eq("abc"), any());
+    }
+
+    @Test
+    void testRefreshReplacesListFromTable() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("t1", "t2"));
+
+        denylist.refresh();
+
+        assertTrue(denylist.isRevoked("t1"));
+        assertTrue(denylist.isRevoked("t2"));
+        assertFalse(denylist.isRevoked("t3"));
+        assertEquals(2, denylist.size());
+    }
+
+    @Test
+    void testRefreshFailureKeepsLastKnownList() {
+        denylist.revoke("abc", new Date(System.currentTimeMillis() + 60000));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        denylist.refresh();
+
+        assertTrue(denylist.isRevoked("abc"));
+    }
+
+    @Test
+    void testNullTokenIdIsNotRevoked() {
+        assertFalse(denylist.isRevoked(null));
+    }
+}
@@ -0,0 +1,161 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.CursorExpiredException;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.EntityType;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ChangeLogTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EntityManager entityManager;
+    private ChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        entityManager = mock(EntityManager.class);
+        changeLog = new ChangeLog(jdbcTemplate);
+        ReflectionTestUtils.setField(changeLog, "entityManager", entityManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.unbindResourceIfPossible(changeLog);
+    }
+
+    @Test
+    void testRecordOutsideTransactionIsRejected() {
+        assertThrows(IllegalStateException.class, () -> changeLog.recordEmployee(1, Operation.UPDATE, 2L));
+    }
+
+    @Test
+    void testChangesAreWrittenOnceAtCommitWithConsecutiveIds() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        changeLog.recordEmployee(5, Operation.INSERT, 1L);
+        changeLog.recordDepartment(1, Operation.UPDATE);
+        changeLog.recordEmployeeMove(5, 1L, 2L);
+        changeLog.recordEmployeeMove(6, 2L, 3L);
+        changeLog.recordEmployee(6, Operation.DELETE, 3L);
+        changeLog.recordDepartment(1, Operation.UPDATE);
+        verifyNoInteractions(jdbcTemplate);
+
+        when(jdbcTemplate.queryForObject(startsWith("UPDATE change_log_position"), eq(Long.class), eq(3)))
+                .thenReturn(12L);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.get(0).beforeCommit(false);
+
+        verify(entityManager).flush();
+        ArgumentCaptor<BatchPreparedStatementSetter> setter = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO change_log"), setter.capture());
+        assertEquals(3, setter.getValue().getBatchSize());
+        List<PreparedStatement> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PreparedStatement row = mock(PreparedStatement.class);
+            setter.getValue().setValues(row, i);
+            rows.add(row);
+        }
+        // One entry per record, in order of first change: INSERT+UPDATE stays INSERT, UPDATE+DELETE is DELETE.
+        // The department is the last one; the previous one is where the employee was before the transaction.
+        verify(rows.get(0)).setLong(1, 10L);
+        verify(rows.get(0)).setString(2, "EMPLOYEE");
+        verify(rows.get(0)).setString(4, "INSERT");
+        verify(rows.get(0)).setObject(5, 2L, Types.BIGINT);
+        verify(rows.get(0)).setObject(6, null, Types.BIGINT);
+        verify(rows.get(1)).setLong(1, 11L);
+        verify(rows.get(1)).setString(2, "DEPARTMENT");
+        verify(rows.get(1)).setString(4, "UPDATE");
+        verify(rows.get(1)).setObject(5, null, Types.BIGINT);
+        verify(rows.get(2)).setLong(1, 12L);
+        verify(rows.get(2)).setLong(3, 6L);
+        verify(rows.get(2)).setString(4, "DELETE");
+        verify(rows.get(2)).setObject(5, 3L, Types.BIGINT);
+        verify(rows.get(2)).setObject(6, 2L, Types.BIGINT);
+
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertNull(TransactionSynchronizationManager.getResource(changeLog));
+    }
+
+    @Test
+    void testCommitListenersRunAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        Runnable listener = mock(Runnable.class);
+        changeLog.onCommit(listener);
+
+        changeLog.recordDepartment(1, Operation.DELETE);
+        TransactionSynchronization pending = TransactionSynchronizationManager.getSynchronizations().get(0);
+        verifyNoInteractions(listener);
+
+        pending.afterCommit();
+        verify(listener).run();
+    }
+
+    @Test
+    void testReadReturnsOneBatchAndTheNextPosition() {
+        List<ChangeDTO> rows = List.of(change(11), change(12), change(13));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(10L), eq(3))).thenReturn(rows);
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("last_id", 20L, "purged_through", 4L));
+
+        ChangeFeedDTO feed = changeLog.read(10, 2);
+
+        assertEquals(2, feed.changes().size());
+        assertEquals(12, feed.next());
+        assertTrue(feed.hasMore());
+    }
+
+    @Test
+    void testEmptyReadKeepsThePosition() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(20L), eq(101))).thenReturn(List.of());
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("last_id", 20L, "purged_through", 0L));
+
+        ChangeFeedDTO feed = changeLog.read(20, 100);
+
+        assertEquals(20, feed.next());
+        assertFalse(feed.hasMore());
+    }
+
+    @Test
+    void testPurgedOrUnknownPositionIsExpired() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), anyLong(), anyInt())).thenReturn(List.of());
+        when(jdbcTemplate.queryForMap(anyString())).thenReturn(Map.of("last_id", 20L, "purged_through", 5L));
+
+        assertThrows(CursorExpiredException.class, () -> changeLog.read(4, 100));
+        assertThrows(CursorExpiredException.class, () -> changeLog.read(21, 100));
+        assertDoesNotThrow(() -> changeLog.read(5, 100));
+    }
+
+    private static ChangeDTO change(long seq) {
+        return new ChangeDTO(seq, EntityType.EMPLOYEE, seq, Operation.UPDATE, 1L, null, Instant.now());
+    }
+}
@@ -0,0 +1,190 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.EmployeeNotFoundException;
+import com.luv2code.springboot.cruddemo.ExceptionHandling.PreconditionFailedException;
+import com.luv2code.springboot.cruddemo.dao.DepartmentRepository;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.CountMode;
+import com.luv2code.springboot.cruddemo.entity.Department;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class DepartmentServiceImplTest {
+
+    private DepartmentRepository departmentRepository;
+    private ChangeLog changeLog;
+    private Cache secondLevelCache;
+    private DepartmentServiceImpl departmentService;
+
+    @BeforeEach
+    void setUp() {
+        departmentRepository = mock(DepartmentRepository.class);
+        departmentService = new DepartmentServiceImpl();
+        changeLog = mock(ChangeLog.class);
+        ReflectionTestUtils.setField(departmentService, "departmentRepository", departmentRepository);
+        ReflectionTestUtils.setField(departmentService, "changeLog", changeLog);
+        EntityManager entityManager = mock(EntityManager.class);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        secondLevelCache = mock(Cache.class);
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+        ReflectionTestUtils.setField(departmentService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(departmentService, "warmCacheOnStartup", true);
+        when(departmentRepository.findAll()).thenReturn(List.of(department(1L, "HR"), department(2L, "Sales")));
+        departmentService.warmCache();
+    }
+
+    private static Department department(long id, String name) {
+        return new Department(id, name, new ArrayList<>());
+    }
+
+    @Test
+    void testReferencesAreServedFromCache() {
+        assertEquals(1L, departmentService.getDepartmentReference("HR").getId());
+        assertEquals("Sales", departmentService.getDepartmentReference(2L).getName());
+        Map<String, Department> byName = departmentService.getDepartmentsByNames(Set.of("HR", "Sales"));
+
+        assertEquals(2, byName.size());
+        verify(departmentRepository, times(1)).findAll();
+        verify(departmentRepository, never()).findByName(any());
+        verify(departmentRepository, never()).findById(any());
+        verify(departmentRepository, never()).findByNameIn(any());
+    }
+
+    @Test
+    void testMissFallsBackToDatabaseOnceAndIsCached() {
+        when(departmentRepository.findByName("Legal")).thenReturn(Optional.of(department(3L, "Legal")));
+
+        departmentService.getDepartmentReference("Legal");
+        departmentService.getDepartmentReference("Legal");
+
+        verify(departmentRepository, times(1)).findByName("Legal");
+        assertEquals("Legal", departmentService.getDepartmentReference(3L).getName());
+    }
+
+    @Test
+    void testUnknownDepartmentIsRejected() {
+        when(departmentRepository.findByName("Nowhere")).thenReturn(Optional.empty());
+
+        assertThrows(EmployeeNotFoundException.class, () -> departmentService.getDepartmentReference("Nowhere"));
+    }
+
+    @Test
+    void testRenameInvalidatesOldName() {
+        when(departmentRepository.findById(1L)).thenReturn(Optional.of(department(1L, "HR")));
+        when(departmentRepository.save(any(Department.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(departmentRepository.findByName("HR")).thenReturn(Optional.empty());
+        Department details = new Department();
+        details.setName("People");
+
+        departmentService.updateDepartment(1L, details, department -> {
+        });
+
+        assertEquals(1L, departmentService.getDepartmentReference("People").getId());
+        assertThrows(EmployeeNotFoundException.class, () -> departmentService.getDepartmentReference("HR"));
+    }
+
+    @Test
+    void testFailedPreconditionLeavesTheDepartmentAlone() {
+        Department stored = department(1L, "HR");
+        when(departmentRepository.findById(1L)).thenReturn(Optional.of(stored));
+        Department details = new Department();
+        details.setName("People");
+
+        assertThrows(PreconditionFailedException.class, () -> departmentService.updateDepartment(1L, details,
+                department -> {
+                    assertSame(stored, department);
+                    throw new PreconditionFailedException("changed");
+                }));
+
+        assertEquals("HR", stored.getName());
+        verify(departmentRepository, never()).save(any());
+        verifyNoInteractions(changeLog);
+    }
+
+    @Test
+    void testReferenceCannotChangeCachedEntry() {
+        departmentService.getDepartmentReference("HR").setName("Changed");
+
+        assertEquals("HR", departmentService.getDepartmentReference(1L).getName());
+    }
+
+    @Test
+    void testPageWithoutCountSkipsCountQuery() {
+        when(departmentRepository.findSliceBy(any())).thenReturn(new SliceImpl<>(List.of(department(1L, "HR"))));
+
+        Slice<Department> slice = departmentService.getAllDepartments(PageRequest.of(0, 10), CountMode.NONE);
+
+        assertFalse(slice instanceof Page);
+        verify(departmentRepository, never()).findAll(any(Pageable.class));
+        verify(departmentRepository, never()).count();
+    }
+
+    @Test
+    void testEstimatedTotalIsCorrectedByThePage() {
+        // Stale statistics claim 3 rows, but the slice shows at least 5 and another page.
+        when(departmentRepository.estimateCount()).thenReturn(3L);
+        when(departmentRepository.findSliceBy(any())).thenReturn(new SliceImpl<>(
+                List.of(department(4L, "Legal"), department(5L, "Ops")), PageRequest.of(1, 2), true));
+        Page<Department> page = (Page<Department>) departmentService.getAllDepartments(PageRequest.of(1, 2), CountMode.ESTIMATE);
+        assertEquals(5, page.getTotalElements());
+
+        // The last page knows the exact total whatever the estimate says.
+        when(departmentRepository.estimateCount()).thenReturn(100L);
+        when(departmentRepository.findSliceBy(any())).thenReturn(new SliceImpl<>(
+                List.of(department(5L, "Ops")), PageRequest.of(2, 2), false));
+        page = (Page<Department>) departmentService.getAllDepartments(PageRequest.of(2, 2), CountMode.ESTIMATE);
+        assertEquals(5, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        verify(departmentRepository, never()).count();
+    }
+
+    @Test
+    void testEstimateWithoutStatisticsFallsBackToCount() {
+        when(departmentRepository.estimateCount()).thenReturn(-1L);
+        when(departmentRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(department(1L, "HR"))));
+
+        departmentService.getAllDepartments(PageRequest.of(0, 10), CountMode.ESTIMATE);
+
+        verify(departmentRepository).findAll(any(Pageable.class));
+        verify(departmentRepository, never()).findSliceBy(any());
+    }
+
+    @Test
+    void testHeadcountChangeIsRecorded() {
+        departmentService.adjustHeadcount(2L, 3);
+        departmentService.adjustHeadcount(1L, 0);
+
+        verify(departmentRepository).adjustHeadcount(2L, 3);
+        verify(changeLog).recordDepartment(2L, Operation.UPDATE);
+        verifyNoMoreInteractions(changeLog);
+    }
+
+    @Test
+    void testHeadcountChangeEvictsOnlyThatDepartmentFromTheSecondLevelCache() {
+        departmentService.adjustHeadcount(2L, -1);
+
+        verify(secondLevelCache).evict(Department.class, 2L);
+        verifyNoMoreInteractions(secondLevelCache);
+    }
+}
@@ -0,0 +1,324 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.EntityType;
+import com.luv2code.springboot.cruddemo.dto.ChangeDTO.Operation;
+import com.luv2code.springboot.cruddemo.dto.ChangeFeedDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.rest.EmployeeRestController;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+public class EmployeeChangeStreamTest {
+
+    private ChangeLog changeLog;
+    private EmployeeService employeeService;
+    private PlatformTransactionManager transactionManager;
+    private EmployeeChangeStream stream;
+    private MockMvc mockMvc;
+
+    // Used by the tests with a stalling client; see stallingClients.
+    private final AtomicBoolean stalling = new AtomicBoolean();
+    private final CountDownLatch writeStalled = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        changeLog = mock(ChangeLog.class);
+        employeeService = mock(EmployeeService.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        stream = new EmployeeChangeStream(changeLog, employeeService, objectMapper, transactionManager, new MockEnvironment(), 1);
+        // Run the pump and the sends on the calling thread.
+        ReflectionTestUtils.setField(stream, "pump", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(stream, "sender", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(stream, "bufferSize", 16);
+        ReflectionTestUtils.setField(stream, "batchSize", 200);
+        ReflectionTestUtils.setField(stream, "timeoutMillis", 60000L);
+        ReflectionTestUtils.setField(stream, "retryMillis", 3000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new EmployeeRestController(mock(EmployeeService.class), objectMapper, stream)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Lets a write stuck on a stalling client finish, whatever the test did.
+        released.countDown();
+        stream.destroy();
+    }
+
+    @Test
+    void testCommittedChangesAreSentOnceToEveryMatchingSubscriber() throws Exception {
+        when(changeLog.lastPosition()).thenReturn(10L);
+        MvcResult all = mockMvc.perform(get("/api/employees/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult hr = mockMvc.perform(get("/api/employees/stream").param("departmentId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        when(changeLog.read(10, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(11, EntityType.EMPLOYEE, 5, Operation.UPDATE, 2L, 1L),
+                change(12, EntityType.DEPARTMENT, 3, Operation.UPDATE, null, null),
+                change(13, EntityType.EMPLOYEE, 6, Operation.DELETE, 2L, null)), 13, false));
+        when(employeeService.getEmployeesByIds(List.of(5)))
+                .thenReturn(List.of(new EmployeeResponseDTO("Ann", "ann@test.com", 5, 2L, "IT")));
+
+        stream.poll();
+
+        String allEvents = all.getResponse().getContentAsString();
+        assertTrue(allEvents.startsWith("retry:3000\n"));
+        assertTrue(allEvents.contains("id:11\nevent:update\ndata:{\"id\":5,\"operation\":\"UPDATE\",\"departmentId\":2,"
+                + "\"previousDepartmentId\":1,\"employee\":{\"firstName\":\"Ann\""));
+        assertTrue(allEvents.contains("id:13\nevent:delete\ndata:{\"id\":6,\"operation\":\"DELETE\",\"departmentId\":2,"
+                + "\"changedAt\""));
+        assertFalse(allEvents.contains("id:12"));
+        String hrEvents = hr.getResponse().getContentAsString();
+        assertTrue(hrEvents.contains("id:11\nevent:update"));
+        assertFalse(hrEvents.contains("id:13"));
+        // One read of the log and one load of the employees, whatever the number of subscribers.
+        verify(changeLog, times(1)).read(anyLong(), anyInt());
+        verify(employeeService, times(1)).getEmployeesByIds(anyList());
+        // In a read-write transaction, so they come from the primary even with replicas on.
+        InOrder inOrder = inOrder(transactionManager, employeeService);
+        inOrder.verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        inOrder.verify(employeeService).getEmployeesByIds(anyList());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testResumedSubscriberIsCaughtUpFromTheLog() throws Exception {
+        when(changeLog.lastPosition()).thenReturn(20L);
+        when(changeLog.read(15, 1)).thenReturn(new ChangeFeedDTO(List.of(), 15, true));
+        when(changeLog.read(20, 200)).thenReturn(new ChangeFeedDTO(List.of(), 20, false));
+        when(changeLog.read(15, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(16, EntityType.EMPLOYEE, 7, Operation.INSERT, 1L, null),
+                change(21, EntityType.EMPLOYEE, 8, Operation.INSERT, 1L, null)), 21, false));
+        when(employeeService.getEmployeesByIds(List.of(7)))
+                .thenReturn(List.of(new EmployeeResponseDTO("Bob", "bob@test.com", 7, 1L, "HR")));
+
+        MvcResult result = mockMvc.perform(get("/api/employees/stream").header("Last-Event-ID", "15"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = result.getResponse().getContentAsString();
+        assertTrue(events.contains("id:16\nevent:create\ndata:{\"id\":7,"));
+        // 21 is past the pump's position, so it comes with the next shared batch.
+        assertFalse(events.contains("id:21"));
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() {
+        // Nothing is ever sent, as if the client stopped reading.
+        ReflectionTestUtils.setField(stream, "sender", (Executor) task -> {
+        });
+        ReflectionTestUtils.setField(stream, "bufferSize", 2);
+        when(changeLog.lastPosition()).thenReturn(0L);
+        stream.subscribe(null, null);
+        assertEquals(1, stream.getSubscriberCount());
+        when(changeLog.read(0, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(1, EntityType.EMPLOYEE, 1, Operation.DELETE, 1L, null),
+                change(2, EntityType.EMPLOYEE, 2, Operation.DELETE, 1L, null)), 2, false));
+
+        stream.poll();
+
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1, stream.getDroppedCount());
+    }
+
+    @Test
+    void testStalledWriteDoesNotHoldUpOtherSubscribers() throws Exception {
+        MockMvc mockMvc = stallingClients(16);
+        when(changeLog.lastPosition()).thenReturn(0L);
+        MvcResult stuck = mockMvc.perform(get("/api/employees/stream").header("X-Stall", "yes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult healthy = mockMvc.perform(get("/api/employees/stream").param("departmentId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The stalled client's first frame is out before its socket stops draining.
+        await(() -> contains(stuck, "retry:3000"));
+        stalling.set(true);
+
+        // Only the stalled client gets the first event, so its write takes the one sender thread.
+        when(changeLog.read(0, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(1, EntityType.EMPLOYEE, 1, Operation.DELETE, 2L, null)), 1, false));
+        stream.poll();
+        assertTrue(writeStalled.await(5, TimeUnit.SECONDS));
+        when(changeLog.read(1, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(2, EntityType.EMPLOYEE, 2, Operation.DELETE, 1L, null)), 2, false));
+        stream.poll();
+        assertFalse(contains(healthy, "id:2"));
+
+        stream.checkSends();
+
+        assertEquals(1, stream.getSubscriberCount());
+        assertEquals(1, stream.getDroppedCount());
+        assertEquals(1, stream.getStalledSendCount());
+        await(() -> contains(healthy, "id:2\nevent:delete"));
+        assertFalse(contains(stuck, "id:1"));
+
+        released.countDown();
+        await(() -> stream.getStalledSendCount() == 0);
+    }
+
+    @Test
+    void testFullBufferDuringAStalledWriteDisconnectsWithoutWaiting() throws Exception {
+        MockMvc mockMvc = stallingClients(1);
+        when(changeLog.lastPosition()).thenReturn(0L);
+        MvcResult stuck = mockMvc.perform(get("/api/employees/stream").header("X-Stall", "yes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await(() -> contains(stuck, "retry:3000"));
+        stalling.set(true);
+        when(changeLog.read(0, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(1, EntityType.EMPLOYEE, 1, Operation.DELETE, 2L, null)), 1, false));
+        stream.poll();
+        assertTrue(writeStalled.await(5, TimeUnit.SECONDS));
+        // One event fills the buffer behind the stuck write, the next overflows it on the pump thread.
+        when(changeLog.read(1, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(2, EntityType.EMPLOYEE, 2, Operation.DELETE, 2L, null),
+                change(3, EntityType.EMPLOYEE, 3, Operation.DELETE, 2L, null)), 3, false));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), stream::poll);
+
+        assertEquals(0, stream.getSubscriberCount());
+        assertEquals(1, stream.getDroppedCount());
+    }
+
+    @Test
+    void testShutdownDoesNotWaitForAStalledWrite() throws Exception {
+        MockMvc mockMvc = stallingClients(16);
+        when(changeLog.lastPosition()).thenReturn(0L);
+        MvcResult stuck = mockMvc.perform(get("/api/employees/stream").header("X-Stall", "yes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        await(() -> contains(stuck, "retry:3000"));
+        stalling.set(true);
+        when(changeLog.read(0, 200)).thenReturn(new ChangeFeedDTO(List.of(
+                change(1, EntityType.EMPLOYEE, 1, Operation.DELETE, 2L, null)), 1, false));
+        stream.poll();
+        assertTrue(writeStalled.await(5, TimeUnit.SECONDS));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), stream::destroy);
+
+        assertEquals(0, stream.getSubscriberCount());
+    }
+
+    @Test
+    void testNothingIsReadWithoutSubscribers() {
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(changeLog).onCommit(listener.capture());
+
+        listener.getValue().run();
+        stream.poll();
+
+        verify(changeLog, never()).read(anyLong(), anyInt());
+        verify(changeLog, never()).lastPosition();
+    }
+
+    // A stream with one real sender thread, served through a client whose socket stops draining
+    // once "stalling" is set: its writes then count down "writeStalled" and block until "released".
+    // Every write in progress counts as stalled when checkSends() runs.
+    private MockMvc stallingClients(int bufferSize) {
+        stream.destroy();
+        stream = new EmployeeChangeStream(changeLog, employeeService, new ObjectMapper().findAndRegisterModules(),
+                transactionManager, new MockEnvironment(), 1);
+        ReflectionTestUtils.setField(stream, "pump", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(stream, "bufferSize", bufferSize);
+        ReflectionTestUtils.setField(stream, "batchSize", 200);
+        ReflectionTestUtils.setField(stream, "timeoutMillis", 60000L);
+        ReflectionTestUtils.setField(stream, "retryMillis", 3000L);
+        ReflectionTestUtils.setField(stream, "sendTimeoutMillis", 0L);
+        Filter stallingClient = (request, response, chain) -> chain.doFilter(request,
+                ((HttpServletRequest) request).getHeader("X-Stall") == null ? response
+                        : stalling((HttpServletResponse) response));
+        return MockMvcBuilders.standaloneSetup(
+                        new EmployeeRestController(mock(EmployeeService.class), new ObjectMapper(), stream))
+                .addFilters(stallingClient).build();
+    }
+
+    private HttpServletResponse stalling(HttpServletResponse response) {
+        return new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                ServletOutputStream out = response.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        if (stalling.get()) {
+                            writeStalled.countDown();
+                            try {
+                                released.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                        out.write(b);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener listener) {
+                    }
+                };
+            }
+        };
+    }
+
+    private static boolean contains(MvcResult result, String text) {
+        try {
+            return result.getResponse().getContentAsString().contains(text);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private static ChangeDTO change(long seq, EntityType type, long id, Operation operation, Long departmentId,
+            Long previousDepartmentId) {
+        return new ChangeDTO(seq, type, id, operation, departmentId, previousDepartmentId, Instant.EPOCH);
+    }
+}
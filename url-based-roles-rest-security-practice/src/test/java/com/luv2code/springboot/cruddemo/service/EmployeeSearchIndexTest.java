@@ -0,0 +1,114 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EmployeeSearchIndexTest {
+
+    private EmployeeRepository employeeRepository;
+    private EmployeeSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        searchIndex = new EmployeeSearchIndex();
+        ReflectionTestUtils.setField(searchIndex, "employeeRepository", employeeRepository);
+        ReflectionTestUtils.setField(searchIndex, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(searchIndex, "buildOnStartup", true);
+        when(employeeRepository.streamSearchFields()).thenReturn(Stream.of(
+                new Object[] { 1, "John", "Doe", "john.doe@company.com", 1L },
+                new Object[] { 2, "Jane", "Smith", "jane.smith@company.com", 1L },
+                new Object[] { 3, "José", "Johnson", "jose.johnson@company.com", 2L },
+                new Object[] { 4, "Sarah", "Johns", "sarah@company.com", 3L }));
+        searchIndex.buildIndex();
+    }
+
+    private static List<Integer> ids(EmployeeSearchIndex.Result result) {
+        return result.hits().stream().map(EmployeeSearchIndex.Hit::id).toList();
+    }
+
+    private static Employee employee(int id, String firstName, String lastName, String email, long departmentId) {
+        Employee employee = new Employee(firstName, lastName, email);
+        employee.setId(id);
+        employee.setDepartment(new Department(departmentId, "Dept " + departmentId, new ArrayList<>()));
+        return employee;
+    }
+
+    @Test
+    void testSubstringPrefixAndExactMatchesAreRanked() {
+        // The whole last name of 4 ranks above a prefix of 3's.
+        assertEquals(List.of(4, 3), ids(searchIndex.search("Johns", 0, 10)));
+        // "ohn" is inside John, Johnson and Johns, but starts none of them.
+        assertEquals(List.of(1, 3, 4), ids(searchIndex.search("ohn", 0, 10)));
+        verify(employeeRepository, times(1)).streamSearchFields();
+    }
+
+    @Test
+    void testAllTermsMustMatchAndAccentsAreIgnored() {
+        assertEquals(List.of(3), ids(searchIndex.search("jose JOHN", 0, 10)));
+        assertEquals(List.of(3), ids(searchIndex.search("José", 0, 10)));
+        assertTrue(searchIndex.search("jane doe", 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    void testShortTermsMatchPrefixesOnly() {
+        assertEquals(List.of(2), ids(searchIndex.search("ja", 0, 10)));
+        assertEquals(List.of(1, 3, 4), ids(searchIndex.search("jo", 0, 10)));
+        // Inside "doe", but not at the start of any field.
+        assertTrue(searchIndex.search("oe", 0, 10).hits().isEmpty());
+    }
+
+    @Test
+    void testPagination() {
+        EmployeeSearchIndex.Result first = searchIndex.search("company", 0, 3);
+        EmployeeSearchIndex.Result second = searchIndex.search("company", 3, 3);
+
+        assertEquals(4, first.total());
+        assertEquals(3, first.hits().size());
+        assertEquals(1, second.hits().size());
+        assertTrue(searchIndex.search("company", 10, 3).hits().isEmpty());
+    }
+
+    @Test
+    void testWindowPastTheLastHitIsEmpty() {
+        EmployeeSearchIndex.Result result = searchIndex.search("company", Integer.MAX_VALUE - 1, 1000);
+
+        assertEquals(4, result.total());
+        assertTrue(result.hits().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.search("company", -1, 10));
+    }
+
+    @Test
+    void testWritesUpdateTheIndex() {
+        searchIndex.put(employee(5, "Michael", "Chen", "michael.chen@company.com", 3L));
+        searchIndex.put(employee(1, "Johnny", "Doe", "johnny.doe@company.com", 2L));
+        searchIndex.remove(2);
+        searchIndex.reassignDepartment(2L, 4L);
+
+        assertEquals(List.of(5), ids(searchIndex.search("chen", 0, 10)));
+        assertTrue(searchIndex.search("smith", 0, 10).hits().isEmpty());
+        EmployeeSearchIndex.Hit renamed = searchIndex.search("johnny", 0, 10).hits().get(0);
+        assertEquals("johnny.doe@company.com", renamed.email());
+        assertEquals(4L, renamed.departmentId());
+        assertEquals(4, searchIndex.search("company", 0, 10).total());
+    }
+
+    @Test
+    void testBlankOrOverlongQueryIsRejected() {
+        assertThrows(InvalidRequestException.class, () -> searchIndex.search("  ", 0, 10));
+        assertThrows(InvalidRequestException.class, () -> searchIndex.search("a b c d e f g h i", 0, 10));
+    }
+}
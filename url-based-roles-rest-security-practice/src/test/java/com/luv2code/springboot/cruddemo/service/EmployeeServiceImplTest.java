@@ -0,0 +1,268 @@
+package com.luv2code.springboot.cruddemo.service;
+
+import com.luv2code.springboot.cruddemo.ExceptionHandling.InvalidRequestException;
+import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO.ItemResult;
+import com.luv2code.springboot.cruddemo.dto.BatchUpdateResultDTO.Status;
+import com.luv2code.springboot.cruddemo.dto.EmployeeBatchUpdateDTO;
+import com.luv2code.springboot.cruddemo.dto.EmployeeResponseDTO;
+import com.luv2code.springboot.cruddemo.entity.Department;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.hibernate.CacheMode;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EmployeeServiceImplTest {
+
+    private EmployeeRepository employeeRepository;
+    private EmployeeServiceImpl employeeService;
+
+    private DepartmentService departmentService;
+    private EmployeeSearchIndex searchIndex;
+    private ChangeLog changeLog;
+    private Session session;
+
+    private final Department engineering = new Department(1, "Engineering", new ArrayList<>());
+    private final Department hr = new Department(2, "HR", new ArrayList<>());
+    private final Map<Integer, Employee> stored = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        employeeRepository = mock(EmployeeRepository.class);
+        employeeService = new EmployeeServiceImpl(employeeRepository);
+
+        departmentService = mock(DepartmentService.class);
+        searchIndex = mock(EmployeeSearchIndex.class);
+        changeLog = mock(ChangeLog.class);
+        session = mock(Session.class);
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        ReflectionTestUtils.setField(employeeService, "departmentService", departmentService);
+        ReflectionTestUtils.setField(employeeService, "searchIndex", searchIndex);
+        ReflectionTestUtils.setField(employeeService, "changeLog", changeLog);
+        ReflectionTestUtils.setField(employeeService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(employeeService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(employeeService, "batchMaxUpdates", 1000);
+
+        // The multi-load returns the stored employees in id order, null for unknown ids.
+        @SuppressWarnings("unchecked")
+        MultiIdentifierLoadAccess<Employee> multiLoad = mock(MultiIdentifierLoadAccess.class);
+        when(session.byMultipleIds(Employee.class)).thenReturn(multiLoad);
+        when(multiLoad.with(any(CacheMode.class))).thenReturn(multiLoad);
+        when(multiLoad.enableOrderedReturn(anyBoolean())).thenReturn(multiLoad);
+        when(multiLoad.withBatchSize(anyInt())).thenReturn(multiLoad);
+        when(multiLoad.multiLoad(anyList())).thenAnswer(invocation -> {
+            List<Employee> found = new ArrayList<>();
+            for (Object id : invocation.<List<?>>getArgument(0)) {
+                found.add(stored.get(id));
+            }
+            return found;
+        });
+        when(departmentService.getDepartmentsByNames(any())).thenAnswer(invocation -> {
+            Map<String, Department> found = new HashMap<>();
+            for (Department department : List.of(engineering, hr)) {
+                if (invocation.<Collection<?>>getArgument(0).contains(department.getName())) {
+                    found.put(department.getName(), department);
+                }
+            }
+            return found;
+        });
+    }
+
+    private Employee stored(int id, String email, Department department, long version) {
+        Employee employee = new Employee("First" + id, "Last" + id, email);
+        employee.setId(id);
+        employee.setDepartment(department);
+        ReflectionTestUtils.setField(employee, "version", version);
+        stored.put(id, employee);
+        return employee;
+    }
+
+    private static EmployeeBatchUpdateDTO update(int id, String email, String department, Long version) {
+        return new EmployeeBatchUpdateDTO(id, "First" + id, "Last" + id, email, department, version);
+    }
+
+    private static List<Status> statuses(BatchUpdateResultDTO result) {
+        return result.results().stream().map(ItemResult::status).toList();
+    }
+
+    // A million rows from the repository's cursor reach the consumer one at a time: none is
+    // read before the previous one was written, so nothing accumulates however many there are.
+    @Test
+    void testExportStreamsRowsFromTheRepositoryCursor() {
+        AtomicInteger read = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(employeeRepository.streamAllProjectedBy()).thenReturn(IntStream.rangeClosed(1, 1_000_000)
+                .mapToObj(i -> {
+                    read.incrementAndGet();
+                    return new EmployeeResponseDTO("First" + i, "user" + i + "@company.com", i, 1L, "Engineering");
+                })
+                .onClose(() -> closed.set(true)));
+        AtomicInteger written = new AtomicInteger();
+
+        employeeService.streamAllEmployees(employee -> {
+            assertEquals(read.get(), written.incrementAndGet());
+            assertEquals(written.get(), employee.id());
+        });
+
+        assertEquals(1_000_000, written.get());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testExportQueryUsesAJdbcFetchSize() throws Exception {
+        QueryHints hints = EmployeeRepository.class.getMethod("streamAllProjectedBy").getAnnotation(QueryHints.class);
+
+        assertNotNull(hints);
+        assertEquals(HibernateHints.HINT_FETCH_SIZE, hints.value()[0].name());
+        assertTrue(Integer.parseInt(hints.value()[0].value()) > 0);
+    }
+
+    // page * size can pass Integer.MAX_VALUE even with both capped; no result set is that large.
+    @Test
+    void testSearchRejectsAnOffsetBeyondAnInt() {
+        EmployeeSearchIndex searchIndex = mock(EmployeeSearchIndex.class);
+        ReflectionTestUtils.setField(employeeService, "searchIndex", searchIndex);
+
+        assertThrows(InvalidRequestException.class,
+                () -> employeeService.searchEmployees("john", PageRequest.of(Integer.MAX_VALUE, 1000)));
+        verifyNoInteractions(searchIndex);
+    }
+
+    // Employees, departments and taken emails are each read once for the whole batch.
+    @Test
+    void testBatchUpdateReadsEachKindOfRowOnce() {
+        stored(1, "a@x.com", engineering, 0);
+        stored(2, "b@x.com", engineering, 0);
+        when(employeeRepository.findExistingEmails(any())).thenReturn(List.of());
+
+        BatchUpdateResultDTO result = employeeService.batchUpdate(List.of(
+                update(1, "a2@x.com", "Engineering", null),
+                update(2, "b2@x.com", "HR", null),
+                update(9, "c@x.com", "HR", null)));
+
+        assertEquals(List.of(Status.UPDATED, Status.UPDATED, Status.NOT_FOUND), statuses(result));
+        assertEquals(2, result.updated());
+        verify(session, times(1)).byMultipleIds(Employee.class);
+        verify(departmentService, times(1)).getDepartmentsByNames(any());
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(employeeRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void testBatchUpdateRejectsAStaleVersionAsAConflict() {
+        stored(1, "a@x.com", engineering, 3);
+
+        BatchUpdateResultDTO result = employeeService.batchUpdate(List.of(update(1, "a@x.com", "HR", 2L)));
+
+        ItemResult item = result.results().get(0);
+        assertEquals(Status.CONFLICT, item.status());
+        assertEquals(3L, item.version());
+        assertEquals(engineering, stored.get(1).getDepartment());
+        verifyNoInteractions(changeLog);
+        verify(departmentService, never()).adjustHeadcount(anyLong(), anyInt());
+    }
+
+    @Test
+    void testBatchUpdateAppliesOnlyTheFirstEntryForAnId() {
+        stored(1, "a@x.com", engineering, 0);
+
+        BatchUpdateResultDTO result = employeeService.batchUpdate(List.of(
+                update(1, "a@x.com", "HR", null),
+                update(1, "a@x.com", "Engineering", null)));
+
+        assertEquals(List.of(Status.UPDATED, Status.INVALID), statuses(result));
+        assertEquals("Employee id appears more than once in the batch", result.results().get(1).message());
+        assertEquals(hr, stored.get(1).getDepartment());
+    }
+
+    @Test
+    void testBatchUpdateRejectsEmailsTakenInTheDatabaseOrEarlierInTheBatch() {
+        stored(1, "a@x.com", engineering, 0);
+        stored(2, "b@x.com", engineering, 0);
+        stored(3, "c@x.com", engineering, 0);
+        when(employeeRepository.findExistingEmails(any())).thenReturn(List.of("taken@x.com"));
+
+        BatchUpdateResultDTO result = employeeService.batchUpdate(List.of(
+                update(1, "new@x.com", "Engineering", null),
+                update(2, "new@x.com", "Engineering", null),
+                update(3, "taken@x.com", "Engineering", null)));
+
+        assertEquals(List.of(Status.UPDATED, Status.INVALID, Status.INVALID), statuses(result));
+        assertEquals("b@x.com", stored.get(2).getEmail());
+        assertEquals("c@x.com", stored.get(3).getEmail());
+    }
+
+    @Test
+    void testBatchUpdateReportsUnchangedEntriesWithoutWriting() {
+        stored(1, "a@x.com", engineering, 4);
+
+        BatchUpdateResultDTO result = employeeService.batchUpdate(List.of(update(1, "a@x.com", "Engineering", 4L)));
+
+        assertEquals(new ItemResult(1, Status.UNCHANGED, null, 4L), result.results().get(0));
+        assertEquals(0, result.updated());
+        verifyNoInteractions(changeLog);
+        verify(employeeRepository, never()).findExistingEmails(any());
+    }
+
+    // Moves are summed per department, so each gets one counter update however many employees moved.
+    @Test
+    void testBatchUpdateAdjustsEachDepartmentsHeadcountOnce() {
+        stored(1, "a@x.com", engineering, 0);
+        stored(2, "b@x.com", engineering, 0);
+        stored(3, "c@x.com", hr, 0);
+
+        employeeService.batchUpdate(List.of(
+                update(1, "a@x.com", "HR", null),
+                update(2, "b@x.com", "HR", null),
+                update(3, "c@x.com", "Engineering", null)));
+
+        verify(departmentService).adjustHeadcount(1L, -1);
+        verify(departmentService).adjustHeadcount(2L, 1);
+        verify(departmentService, times(2)).adjustHeadcount(anyLong(), anyInt());
+        verify(changeLog).recordEmployeeMove(1L, 1L, 2L);
+        verify(changeLog).recordEmployeeMove(3L, 2L, 1L);
+    }
+
+    @Test
+    void testBatchUpdateRefreshesTheSearchIndexWithTheWrittenEmployeesOnly() {
+        Employee renamed = stored(1, "a@x.com", engineering, 0);
+        stored(2, "b@x.com", engineering, 0);
+        stored(3, "c@x.com", engineering, 5);
+        when(employeeRepository.findExistingEmails(any())).thenReturn(List.of());
+
+        employeeService.batchUpdate(List.of(
+                update(1, "a2@x.com", "Engineering", null),
+                update(2, "b@x.com", "Engineering", null),
+                update(3, "c2@x.com", "Engineering", 4L)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Employee>> indexed = ArgumentCaptor.forClass(Collection.class);
+        verify(searchIndex).putAll(indexed.capture());
+        assertEquals(List.of(renamed), List.copyOf(indexed.getValue()));
+        assertEquals("a2@x.com", renamed.getEmail());
+    }
+}
@@ -0,0 +1,5 @@
+-- H2's SERIAL does not create PostgreSQL's employee_id_seq, which Employee ids come from and
+-- data.sql alters. It starts past the seeded ids 1..6 the way the real one does: once data.sql
+-- sets INCREMENT BY 50, its first value is 56 and Hibernate hands out 7..56.
+DROP SEQUENCE IF EXISTS employee_id_seq;
+CREATE SEQUENCE employee_id_seq START WITH 56;